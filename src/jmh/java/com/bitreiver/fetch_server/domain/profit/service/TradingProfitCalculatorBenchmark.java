@@ -0,0 +1,83 @@
+package com.bitreiver.fetch_server.domain.profit.service;
+
+import com.bitreiver.fetch_server.domain.trading.entity.TradingHistory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 수익률 계산 엔진(BigDecimal vs 고정소수점)과 코인별 병렬 계산 비교
+ *
+ * parallelism은 trading.profit.parallelism과 같은 의미입니다. (1: 순차 계산, 0: CPU 코어 수)
+ * parallel-threshold는 기본값(5000)을 사용합니다.
+ * 거래 내역은 coinCount개 코인에 매수 60% / 매도 40%로 시드 고정 생성합니다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TradingProfitCalculatorBenchmark {
+
+    private static final LocalDateTime BASE_TIME = LocalDateTime.of(2020, 1, 1, 0, 0);
+    private static final int PARALLEL_THRESHOLD = 5000;
+
+    @Param({"10000", "100000", "1000000"})
+    private int tradeCount;
+
+    @Param({"false", "true"})
+    private boolean fixedPoint;
+
+    @Param({"1", "0"})
+    private int parallelism;
+
+    @Param({"50", "300"})
+    private int coinCount;
+
+    private List<TradingHistory> trades;
+    private TradingProfitCalculator calculator;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(20240101L);
+        trades = new ArrayList<>(tradeCount);
+        for (int i = 0; i < tradeCount; i++) {
+            BigDecimal price = BigDecimal.valueOf(1 + (long) (random.nextDouble() * 10_000_000_000_000L), 8);
+            BigDecimal quantity = BigDecimal.valueOf(1 + (long) (random.nextDouble() * 100_000_000_000L), 8);
+            trades.add(TradingHistory.builder()
+                .id(i + 1)
+                .tradeUuid("t" + i)
+                .tradeType((short) (random.nextInt(10) < 6 ? 0 : 1))
+                .coinId(1 + random.nextInt(coinCount))
+                .price(price)
+                .quantity(quantity)
+                .totalPrice(price.multiply(quantity))
+                .tradeTime(BASE_TIME.plusSeconds(i))
+                .build());
+        }
+        calculator = new TradingProfitCalculator(fixedPoint, parallelism, PARALLEL_THRESHOLD);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        calculator.shutdown();
+    }
+
+    @Benchmark
+    public List<TradingHistory> calculateProfitLoss() {
+        return calculator.calculateProfitLoss(trades, new HashMap<>());
+    }
+}
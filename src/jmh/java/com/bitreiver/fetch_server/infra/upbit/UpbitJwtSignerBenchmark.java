@@ -0,0 +1,74 @@
+package com.bitreiver.fetch_server.infra.upbit;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Upbit JWT 생성 비용 비교
+ *
+ * - jjwtPerRequest: 기존 방식(요청마다 키·다이제스트 생성 후 jjwt로 서명)
+ * - cachedSigner: 자격 증명별로 캐시한 UpbitJwtSigner로 서명
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class UpbitJwtSignerBenchmark {
+
+    private static final String ACCESS_KEY = "benchmark-access-key";
+    private static final String SECRET_KEY = "benchmark-secret-key-0123456789abcdef";
+    private static final String QUERY_STRING = "market=KRW-BTC&state=done&limit=1000&order_by=desc"
+        + "&start_time=2024-01-01T00:00:00+09:00";
+
+    private UpbitJwtSigner signer;
+
+    @Setup
+    public void setUp() {
+        signer = new UpbitJwtSigner(ACCESS_KEY, SECRET_KEY);
+    }
+
+    @Benchmark
+    public String jjwtPerRequest() throws Exception {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("access_key", ACCESS_KEY);
+        payload.put("nonce", UUID.randomUUID().toString());
+
+        MessageDigest digest = MessageDigest.getInstance("SHA-512");
+        byte[] hash = digest.digest(QUERY_STRING.getBytes(StandardCharsets.UTF_8));
+        StringBuilder hexString = new StringBuilder();
+        for (byte b : hash) {
+            String hex = Integer.toHexString(0xff & b);
+            if (hex.length() == 1) {
+                hexString.append('0');
+            }
+            hexString.append(hex);
+        }
+        payload.put("query_hash", hexString.toString());
+        payload.put("query_hash_alg", "SHA512");
+
+        SecretKey key = Keys.hmacShaKeyFor(SECRET_KEY.getBytes(StandardCharsets.UTF_8));
+        return Jwts.builder()
+            .claims(payload)
+            .signWith(key)
+            .compact();
+    }
+
+    @Benchmark
+    public String cachedSigner() {
+        return signer.sign(QUERY_STRING);
+    }
+}
@@ -2,8 +2,7 @@ package com.bitreiver.fetch_server.domain.asset.service;
 
 import com.bitreiver.fetch_server.domain.asset.entity.Asset;
 import com.bitreiver.fetch_server.domain.asset.repository.AssetRepository;
-import com.bitreiver.fetch_server.domain.coin.entity.Coin;
-import com.bitreiver.fetch_server.domain.coin.repository.CoinRepository;
+import com.bitreiver.fetch_server.domain.coin.service.CoinCatalog;
 import com.bitreiver.fetch_server.domain.exchange.dto.ExchangeCredentialResponse;
 import com.bitreiver.fetch_server.domain.exchange.enums.ExchangeType;
 import com.bitreiver.fetch_server.domain.exchange.service.ExchangeCredentialService;
@@ -27,19 +26,19 @@ import java.util.stream.Collectors;
 public class AssetServiceImpl implements AssetService {
     
     private final AssetRepository assetRepository;
-    private final CoinRepository coinRepository;
+    private final CoinCatalog coinCatalog;
     private final UpbitService upbitService;
     private final ExchangeCredentialService exchangeCredentialService;
     
     private Integer getCoinId(String symbol, String tradeBySymbol) {
         String marketCode = symbol + "/" + tradeBySymbol;
         
-        Optional<Coin> coinByMarket = coinRepository.findByMarketCode(marketCode);
+        Optional<CoinCatalog.CoinEntry> coinByMarket = coinCatalog.findByMarketCode(marketCode);
         if (coinByMarket.isPresent()) {
             return coinByMarket.get().getId();
         }
         
-        Optional<Coin> coinBySymbol = coinRepository.findBySymbolAndQuoteCurrency(symbol, tradeBySymbol);
+        Optional<CoinCatalog.CoinEntry> coinBySymbol = coinCatalog.findBySymbolAndQuoteCurrency(symbol, tradeBySymbol);
         if (coinBySymbol.isPresent()) {
             return coinBySymbol.get().getId();
         }
@@ -0,0 +1,195 @@
+package com.bitreiver.fetch_server.domain.coin.service;
+
+import com.bitreiver.fetch_server.domain.coin.entity.Coin;
+import com.bitreiver.fetch_server.domain.coin.repository.CoinRepository;
+import com.bitreiver.fetch_server.global.cache.RedisCacheService;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * 코인 목록(coins 테이블) 인메모리 카탈로그
+ *
+ * - 전체 코인을 한 번 읽어 id, market_code, (symbol, quote_currency)별 불변 Map으로 보관하고 O(1)로 조회합니다.
+ * - coins 테이블이 바뀌면 새 스냅샷을 만들어 참조를 통째로 교체하므로, 조회 중인 스레드는 항상 일관된 스냅샷을 봅니다.
+ * - 스냅샷에는 버전이 있고 Redis(coin:catalog:version)에 공유됩니다. 다른 서버는 주기적으로 버전을 비교해 다시 읽습니다.
+ * - 조회에 실패하면 invalidate 없이 추가된 코인일 수 있으므로 DB에서 다시 읽고 한 번 더 조회합니다.
+ *   DB 재조회는 coin.catalog.miss-reload-interval-ms(기본 60초)에 한 번으로 제한합니다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CoinCatalog {
+
+    private static final String VERSION_KEY = "coin:catalog:version";
+
+    private final CoinRepository coinRepository;
+    private final RedisCacheService redisCacheService;
+
+    @Value("${coin.catalog.miss-reload-interval-ms:60000}")
+    private long missReloadIntervalMs;
+
+    private volatile Snapshot snapshot;
+    private final AtomicLong lastMissReloadAt = new AtomicLong();
+
+    public Optional<CoinEntry> findById(Integer coinId) {
+        return find(current -> current.byId.get(coinId));
+    }
+
+    public Optional<CoinEntry> findByMarketCode(String marketCode) {
+        return find(current -> current.byMarketCode.get(marketCode));
+    }
+
+    public Optional<CoinEntry> findBySymbolAndQuoteCurrency(String symbol, String quoteCurrency) {
+        return find(current -> current.bySymbolAndQuote.get(symbolQuoteKey(symbol, quoteCurrency)));
+    }
+
+    public long getVersion() {
+        return getSnapshot().version;
+    }
+
+    /**
+     * coins 테이블을 변경한 뒤 호출합니다.
+     * 트랜잭션 안이면 커밋 후에, 아니면 즉시 새 버전으로 다시 읽고 Redis에 버전을 공유합니다.
+     */
+    public void invalidate() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publishNewVersion();
+                }
+            });
+        } else {
+            publishNewVersion();
+        }
+    }
+
+    /**
+     * 다른 서버에서 코인 목록을 갱신했는지 확인합니다. 30초마다 실행
+     */
+    @Scheduled(fixedDelayString = "${coin.catalog.version-check-interval-ms:30000}")
+    public void refreshIfVersionChanged() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return;
+        }
+        Optional<Long> sharedVersion = redisCacheService.get(VERSION_KEY, Long.class);
+        if (sharedVersion.isPresent() && sharedVersion.get() != current.version) {
+            reload(sharedVersion.get());
+        }
+    }
+
+    private Optional<CoinEntry> find(Function<Snapshot, CoinEntry> lookup) {
+        CoinEntry entry = lookup.apply(getSnapshot());
+        if (entry == null && reloadAfterMiss()) {
+            entry = lookup.apply(snapshot);
+        }
+        return Optional.ofNullable(entry);
+    }
+
+    /**
+     * 조회 실패 시 DB에서 다시 읽습니다. 마지막 재조회 후 miss-reload-interval-ms가 지나지 않았으면 건너뜁니다.
+     *
+     * @return 다시 읽었으면 true
+     */
+    private boolean reloadAfterMiss() {
+        long now = System.currentTimeMillis();
+        long last = lastMissReloadAt.get();
+        if (now - last < missReloadIntervalMs || !lastMissReloadAt.compareAndSet(last, now)) {
+            return false;
+        }
+        log.info("reloadAfterMiss - 카탈로그에 없는 코인 조회, DB에서 다시 읽음");
+        reload(snapshot.version);
+        return true;
+    }
+
+    private Snapshot getSnapshot() {
+        Snapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (snapshot == null) {
+                long version = redisCacheService.get(VERSION_KEY, Long.class).orElse(0L);
+                reload(version);
+            }
+            return snapshot;
+        }
+    }
+
+    private void publishNewVersion() {
+        long version = System.currentTimeMillis();
+        reload(version);
+        redisCacheService.set(VERSION_KEY, version, -1L);
+    }
+
+    private synchronized void reload(long version) {
+        List<Coin> coins = coinRepository.findAll();
+        snapshot = new Snapshot(version, coins);
+        log.info("reload - 코인 카탈로그 갱신: version={}, coins={}", version, coins.size());
+    }
+
+    private static String symbolQuoteKey(String symbol, String quoteCurrency) {
+        return symbol + "|" + quoteCurrency;
+    }
+
+    /**
+     * 카탈로그에 보관하는 코인 정보 (불변)
+     */
+    @Getter
+    public static final class CoinEntry {
+        private final Integer id;
+        private final String symbol;
+        private final String quoteCurrency;
+        private final String marketCode;
+        private final Boolean isActive;
+
+        private CoinEntry(Coin coin) {
+            this.id = coin.getId();
+            this.symbol = coin.getSymbol();
+            this.quoteCurrency = coin.getQuoteCurrency();
+            this.marketCode = coin.getMarketCode();
+            this.isActive = coin.getIsActive();
+        }
+    }
+
+    private static final class Snapshot {
+        private final long version;
+        private final Map<Integer, CoinEntry> byId;
+        private final Map<String, CoinEntry> byMarketCode;
+        private final Map<String, CoinEntry> bySymbolAndQuote;
+
+        private Snapshot(long version, List<Coin> coins) {
+            Map<Integer, CoinEntry> byId = new HashMap<>();
+            Map<String, CoinEntry> byMarketCode = new HashMap<>();
+            Map<String, CoinEntry> bySymbolAndQuote = new HashMap<>();
+            for (Coin coin : coins) {
+                CoinEntry entry = new CoinEntry(coin);
+                byId.put(entry.getId(), entry);
+                // 같은 키가 여러 개면 먼저 읽은 코인을 사용
+                if (entry.getMarketCode() != null) {
+                    byMarketCode.putIfAbsent(entry.getMarketCode(), entry);
+                }
+                bySymbolAndQuote.putIfAbsent(symbolQuoteKey(entry.getSymbol(), entry.getQuoteCurrency()), entry);
+            }
+            this.version = version;
+            this.byId = Collections.unmodifiableMap(byId);
+            this.byMarketCode = Collections.unmodifiableMap(byMarketCode);
+            this.bySymbolAndQuote = Collections.unmodifiableMap(bySymbolAndQuote);
+        }
+    }
+}
@@ -24,6 +24,7 @@ import java.util.stream.Collectors;
 public class CoinServiceImpl implements CoinService {
     
     private final CoinRepository coinRepository;
+    private final CoinCatalog coinCatalog;
     
     @Override
     @Transactional
@@ -130,6 +131,11 @@ public class CoinServiceImpl implements CoinService {
                 deactivatedCount = coinsToDeactivate.size();
             }
 
+            // 코인 목록이 바뀌었으면 커밋 후 카탈로그를 새 버전으로 교체
+            if (newCount > 0 || deactivatedCount > 0) {
+                coinCatalog.invalidate();
+            }
+
             for(Coin coin : newCoinList){
                 log.info("신규 코인: {}", coin.getKoreanName());
             }
@@ -10,6 +10,7 @@ import com.bitreiver.fetch_server.domain.user.repository.UserRepository;
 import com.bitreiver.fetch_server.global.common.exception.CustomException;
 import com.bitreiver.fetch_server.global.common.exception.ErrorCode;
 import com.bitreiver.fetch_server.global.util.EncryptionUtil;
+import com.bitreiver.fetch_server.infra.upbit.UpbitClient;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -31,6 +32,7 @@ public class ExchangeCredentialServiceImpl implements ExchangeCredentialService
     private final UserRepository userRepository;
     private final EncryptionUtil encryptionUtil;
     private final ObjectMapper objectMapper;
+    private final UpbitClient upbitClient;
     
     @Override
     @Transactional
@@ -48,6 +50,7 @@ public class ExchangeCredentialServiceImpl implements ExchangeCredentialService
             ExchangeCredential credentials;
             if (existing.isPresent()) {
                 credentials = existing.get();
+                evictCachedSigner(credentials);
                 credentials.setEncryptedAccessKey(encryptedAccessKey);
                 credentials.setEncryptedSecretKey(encryptedSecretKey);
                 credentials.updateTimestamp();
@@ -137,6 +140,7 @@ public class ExchangeCredentialServiceImpl implements ExchangeCredentialService
             }
             
             credentialRepository.delete(credentials.get());
+            evictCachedSigner(credentials.get());
             
             User user = userRepository.findById(userId).orElse(null);
             if (user != null) {
@@ -186,6 +190,15 @@ public class ExchangeCredentialServiceImpl implements ExchangeCredentialService
         }
     }
     
+    /**
+     * 이전 키로 만든 Upbit JWT 서명기(복호화된 Secret Key 보관)를 캐시에서 제거합니다.
+     */
+    private void evictCachedSigner(ExchangeCredential credentials) {
+        if (credentials.getExchangeProvider() == ExchangeType.UPBIT.getCode()) {
+            upbitClient.evictSigner(encryptionUtil.decrypt(credentials.getEncryptedAccessKey()));
+        }
+    }
+    
     private ExchangeCredentialResponse toResponse(ExchangeCredential credentials, boolean includeKeys) {
         ExchangeType exchangeType = ExchangeType.fromCode(credentials.getExchangeProvider());
         
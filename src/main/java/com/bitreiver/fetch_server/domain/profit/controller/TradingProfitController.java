@@ -1,17 +1,25 @@
 package com.bitreiver.fetch_server.domain.profit.controller;
 
 import com.bitreiver.fetch_server.domain.profit.dto.CalculateProfitRequest;
+import com.bitreiver.fetch_server.domain.profit.dto.PortfolioDailyPositionResponse;
+import com.bitreiver.fetch_server.domain.profit.dto.RealizedPnlMonthlyResponse;
 import com.bitreiver.fetch_server.domain.profit.service.TradingProfitService;
 import com.bitreiver.fetch_server.global.common.exception.CustomException;
 import com.bitreiver.fetch_server.global.common.exception.ErrorCode;
 import com.bitreiver.fetch_server.global.common.response.ApiResponse;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.enums.ParameterIn;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
@@ -27,7 +35,8 @@ public class TradingProfitController {
         summary = "거래 수익률 계산", 
         description = "거래 내역을 기반으로 수익률을 계산하고 업데이트합니다. 보유 종목의 평균 단가도 함께 저장됩니다.\n\n" +
                      "- 최초 계산인 경우 (is_initial=true): 전체 거래 내역을 순회하며 계산\n" +
-                     "- 이후 업데이트인 경우 (is_initial=false): coin_holdings_past 테이블의 기존 보유 종목 평단을 사용하여 계산"
+                     "- 이후 업데이트인 경우 (is_initial=false): coin_holdings_past에 기록된 마지막 반영 거래 이후의 거래만 " +
+                     "기존 보유 종목 평단 위에 반영하여 계산 (이전 시각의 거래가 추가된 경우 전체 재계산)"
     )
     @ApiResponses(value = {
         @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "계산 성공"),
@@ -54,5 +63,66 @@ public class TradingProfitController {
             "개, 보유 종목: " + result.get("holdings_count") + 
             "개, 삭제: " + result.get("deleted_holdings_count") + "개"));
     }
+    
+    @Operation(
+        summary = "일별 보유 종목 조회", 
+        description = "수익률 계산 시 함께 저장된 일별 보유 종목(수량, 평균 단가, 매수 원가 합계)을 날짜순으로 조회합니다.\n\n" +
+                     "- 거래가 있었던 날짜만 저장되며, 각 항목의 보유 상태는 다음 항목 날짜 전까지 유지됩니다.\n" +
+                     "- 시작일 이전의 보유 상태가 있으면 시작일 항목으로 함께 반환합니다.\n" +
+                     "- from, to를 생략하면 오늘까지 최근 365일을 조회합니다."
+    )
+    @ApiResponses(value = {
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "조회 성공"),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "잘못된 거래소 코드 또는 날짜 범위")
+    })
+    @Parameter(name = "user_id", description = "사용자 UUID", example = "123e4567-e89b-12d3-a456-426614174000", required = true, in = ParameterIn.PATH)
+    @GetMapping("/daily-positions/{user_id}")
+    public ResponseEntity<ApiResponse<List<PortfolioDailyPositionResponse>>> getDailyPositions(
+            @PathVariable("user_id") UUID userId,
+            @Parameter(description = "거래소 코드 (1:Upbit, 2:Bithumb, 3:Binance, 4:OKX)", example = "1")
+            @RequestParam(value = "exchange_code", defaultValue = "1") Integer exchangeCode,
+            @Parameter(description = "조회 시작일 (포함)", example = "2024-01-01")
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "조회 종료일 (포함)", example = "2024-12-31")
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        if (exchangeCode < 1 || exchangeCode > 4) {
+            throw new CustomException(ErrorCode.INVALID_EXCHANGE_CODE, 
+                "거래소 코드는 1(Upbit), 2(Bithumb), 3(Binance), 4(OKX) 중 하나여야 합니다");
+        }
+        
+        List<PortfolioDailyPositionResponse> response = tradingProfitService.getPortfolioDailyPositions(userId, exchangeCode, from, to);
+        return ResponseEntity.ok(ApiResponse.success(response, "일별 보유 종목 조회 완료 (" + response.size() + "일)"));
+    }
+    
+    @Operation(
+        summary = "월별 실현 손익 조회", 
+        description = "수익률 계산 시 함께 집계된 코인·월별 실현 손익을 조회합니다.\n\n" +
+                     "- 실현 손익은 매도 시점 평균 단가 기준이며 수수료는 fee에 따로 집계됩니다.\n" +
+                     "- 금액은 마켓의 호가 통화 기준입니다.\n" +
+                     "- coin_id를 생략하면 전체 코인을, from, to를 생략하면 이번 달까지 최근 12개월을 조회합니다."
+    )
+    @ApiResponses(value = {
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "조회 성공"),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "잘못된 거래소 코드 또는 기간")
+    })
+    @Parameter(name = "user_id", description = "사용자 UUID", example = "123e4567-e89b-12d3-a456-426614174000", required = true, in = ParameterIn.PATH)
+    @GetMapping("/realized-pnl/{user_id}")
+    public ResponseEntity<ApiResponse<List<RealizedPnlMonthlyResponse>>> getRealizedPnl(
+            @PathVariable("user_id") UUID userId,
+            @Parameter(description = "거래소 코드 (1:Upbit, 2:Bithumb, 3:Binance, 4:OKX)", example = "1")
+            @RequestParam(value = "exchange_code", defaultValue = "1") Integer exchangeCode,
+            @Parameter(description = "코인 ID (생략 시 전체 코인)", example = "1")
+            @RequestParam(value = "coin_id", required = false) Integer coinId,
+            @Parameter(description = "조회 시작 월 (포함)", example = "2024-01")
+            @RequestParam(value = "from", required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth from,
+            @Parameter(description = "조회 종료 월 (포함)", example = "2024-12")
+            @RequestParam(value = "to", required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth to) {
+        if (exchangeCode < 1 || exchangeCode > 4) {
+            throw new CustomException(ErrorCode.INVALID_EXCHANGE_CODE, 
+                "거래소 코드는 1(Upbit), 2(Bithumb), 3(Binance), 4(OKX) 중 하나여야 합니다");
+        }
+        
+        List<RealizedPnlMonthlyResponse> response = tradingProfitService.getRealizedPnlMonthly(userId, exchangeCode, coinId, from, to);
+        return ResponseEntity.ok(ApiResponse.success(response, "월별 실현 손익 조회 완료 (" + response.size() + "건)"));
+    }
 }
-
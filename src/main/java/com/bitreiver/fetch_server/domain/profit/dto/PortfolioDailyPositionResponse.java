@@ -0,0 +1,46 @@
+package com.bitreiver.fetch_server.domain.profit.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "일별 보유 종목 응답 (해당 날짜 마지막 거래 반영 후, 다음 항목 날짜 전까지 유지)")
+public class PortfolioDailyPositionResponse {
+    @Schema(description = "날짜", example = "2024-01-01")
+    private LocalDate date;
+
+    @Schema(description = "보유 종목 매수 원가 합계 (수량 x 평균 단가)", example = "1500000.00000000")
+    private BigDecimal totalCost;
+
+    @Schema(description = "보유 종목 목록")
+    private List<Position> positions;
+
+    @Getter
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Schema(description = "보유 종목")
+    public static class Position {
+        @Schema(description = "코인 ID", example = "1")
+        private Integer coinId;
+
+        @Schema(description = "코인 심볼", example = "BTC")
+        private String symbol;
+
+        @Schema(description = "보유 수량", example = "0.01500000")
+        private BigDecimal quantity;
+
+        @Schema(description = "평균 매수 단가", example = "100000000.00000000")
+        private BigDecimal avgBuyPrice;
+    }
+}
@@ -0,0 +1,53 @@
+package com.bitreiver.fetch_server.domain.profit.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "코인별 월간 실현 손익 응답 (금액은 마켓 호가 통화 기준)")
+public class RealizedPnlMonthlyResponse {
+    @Schema(description = "집계 월", example = "2024-03", type = "string")
+    private YearMonth month;
+
+    @Schema(description = "코인 ID", example = "1")
+    private Integer coinId;
+
+    @Schema(description = "코인 심볼", example = "BTC")
+    private String symbol;
+
+    @Schema(description = "실현 손익 (매도 시점 평균 단가 기준, 수수료 미포함)", example = "152000.00000000")
+    private BigDecimal realizedPnl;
+
+    @Schema(description = "매수 거래 금액 합계", example = "3000000.00000000")
+    private BigDecimal buyVolume;
+
+    @Schema(description = "매도 거래 금액 합계", example = "1200000.00000000")
+    private BigDecimal sellVolume;
+
+    @Schema(description = "수수료 합계", example = "2100.00000000")
+    private BigDecimal fee;
+
+    @Schema(description = "거래 수 (매수 + 매도)", example = "12")
+    private Integer tradeCount;
+
+    @Schema(description = "매수 수", example = "8")
+    private Integer buyCount;
+
+    @Schema(description = "매도 수", example = "4")
+    private Integer sellCount;
+
+    @Schema(description = "이익 매도 수", example = "3")
+    private Integer winCount;
+
+    @Schema(description = "손실 매도 수", example = "1")
+    private Integer lossCount;
+}
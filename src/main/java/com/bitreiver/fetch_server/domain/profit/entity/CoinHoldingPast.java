@@ -54,6 +54,14 @@ public class CoinHoldingPast {
     @Column(name = "remaining_quantity", nullable = false, precision = 20, scale = 8)
     private BigDecimal remainingQuantity;
     
+    /** 이 보유 상태에 마지막으로 반영된 거래의 ID (사용자·거래소 단위 워터마크) */
+    @Column(name = "last_trade_id")
+    private Integer lastTradeId;
+    
+    /** 이 보유 상태에 마지막으로 반영된 거래의 trade_time */
+    @Column(name = "last_trade_time")
+    private LocalDateTime lastTradeTime;
+    
     @Column(name = "created_at")
     private LocalDateTime createdAt;
     
@@ -0,0 +1,73 @@
+package com.bitreiver.fetch_server.domain.profit.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * 사용자·거래소별 일별 보유 종목(수량, 평균 단가) 시계열
+ *
+ * 거래가 있었던 날의 장 마감(그날 마지막 거래 반영 후) 보유 상태만 한 행에 배열로 저장합니다.
+ * 거래가 없는 날은 행이 없으며, 직전 행의 보유 상태가 그대로 이어집니다.
+ * coin_ids, quantities, avg_buy_prices는 같은 인덱스끼리 한 종목을 나타냅니다.
+ */
+@Entity
+@Table(name = "portfolio_daily_positions",
+    uniqueConstraints = {
+        @UniqueConstraint(
+            name = "uk_portfolio_daily_positions_user_exchange_date",
+            columnNames = {"user_id", "exchange_code", "position_date"}
+        )
+    })
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PortfolioDailyPosition {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "user_id", nullable = false, columnDefinition = "uuid")
+    private UUID userId;
+
+    @Column(name = "exchange_code", nullable = false)
+    private Short exchangeCode;
+
+    /** trade_time 기준 날짜 */
+    @Column(name = "position_date", nullable = false)
+    private LocalDate positionDate;
+
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(name = "coin_ids", nullable = false, columnDefinition = "integer[]")
+    private Integer[] coinIds;
+
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(name = "quantities", nullable = false, columnDefinition = "numeric(20,8)[]")
+    private BigDecimal[] quantities;
+
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(name = "avg_buy_prices", nullable = false, columnDefinition = "numeric(20,8)[]")
+    private BigDecimal[] avgBuyPrices;
+
+    /** 보유 종목 매수 원가 합계 (수량 x 평균 단가) */
+    @Column(name = "total_cost", nullable = false, precision = 30, scale = 8)
+    private BigDecimal totalCost;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,60 @@
+package com.bitreiver.fetch_server.domain.profit.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * 사용자·거래소별 수익률 계산 워터마크
+ * 보유 종목(coin_holdings_past)과 별도로 저장하므로 전량 매도로 보유 종목이 모두 삭제되어도 유지됩니다.
+ */
+@Entity
+@Table(name = "profit_calculation_watermarks",
+    uniqueConstraints = {
+        @UniqueConstraint(
+            name = "uq_profit_watermark_user_exchange",
+            columnNames = {"user_id", "exchange_code"}
+        )
+    })
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProfitCalculationWatermark {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Integer id;
+
+    @Column(name = "user_id", nullable = false, columnDefinition = "uuid")
+    private UUID userId;
+
+    @Column(name = "exchange_code", nullable = false)
+    private Short exchangeCode;
+
+    /** 마지막으로 수익률 계산에 반영된 거래의 ID */
+    @Column(name = "last_trade_id")
+    private Integer lastTradeId;
+
+    /** 마지막으로 수익률 계산에 반영된 거래의 trade_time */
+    @Column(name = "last_trade_time")
+    private LocalDateTime lastTradeTime;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public void moveTo(Integer lastTradeId, LocalDateTime lastTradeTime) {
+        this.lastTradeId = lastTradeId;
+        this.lastTradeTime = lastTradeTime;
+        this.updatedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,83 @@
+package com.bitreiver.fetch_server.domain.profit.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * 사용자·거래소·코인·월별 실현 손익 집계
+ *
+ * 금액은 마켓의 호가 통화(KRW 마켓이면 원화) 기준입니다.
+ * 실현 손익은 매도 시점 평균 단가 기준 (매도가 - 평균 단가) x 매도 수량의 합이며, 수수료는 포함하지 않고 fee에 따로 집계합니다.
+ */
+@Entity
+@Table(name = "realized_pnl_monthly",
+    uniqueConstraints = {
+        @UniqueConstraint(
+            name = "uk_realized_pnl_monthly_user_exchange_coin_month",
+            columnNames = {"user_id", "exchange_code", "coin_id", "pnl_month"}
+        )
+    },
+    indexes = {
+        @Index(name = "idx_realized_pnl_user_exchange_month", columnList = "user_id, exchange_code, pnl_month")
+    })
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RealizedPnlMonthly {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "user_id", nullable = false, columnDefinition = "uuid")
+    private UUID userId;
+
+    @Column(name = "exchange_code", nullable = false)
+    private Short exchangeCode;
+
+    @Column(name = "coin_id", nullable = false)
+    private Integer coinId;
+
+    /** 집계 월의 1일 (trade_time 기준) */
+    @Column(name = "pnl_month", nullable = false)
+    private LocalDate pnlMonth;
+
+    @Column(name = "realized_pnl", nullable = false, precision = 30, scale = 8)
+    private BigDecimal realizedPnl;
+
+    @Column(name = "buy_volume", nullable = false, precision = 30, scale = 8)
+    private BigDecimal buyVolume;
+
+    @Column(name = "sell_volume", nullable = false, precision = 30, scale = 8)
+    private BigDecimal sellVolume;
+
+    @Column(name = "fee", nullable = false, precision = 30, scale = 8)
+    private BigDecimal fee;
+
+    @Column(name = "buy_count", nullable = false)
+    private Integer buyCount;
+
+    @Column(name = "sell_count", nullable = false)
+    private Integer sellCount;
+
+    /** 실현 손익이 0보다 큰 매도 수 */
+    @Column(name = "win_count", nullable = false)
+    private Integer winCount;
+
+    /** 실현 손익이 0보다 작은 매도 수 */
+    @Column(name = "loss_count", nullable = false)
+    private Integer lossCount;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -7,15 +7,25 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface CoinHoldingPastRepository extends JpaRepository<CoinHoldingPast, Integer> {
+public interface CoinHoldingPastRepository extends JpaRepository<CoinHoldingPast, Integer>, CoinHoldingPastRepositoryEntityManager {
     List<CoinHoldingPast> findByUserIdAndExchangeCode(UUID userId, Short exchangeCode);
     Optional<CoinHoldingPast> findByUserIdAndCoinIdAndExchangeCode(UUID userId, Integer coinId, Short exchangeCode);
     
-    // 삭제는 Service에서 직접 처리
+    // 수익률 재계산 후 더 이상 보유하지 않는 종목을 한 번에 삭제
+    @Modifying
+    @Query("DELETE FROM CoinHoldingPast h WHERE h.userId = :userId AND h.exchangeCode = :exchangeCode AND h.coinId NOT IN :coinIds")
+    int deleteByUserIdAndExchangeCodeAndCoinIdNotIn(@Param("userId") UUID userId,
+                                                    @Param("exchangeCode") Short exchangeCode,
+                                                    @Param("coinIds") Collection<Integer> coinIds);
+    
+    @Modifying
+    @Query("DELETE FROM CoinHoldingPast h WHERE h.userId = :userId AND h.exchangeCode = :exchangeCode")
+    int deleteByUserIdAndExchangeCode(@Param("userId") UUID userId, @Param("exchangeCode") Short exchangeCode);
 }
 
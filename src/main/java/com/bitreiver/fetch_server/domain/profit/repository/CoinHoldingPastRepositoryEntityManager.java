@@ -0,0 +1,9 @@
+package com.bitreiver.fetch_server.domain.profit.repository;
+
+import com.bitreiver.fetch_server.domain.profit.entity.CoinHoldingPast;
+
+import java.util.List;
+
+public interface CoinHoldingPastRepositoryEntityManager {
+    int upsertHoldings(List<CoinHoldingPast> holdings);
+}
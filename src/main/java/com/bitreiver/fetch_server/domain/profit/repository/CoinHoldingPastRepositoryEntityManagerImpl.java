@@ -0,0 +1,90 @@
+package com.bitreiver.fetch_server.domain.profit.repository;
+
+import com.bitreiver.fetch_server.domain.profit.entity.CoinHoldingPast;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public class CoinHoldingPastRepositoryEntityManagerImpl implements CoinHoldingPastRepositoryEntityManager {
+
+    /** 한 INSERT 문에 담는 행 수 (행당 파라미터 10개, PostgreSQL 파라미터 한도 32767개 이내) */
+    private static final int UPSERT_CHUNK_SIZE = 500;
+
+    private static final String UPSERT_PREFIX =
+        "INSERT INTO coin_holdings_past " +
+        "(user_id, coin_id, exchange_code, symbol, avg_buy_price, remaining_quantity, " +
+        "last_trade_id, last_trade_time, created_at, updated_at) " +
+        "VALUES ";
+
+    private static final String UPSERT_SUFFIX =
+        " ON CONFLICT ON CONSTRAINT uk_coin_holdings_past_user_coin_exchange DO UPDATE SET " +
+        "symbol = EXCLUDED.symbol, " +
+        "avg_buy_price = EXCLUDED.avg_buy_price, " +
+        "remaining_quantity = EXCLUDED.remaining_quantity, " +
+        "last_trade_id = EXCLUDED.last_trade_id, " +
+        "last_trade_time = EXCLUDED.last_trade_time, " +
+        "updated_at = EXCLUDED.updated_at";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * 보유 종목을 다중 행 INSERT ... ON CONFLICT DO UPDATE로 한 번에 저장합니다.
+     * (user_id, coin_id, exchange_code)가 이미 있으면 평균 단가·수량·워터마크를 갱신하고 created_at은 유지합니다.
+     *
+     * @return 저장(삽입 또는 갱신)된 행 수
+     */
+    @Override
+    public int upsertHoldings(List<CoinHoldingPast> holdings) {
+        int upsertedCount = 0;
+        for (int from = 0; from < holdings.size(); from += UPSERT_CHUNK_SIZE) {
+            int to = Math.min(from + UPSERT_CHUNK_SIZE, holdings.size());
+            upsertedCount += upsertChunk(holdings.subList(from, to));
+        }
+        return upsertedCount;
+    }
+
+    private int upsertChunk(List<CoinHoldingPast> chunk) {
+        StringBuilder sql = new StringBuilder(UPSERT_PREFIX.length() + chunk.size() * 120 + UPSERT_SUFFIX.length());
+        sql.append(UPSERT_PREFIX);
+        int position = 1;
+        for (int i = 0; i < chunk.size(); i++) {
+            if (i > 0) {
+                sql.append(',');
+            }
+            // 워터마크는 NULL일 수 있으므로 컬럼 타입을 명시적으로 캐스팅
+            sql.append("(?").append(position++)
+                .append(",?").append(position++)
+                .append(",?").append(position++)
+                .append(",?").append(position++)
+                .append(",?").append(position++)
+                .append(",?").append(position++)
+                .append(",CAST(?").append(position++).append(" AS integer)")
+                .append(",CAST(?").append(position++).append(" AS timestamp)")
+                .append(",?").append(position++)
+                .append(",?").append(position++)
+                .append(')');
+        }
+        sql.append(UPSERT_SUFFIX);
+
+        Query query = entityManager.createNativeQuery(sql.toString());
+        position = 1;
+        for (CoinHoldingPast holding : chunk) {
+            query.setParameter(position++, holding.getUserId());
+            query.setParameter(position++, holding.getCoinId());
+            query.setParameter(position++, holding.getExchangeCode());
+            query.setParameter(position++, holding.getSymbol());
+            query.setParameter(position++, holding.getAvgBuyPrice());
+            query.setParameter(position++, holding.getRemainingQuantity());
+            query.setParameter(position++, holding.getLastTradeId());
+            query.setParameter(position++, holding.getLastTradeTime());
+            query.setParameter(position++, holding.getCreatedAt());
+            query.setParameter(position++, holding.getUpdatedAt());
+        }
+        return query.executeUpdate();
+    }
+}
@@ -0,0 +1,28 @@
+package com.bitreiver.fetch_server.domain.profit.repository;
+
+import com.bitreiver.fetch_server.domain.profit.entity.PortfolioDailyPosition;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface PortfolioDailyPositionRepository extends JpaRepository<PortfolioDailyPosition, Long>, PortfolioDailyPositionRepositoryEntityManager {
+    List<PortfolioDailyPosition> findByUserIdAndExchangeCodeAndPositionDateBetweenOrderByPositionDateAsc(
+        UUID userId, Short exchangeCode, LocalDate from, LocalDate to);
+
+    // 조회 구간 시작일의 보유 상태 (시작일 이전 마지막 행)
+    Optional<PortfolioDailyPosition> findFirstByUserIdAndExchangeCodeAndPositionDateLessThanOrderByPositionDateDesc(
+        UUID userId, Short exchangeCode, LocalDate date);
+
+    // 전체 재계산 시 기존 시계열 삭제
+    @Modifying
+    @Query("DELETE FROM PortfolioDailyPosition p WHERE p.userId = :userId AND p.exchangeCode = :exchangeCode")
+    int deleteByUserIdAndExchangeCode(@Param("userId") UUID userId, @Param("exchangeCode") Short exchangeCode);
+}
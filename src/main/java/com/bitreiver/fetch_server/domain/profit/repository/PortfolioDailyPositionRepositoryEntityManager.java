@@ -0,0 +1,9 @@
+package com.bitreiver.fetch_server.domain.profit.repository;
+
+import com.bitreiver.fetch_server.domain.profit.entity.PortfolioDailyPosition;
+
+import java.util.List;
+
+public interface PortfolioDailyPositionRepositoryEntityManager {
+    int upsertPositions(List<PortfolioDailyPosition> positions);
+}
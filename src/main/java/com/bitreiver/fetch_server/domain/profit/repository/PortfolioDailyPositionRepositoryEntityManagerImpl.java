@@ -0,0 +1,99 @@
+package com.bitreiver.fetch_server.domain.profit.repository;
+
+import com.bitreiver.fetch_server.domain.profit.entity.PortfolioDailyPosition;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Repository
+public class PortfolioDailyPositionRepositoryEntityManagerImpl implements PortfolioDailyPositionRepositoryEntityManager {
+
+    /** 한 INSERT 문에 담는 행 수 (행당 파라미터 9개, PostgreSQL 파라미터 한도 32767개 이내) */
+    private static final int UPSERT_CHUNK_SIZE = 500;
+
+    private static final String UPSERT_PREFIX =
+        "INSERT INTO portfolio_daily_positions " +
+        "(user_id, exchange_code, position_date, coin_ids, quantities, avg_buy_prices, total_cost, created_at, updated_at) " +
+        "VALUES ";
+
+    private static final String UPSERT_SUFFIX =
+        " ON CONFLICT ON CONSTRAINT uk_portfolio_daily_positions_user_exchange_date DO UPDATE SET " +
+        "coin_ids = EXCLUDED.coin_ids, " +
+        "quantities = EXCLUDED.quantities, " +
+        "avg_buy_prices = EXCLUDED.avg_buy_prices, " +
+        "total_cost = EXCLUDED.total_cost, " +
+        "updated_at = EXCLUDED.updated_at";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * 일별 보유 상태를 다중 행 INSERT ... ON CONFLICT DO UPDATE로 저장합니다.
+     * 같은 날짜의 행이 이미 있으면(그날 거래가 이전 동기화 이후 더 생긴 경우) 보유 상태를 덮어씁니다.
+     *
+     * @return 저장(삽입 또는 갱신)된 행 수
+     */
+    @Override
+    public int upsertPositions(List<PortfolioDailyPosition> positions) {
+        int upsertedCount = 0;
+        for (int from = 0; from < positions.size(); from += UPSERT_CHUNK_SIZE) {
+            int to = Math.min(from + UPSERT_CHUNK_SIZE, positions.size());
+            upsertedCount += upsertChunk(positions.subList(from, to));
+        }
+        return upsertedCount;
+    }
+
+    private int upsertChunk(List<PortfolioDailyPosition> chunk) {
+        StringBuilder sql = new StringBuilder(UPSERT_PREFIX.length() + chunk.size() * 160 + UPSERT_SUFFIX.length());
+        sql.append(UPSERT_PREFIX);
+        int position = 1;
+        for (int i = 0; i < chunk.size(); i++) {
+            if (i > 0) {
+                sql.append(',');
+            }
+            // 배열은 PostgreSQL 배열 리터럴 문자열로 바인딩하고 캐스팅
+            sql.append("(?").append(position++)
+                .append(",?").append(position++)
+                .append(",?").append(position++)
+                .append(",CAST(?").append(position++).append(" AS integer[])")
+                .append(",CAST(?").append(position++).append(" AS numeric[])")
+                .append(",CAST(?").append(position++).append(" AS numeric[])")
+                .append(",?").append(position++)
+                .append(",?").append(position++)
+                .append(",?").append(position++)
+                .append(')');
+        }
+        sql.append(UPSERT_SUFFIX);
+
+        Query query = entityManager.createNativeQuery(sql.toString());
+        position = 1;
+        for (PortfolioDailyPosition dailyPosition : chunk) {
+            query.setParameter(position++, dailyPosition.getUserId());
+            query.setParameter(position++, dailyPosition.getExchangeCode());
+            query.setParameter(position++, dailyPosition.getPositionDate());
+            query.setParameter(position++, toArrayLiteral(dailyPosition.getCoinIds()));
+            query.setParameter(position++, toArrayLiteral(dailyPosition.getQuantities()));
+            query.setParameter(position++, toArrayLiteral(dailyPosition.getAvgBuyPrices()));
+            query.setParameter(position++, dailyPosition.getTotalCost());
+            query.setParameter(position++, dailyPosition.getCreatedAt());
+            query.setParameter(position++, dailyPosition.getUpdatedAt());
+        }
+        return query.executeUpdate();
+    }
+
+    private static String toArrayLiteral(Object[] values) {
+        StringBuilder literal = new StringBuilder(values.length * 12 + 2).append('{');
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                literal.append(',');
+            }
+            Object value = values[i];
+            literal.append(value instanceof BigDecimal decimal ? decimal.toPlainString() : String.valueOf(value));
+        }
+        return literal.append('}').toString();
+    }
+}
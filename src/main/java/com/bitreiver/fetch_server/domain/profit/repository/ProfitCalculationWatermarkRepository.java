@@ -0,0 +1,13 @@
+package com.bitreiver.fetch_server.domain.profit.repository;
+
+import com.bitreiver.fetch_server.domain.profit.entity.ProfitCalculationWatermark;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface ProfitCalculationWatermarkRepository extends JpaRepository<ProfitCalculationWatermark, Integer> {
+    Optional<ProfitCalculationWatermark> findByUserIdAndExchangeCode(UUID userId, Short exchangeCode);
+}
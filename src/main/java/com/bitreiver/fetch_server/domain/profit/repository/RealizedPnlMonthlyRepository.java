@@ -0,0 +1,26 @@
+package com.bitreiver.fetch_server.domain.profit.repository;
+
+import com.bitreiver.fetch_server.domain.profit.entity.RealizedPnlMonthly;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface RealizedPnlMonthlyRepository extends JpaRepository<RealizedPnlMonthly, Long>, RealizedPnlMonthlyRepositoryEntityManager {
+    List<RealizedPnlMonthly> findByUserIdAndExchangeCodeAndPnlMonthBetweenOrderByPnlMonthAscCoinIdAsc(
+        UUID userId, Short exchangeCode, LocalDate from, LocalDate to);
+
+    List<RealizedPnlMonthly> findByUserIdAndExchangeCodeAndCoinIdAndPnlMonthBetweenOrderByPnlMonthAsc(
+        UUID userId, Short exchangeCode, Integer coinId, LocalDate from, LocalDate to);
+
+    // 전체 재계산 시 기존 집계 삭제
+    @Modifying
+    @Query("DELETE FROM RealizedPnlMonthly r WHERE r.userId = :userId AND r.exchangeCode = :exchangeCode")
+    int deleteByUserIdAndExchangeCode(@Param("userId") UUID userId, @Param("exchangeCode") Short exchangeCode);
+}
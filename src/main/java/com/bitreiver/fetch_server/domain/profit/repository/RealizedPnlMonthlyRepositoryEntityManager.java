@@ -0,0 +1,9 @@
+package com.bitreiver.fetch_server.domain.profit.repository;
+
+import com.bitreiver.fetch_server.domain.profit.entity.RealizedPnlMonthly;
+
+import java.util.List;
+
+public interface RealizedPnlMonthlyRepositoryEntityManager {
+    int addToRollups(List<RealizedPnlMonthly> deltas);
+}
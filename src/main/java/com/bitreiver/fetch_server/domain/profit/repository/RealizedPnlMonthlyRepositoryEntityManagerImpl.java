@@ -0,0 +1,92 @@
+package com.bitreiver.fetch_server.domain.profit.repository;
+
+import com.bitreiver.fetch_server.domain.profit.entity.RealizedPnlMonthly;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public class RealizedPnlMonthlyRepositoryEntityManagerImpl implements RealizedPnlMonthlyRepositoryEntityManager {
+
+    /** 한 INSERT 문에 담는 행 수 (행당 파라미터 13개, PostgreSQL 파라미터 한도 32767개 이내) */
+    private static final int UPSERT_CHUNK_SIZE = 500;
+
+    private static final String UPSERT_PREFIX =
+        "INSERT INTO realized_pnl_monthly AS r " +
+        "(user_id, exchange_code, coin_id, pnl_month, realized_pnl, buy_volume, sell_volume, fee, " +
+        "buy_count, sell_count, win_count, loss_count, updated_at) " +
+        "VALUES ";
+
+    private static final String UPSERT_SUFFIX =
+        " ON CONFLICT ON CONSTRAINT uk_realized_pnl_monthly_user_exchange_coin_month DO UPDATE SET " +
+        "realized_pnl = r.realized_pnl + EXCLUDED.realized_pnl, " +
+        "buy_volume = r.buy_volume + EXCLUDED.buy_volume, " +
+        "sell_volume = r.sell_volume + EXCLUDED.sell_volume, " +
+        "fee = r.fee + EXCLUDED.fee, " +
+        "buy_count = r.buy_count + EXCLUDED.buy_count, " +
+        "sell_count = r.sell_count + EXCLUDED.sell_count, " +
+        "win_count = r.win_count + EXCLUDED.win_count, " +
+        "loss_count = r.loss_count + EXCLUDED.loss_count, " +
+        "updated_at = EXCLUDED.updated_at";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * 월별 집계 증분을 다중 행 INSERT ... ON CONFLICT DO UPDATE로 기존 집계에 더합니다.
+     * (user_id, exchange_code, coin_id, pnl_month) 행이 없으면 증분 값으로 새로 만듭니다.
+     *
+     * @return 저장(삽입 또는 갱신)된 행 수
+     */
+    @Override
+    public int addToRollups(List<RealizedPnlMonthly> deltas) {
+        int upsertedCount = 0;
+        for (int from = 0; from < deltas.size(); from += UPSERT_CHUNK_SIZE) {
+            int to = Math.min(from + UPSERT_CHUNK_SIZE, deltas.size());
+            upsertedCount += upsertChunk(deltas.subList(from, to));
+        }
+        return upsertedCount;
+    }
+
+    private int upsertChunk(List<RealizedPnlMonthly> chunk) {
+        StringBuilder sql = new StringBuilder(UPSERT_PREFIX.length() + chunk.size() * 80 + UPSERT_SUFFIX.length());
+        sql.append(UPSERT_PREFIX);
+        int position = 1;
+        for (int i = 0; i < chunk.size(); i++) {
+            if (i > 0) {
+                sql.append(',');
+            }
+            sql.append('(');
+            for (int column = 0; column < 13; column++) {
+                if (column > 0) {
+                    sql.append(',');
+                }
+                sql.append('?').append(position++);
+            }
+            sql.append(')');
+        }
+        sql.append(UPSERT_SUFFIX);
+
+        Query query = entityManager.createNativeQuery(sql.toString());
+        position = 1;
+        for (RealizedPnlMonthly delta : chunk) {
+            query.setParameter(position++, delta.getUserId());
+            query.setParameter(position++, delta.getExchangeCode());
+            query.setParameter(position++, delta.getCoinId());
+            query.setParameter(position++, delta.getPnlMonth());
+            query.setParameter(position++, delta.getRealizedPnl());
+            query.setParameter(position++, delta.getBuyVolume());
+            query.setParameter(position++, delta.getSellVolume());
+            query.setParameter(position++, delta.getFee());
+            query.setParameter(position++, delta.getBuyCount());
+            query.setParameter(position++, delta.getSellCount());
+            query.setParameter(position++, delta.getWinCount());
+            query.setParameter(position++, delta.getLossCount());
+            query.setParameter(position++, delta.getUpdatedAt());
+        }
+        return query.executeUpdate();
+    }
+}
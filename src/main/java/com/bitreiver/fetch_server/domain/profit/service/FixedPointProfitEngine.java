@@ -0,0 +1,283 @@
+package com.bitreiver.fetch_server.domain.profit.service;
+
+import com.bitreiver.fetch_server.domain.trading.entity.TradingHistory;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 고정소수점(소수 8자리, long) 평균 단가·수익률 계산 엔진
+ *
+ * - 보유 상태를 coin_id로 인덱싱한 배열에 두고, 금액·수량은 10^8을 곱한 long으로 계산합니다.
+ * - 곱셈 중간값은 128비트로 계산해 BigDecimal 계산(TradingProfitCalculator.processBuy/processSell)과
+ *   같은 HALF_UP 반올림 결과를 냅니다. 저장 자릿수(평균 단가 8자리, 수익률 2자리)에서 값이 동일합니다.
+ * - 소수 8자리를 넘는 값, 음수, null, long 범위를 넘는 값처럼 표현할 수 없는 입력이 있으면
+ *   ArithmeticException을 던지며, 이때 거래 내역과 holdings는 변경되지 않습니다.
+ * - dayEnds를 넘기면 날짜가 바뀔 때마다 그날 거래한 코인의 보유 상태를 기록합니다. (BigDecimal 변환은 코인·날짜당 한 번)
+ */
+final class FixedPointProfitEngine {
+
+    static final int SCALE = 8;
+    private static final long RATE_DIVISOR = 10_000L; // 비율(8자리) x 100 = 6자리 -> 2자리
+    private static final int MAX_COIN_ID = 1 << 20;
+    private static final long LOW_MASK = 0xFFFFFFFFL;
+
+    // 거래별 결과: 매수·반영 불가 매도는 수익률을 비우고, 알 수 없는 거래 유형은 그대로 둠
+    private static final byte UNTOUCHED = 0;
+    private static final byte NO_RESULT = 1;
+    private static final byte SELL_RESULT = 2;
+
+    private FixedPointProfitEngine() {
+    }
+
+    /**
+     * @param sortedHistories trade_time 순으로 정렬된 거래 내역
+     * @param holdings        시작 보유 상태 {coin_id: [avg_buy_price, quantity]}, 계산 후의 보유 상태로 갱신됨
+     * @param dayEnds         코인별 일 마감 보유 상태를 추가할 목록, null이면 기록하지 않음 (계산이 성공한 경우에만 추가됨)
+     */
+    static void apply(List<TradingHistory> sortedHistories, Map<Integer, List<BigDecimal>> holdings,
+                      List<TradingProfitCalculator.DayEndRecord> dayEnds) {
+        int size = sortedHistories.size();
+        int[] coinIds = new int[size];
+        long[] prices = new long[size];
+        long[] quantities = new long[size];
+        LocalDate[] days = dayEnds != null ? new LocalDate[size] : null;
+
+        int maxCoinId = 0;
+        for (Integer coinId : holdings.keySet()) {
+            maxCoinId = Math.max(maxCoinId, checkCoinId(coinId));
+        }
+        for (int i = 0; i < size; i++) {
+            TradingHistory history = sortedHistories.get(i);
+            coinIds[i] = checkCoinId(history.getCoinId());
+            prices[i] = toScaled(history.getPrice());
+            quantities[i] = toScaled(history.getQuantity());
+            maxCoinId = Math.max(maxCoinId, coinIds[i]);
+            if (days != null) {
+                days[i] = history.getTradeTime().toLocalDate();
+            }
+        }
+
+        long[] avgPrices = new long[maxCoinId + 1];
+        long[] heldQuantities = new long[maxCoinId + 1];
+        boolean[] held = new boolean[maxCoinId + 1];
+        for (Map.Entry<Integer, List<BigDecimal>> entry : holdings.entrySet()) {
+            int coinId = entry.getKey();
+            avgPrices[coinId] = toScaled(entry.getValue().get(0));
+            heldQuantities[coinId] = toScaled(entry.getValue().get(1));
+            held[coinId] = true;
+        }
+
+        // 계산 결과는 배열에 모아 두었다가 전체 계산이 성공한 뒤에만 반영
+        long[] rates = new long[size];
+        long[] sellAvgPrices = new long[size];
+        byte[] outcomes = new byte[size];
+
+        // 현재 날짜에 거래한 코인 (일 마감 기록용)
+        List<TradingProfitCalculator.DayEndRecord> recorded = days != null ? new ArrayList<>() : null;
+        int[] touchedCoins = days != null ? new int[Math.min(size, maxCoinId + 1)] : null;
+        boolean[] touched = days != null ? new boolean[maxCoinId + 1] : null;
+        int touchedCount = 0;
+
+        for (int i = 0; i < size; i++) {
+            int coinId = coinIds[i];
+            Short tradeType = sortedHistories.get(i).getTradeType();
+
+            if (days != null) {
+                if (i > 0 && !days[i].equals(days[i - 1])) {
+                    recordDayEnd(recorded, days[i - 1], touchedCoins, touchedCount, touched, held, avgPrices, heldQuantities);
+                    touchedCount = 0;
+                }
+                if (!touched[coinId]) {
+                    touched[coinId] = true;
+                    touchedCoins[touchedCount++] = coinId;
+                }
+            }
+
+            if (tradeType == 0) { // 매수
+                outcomes[i] = NO_RESULT;
+                if (!held[coinId]) {
+                    avgPrices[coinId] = prices[i];
+                    heldQuantities[coinId] = quantities[i];
+                    held[coinId] = true;
+                } else {
+                    long oldQuantity = heldQuantities[coinId];
+                    long totalQuantity = Math.addExact(oldQuantity, quantities[i]);
+                    if (totalQuantity > 0) {
+                        avgPrices[coinId] = weightedAverage(avgPrices[coinId], oldQuantity,
+                            prices[i], quantities[i], totalQuantity);
+                    } else {
+                        avgPrices[coinId] = prices[i];
+                    }
+                    heldQuantities[coinId] = totalQuantity;
+                }
+            } else if (tradeType == 1) { // 매도
+                outcomes[i] = NO_RESULT;
+                long remainingQuantity = heldQuantities[coinId];
+                if (!held[coinId] || remainingQuantity <= 0 || remainingQuantity < quantities[i]) {
+                    continue;
+                }
+
+                long avgPrice = avgPrices[coinId];
+                rates[i] = avgPrice > 0 ? profitLossRate(prices[i], avgPrice) : 0L;
+                sellAvgPrices[i] = avgPrice;
+                outcomes[i] = SELL_RESULT;
+
+                long newQuantity = remainingQuantity - quantities[i];
+                if (newQuantity <= 0) {
+                    held[coinId] = false;
+                    avgPrices[coinId] = 0L;
+                    heldQuantities[coinId] = 0L;
+                } else {
+                    heldQuantities[coinId] = newQuantity;
+                }
+            }
+        }
+
+        if (days != null && size > 0) {
+            recordDayEnd(recorded, days[size - 1], touchedCoins, touchedCount, touched, held, avgPrices, heldQuantities);
+            dayEnds.addAll(recorded);
+        }
+
+        for (int i = 0; i < size; i++) {
+            TradingHistory history = sortedHistories.get(i);
+            if (outcomes[i] == SELL_RESULT) {
+                history.setProfitLossRate(BigDecimal.valueOf(rates[i], 2));
+                history.setAvgBuyPrice(BigDecimal.valueOf(sellAvgPrices[i], SCALE));
+            } else if (outcomes[i] == NO_RESULT) {
+                history.setProfitLossRate(null);
+                history.setAvgBuyPrice(null);
+            }
+        }
+
+        holdings.clear();
+        for (int coinId = 0; coinId <= maxCoinId; coinId++) {
+            if (held[coinId]) {
+                holdings.put(coinId, Arrays.asList(
+                    BigDecimal.valueOf(avgPrices[coinId], SCALE),
+                    BigDecimal.valueOf(heldQuantities[coinId], SCALE)));
+            }
+        }
+    }
+
+    private static void recordDayEnd(List<TradingProfitCalculator.DayEndRecord> recorded, LocalDate day,
+                                     int[] touchedCoins, int touchedCount, boolean[] touched,
+                                     boolean[] held, long[] avgPrices, long[] heldQuantities) {
+        for (int j = 0; j < touchedCount; j++) {
+            int coinId = touchedCoins[j];
+            touched[coinId] = false;
+            recorded.add(held[coinId]
+                ? new TradingProfitCalculator.DayEndRecord(day, coinId,
+                    BigDecimal.valueOf(avgPrices[coinId], SCALE), BigDecimal.valueOf(heldQuantities[coinId], SCALE))
+                : new TradingProfitCalculator.DayEndRecord(day, coinId, null, null));
+        }
+    }
+
+    /**
+     * (oldAvg * oldQuantity + price * quantity) / totalQuantity 를 소수 8자리 HALF_UP으로 반올림
+     * 분자는 소수 16자리, 분모는 8자리이므로 raw 값끼리 나누면 8자리 결과가 됩니다.
+     */
+    static long weightedAverage(long oldAvg, long oldQuantity, long price, long quantity, long totalQuantity) {
+        long oldHigh = Math.multiplyHigh(oldAvg, oldQuantity);
+        long oldLow = oldAvg * oldQuantity;
+        long newHigh = Math.multiplyHigh(price, quantity);
+        long newLow = price * quantity;
+
+        long low = oldLow + newLow;
+        long carry = Long.compareUnsigned(low, oldLow) < 0 ? 1L : 0L;
+        long high = Math.addExact(Math.addExact(oldHigh, newHigh), carry);
+        return divideHalfUp(high, low, totalQuantity);
+    }
+
+    /**
+     * ((sellPrice - avgPrice) / avgPrice)를 소수 8자리로 반올림한 뒤 x100 하여 소수 2자리로 반올림 (모두 HALF_UP)
+     */
+    static long profitLossRate(long sellPrice, long avgPrice) {
+        long diff = Math.subtractExact(sellPrice, avgPrice);
+        long absDiff = Math.abs(diff);
+        long ratio = divideHalfUp(Math.multiplyHigh(absDiff, 100_000_000L), absDiff * 100_000_000L, avgPrice);
+
+        long rate = ratio / RATE_DIVISOR;
+        if (ratio % RATE_DIVISOR * 2 >= RATE_DIVISOR) {
+            rate++;
+        }
+        return diff < 0 ? -rate : rate;
+    }
+
+    /**
+     * 부호 없는 128비트 값(high:low)을 양수 divisor로 나누고 HALF_UP으로 반올림합니다.
+     */
+    static long divideHalfUp(long high, long low, long divisor) {
+        if (high == 0 && low >= 0) {
+            long quotient = low / divisor;
+            long remainder = low % divisor;
+            return remainder >= divisor - remainder ? Math.addExact(quotient, 1L) : quotient;
+        }
+        if (Long.compareUnsigned(high, divisor) >= 0) {
+            throw new ArithmeticException("long overflow");
+        }
+
+        // 32비트 두 자리씩 나누는 정규화 나눗셈 (Hacker's Delight divlu), divisor < 2^63 이므로 shift >= 1
+        int shift = Long.numberOfLeadingZeros(divisor);
+        long normalized = divisor << shift;
+        long divisorHigh = normalized >>> 32;
+        long divisorLow = normalized & LOW_MASK;
+        long numerator32 = (high << shift) | (low >>> (64 - shift));
+        long numerator10 = low << shift;
+        long numerator1 = numerator10 >>> 32;
+        long numerator0 = numerator10 & LOW_MASK;
+
+        long quotient1 = Long.divideUnsigned(numerator32, divisorHigh);
+        long rhat = numerator32 - quotient1 * divisorHigh;
+        while (quotient1 > LOW_MASK
+                || Long.compareUnsigned(quotient1 * divisorLow, (rhat << 32) | numerator1) > 0) {
+            quotient1--;
+            rhat += divisorHigh;
+            if (rhat > LOW_MASK) {
+                break;
+            }
+        }
+
+        long numerator21 = (numerator32 << 32) + numerator1 - quotient1 * normalized;
+        long quotient0 = Long.divideUnsigned(numerator21, divisorHigh);
+        rhat = numerator21 - quotient0 * divisorHigh;
+        while (quotient0 > LOW_MASK
+                || Long.compareUnsigned(quotient0 * divisorLow, (rhat << 32) | numerator0) > 0) {
+            quotient0--;
+            rhat += divisorHigh;
+            if (rhat > LOW_MASK) {
+                break;
+            }
+        }
+
+        long quotient = (quotient1 << 32) + quotient0;
+        long remainder = ((numerator21 << 32) + numerator0 - quotient0 * normalized) >>> shift;
+        if (quotient < 0) {
+            throw new ArithmeticException("long overflow");
+        }
+        return remainder >= divisor - remainder ? Math.addExact(quotient, 1L) : quotient;
+    }
+
+    static long toScaled(BigDecimal value) {
+        if (value == null) {
+            throw new ArithmeticException("null value");
+        }
+        if (value.signum() < 0) {
+            throw new ArithmeticException("negative value: " + value);
+        }
+        // 소수 8자리를 넘는 값은 setScale에서, long 범위를 넘는 값은 longValueExact에서 ArithmeticException
+        return value.setScale(SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+    }
+
+    private static int checkCoinId(Integer coinId) {
+        if (coinId == null || coinId < 0 || coinId > MAX_COIN_ID) {
+            throw new ArithmeticException("coin_id out of range: " + coinId);
+        }
+        return coinId;
+    }
+}
@@ -1,30 +1,200 @@
 package com.bitreiver.fetch_server.domain.profit.service;
 
 import com.bitreiver.fetch_server.domain.trading.entity.TradingHistory;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.stereotype.Component;
-
-import com.bitreiver.fetch_server.domain.trading.entity.TradingHistory;
-import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 @Component
 @Slf4j
 public class TradingProfitCalculator {
     
+    private final boolean fixedPointEnabled;
+    private final int parallelThreshold;
+    private final ForkJoinPool forkJoinPool;
+    
+    public TradingProfitCalculator(
+            @Value("${trading.profit.fixed-point-enabled:true}") boolean fixedPointEnabled,
+            @Value("${trading.profit.parallelism:0}") int parallelism,
+            @Value("${trading.profit.parallel-threshold:5000}") int parallelThreshold) {
+        this.fixedPointEnabled = fixedPointEnabled;
+        this.parallelThreshold = parallelThreshold;
+        
+        // parallelism이 0이면 CPU 코어 수, 1이면 병렬 계산을 사용하지 않음
+        int poolSize = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.forkJoinPool = poolSize > 1 ? new ForkJoinPool(poolSize) : null;
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        if (forkJoinPool != null) {
+            forkJoinPool.shutdownNow();
+        }
+    }
+    
     public List<TradingHistory> calculateProfitLoss(List<TradingHistory> tradingHistories) {
+        // 보유량 추적: {coin_id: [avg_buy_price, quantity]}
+        return calculateProfitLoss(tradingHistories, new HashMap<>());
+    }
+    
+    /**
+     * 주어진 보유 상태(holdings)에서 시작해 거래 내역을 순서대로 반영합니다.
+     * holdings는 계산 후의 보유 상태로 갱신됩니다.
+     * 
+     * 평균 단가는 코인별로 독립적이므로, 거래 수가 parallel-threshold 이상이고 코인이 여러 개면
+     * 코인별로 나누어 ForkJoinPool에서 병렬로 계산한 뒤 holdings에 합칩니다.
+     */
+    public List<TradingHistory> calculateProfitLoss(List<TradingHistory> tradingHistories, 
+                                                    Map<Integer, List<BigDecimal>> holdings) {
+        return calculateProfitLoss(tradingHistories, holdings, null);
+    }
+    
+    /**
+     * calculateProfitLoss와 같이 계산하면서, 거래가 있었던 날짜마다 그날 마감 시점의 보유 상태를 dayEndListener로 전달합니다.
+     * 전체 거래를 한 번에 계산하고(병렬 계산 포함), 계산이 끝난 뒤 날짜 순으로 호출합니다.
+     * 
+     * @param dayEndListener null이면 일 마감 상태를 기록하지 않음
+     */
+    public List<TradingHistory> calculateProfitLoss(List<TradingHistory> tradingHistories, 
+                                                    Map<Integer, List<BigDecimal>> holdings,
+                                                    DayEndListener dayEndListener) {
         // trade_time 순으로 정렬 (과거부터 현재 순)
         List<TradingHistory> sortedHistories = new ArrayList<>(tradingHistories);
         sortedHistories.sort(Comparator.comparing(TradingHistory::getTradeTime));
         
-        // 보유량 추적: {coin_id: [avg_buy_price, quantity]}
-        Map<Integer, List<BigDecimal>> holdings = new HashMap<>();
+        Map<Integer, List<BigDecimal>> initialHoldings = dayEndListener != null ? new HashMap<>(holdings) : null;
+        List<DayEndRecord> dayEnds = dayEndListener != null ? new ArrayList<>() : null;
         
+        boolean parallel = false;
+        if (forkJoinPool != null && sortedHistories.size() >= parallelThreshold) {
+            // 정렬된 순서를 유지한 채 코인별로 분할
+            Map<Integer, List<TradingHistory>> historiesByCoin = new HashMap<>();
+            for (TradingHistory history : sortedHistories) {
+                historiesByCoin.computeIfAbsent(history.getCoinId(), k -> new ArrayList<>()).add(history);
+            }
+            
+            if (historiesByCoin.size() > 1) {
+                calculateByCoinInParallel(historiesByCoin, holdings, dayEnds);
+                log.debug("수익률 계산 완료: 총 {}개 거래 내역 처리 (코인 {}개 병렬)", sortedHistories.size(), historiesByCoin.size());
+                parallel = true;
+            }
+        }
+        
+        if (!parallel) {
+            calculateSequentially(sortedHistories, holdings, dayEnds);
+            log.debug("수익률 계산 완료: 총 {}개 거래 내역 처리", sortedHistories.size());
+        }
+        
+        if (dayEndListener != null) {
+            publishDayEnds(initialHoldings, dayEnds, dayEndListener);
+        }
+        return sortedHistories;
+    }
+    
+    /**
+     * 코인별 일 마감 기록을 날짜 순으로 합치며, 날짜마다 전체 코인의 보유 상태를 전달합니다.
+     * 병렬 계산에서는 코인별 기록이 이어 붙어 있으므로 날짜로 안정 정렬한 뒤 반영합니다.
+     */
+    private void publishDayEnds(Map<Integer, List<BigDecimal>> initialHoldings, List<DayEndRecord> dayEnds,
+                                DayEndListener dayEndListener) {
+        dayEnds.sort(Comparator.comparing((DayEndRecord dayEnd) -> dayEnd.day));
+        Map<Integer, List<BigDecimal>> current = initialHoldings;
+        Map<Integer, List<BigDecimal>> view = Collections.unmodifiableMap(current);
+        for (int i = 0; i < dayEnds.size(); i++) {
+            DayEndRecord dayEnd = dayEnds.get(i);
+            if (dayEnd.quantity == null) {
+                current.remove(dayEnd.coinId);
+            } else {
+                current.put(dayEnd.coinId, Arrays.asList(dayEnd.avgBuyPrice, dayEnd.quantity));
+            }
+            if (i + 1 == dayEnds.size() || !dayEnds.get(i + 1).day.equals(dayEnd.day)) {
+                dayEndListener.onDayEnd(dayEnd.day, view);
+            }
+        }
+    }
+    
+    /**
+     * 코인별 거래 내역을 각각 독립된 보유 상태로 계산합니다.
+     * 거래 내역 객체는 한 코인의 작업에서만 수정되고, holdings는 모든 작업이 끝난 뒤 호출 스레드에서 갱신합니다.
+     */
+    private void calculateByCoinInParallel(Map<Integer, List<TradingHistory>> historiesByCoin,
+                                           Map<Integer, List<BigDecimal>> holdings, List<DayEndRecord> dayEnds) {
+        List<Callable<CoinResult>> tasks = new ArrayList<>(historiesByCoin.size());
+        for (Map.Entry<Integer, List<TradingHistory>> entry : historiesByCoin.entrySet()) {
+            Integer coinId = entry.getKey();
+            List<BigDecimal> initial = holdings.get(coinId);
+            tasks.add(() -> {
+                Map<Integer, List<BigDecimal>> coinHoldings = new HashMap<>();
+                if (initial != null) {
+                    coinHoldings.put(coinId, initial);
+                }
+                List<DayEndRecord> coinDayEnds = dayEnds != null ? new ArrayList<>() : null;
+                calculateSequentially(entry.getValue(), coinHoldings, coinDayEnds);
+                return new CoinResult(coinHoldings, coinDayEnds);
+            });
+        }
+        
+        List<CoinResult> results = new ArrayList<>(tasks.size());
+        for (Future<CoinResult> future : forkJoinPool.invokeAll(tasks)) {
+            try {
+                results.add(future.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("수익률 계산이 중단되었습니다.", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+        
+        holdings.keySet().removeAll(historiesByCoin.keySet());
+        for (CoinResult result : results) {
+            holdings.putAll(result.holdings);
+            if (dayEnds != null) {
+                dayEnds.addAll(result.dayEnds);
+            }
+        }
+    }
+    
+    /**
+     * 고정소수점 엔진(FixedPointProfitEngine)으로 먼저 계산하고, 표현할 수 없는 값이 있으면 BigDecimal로 다시 계산합니다.
+     */
+    private void calculateSequentially(List<TradingHistory> sortedHistories, Map<Integer, List<BigDecimal>> holdings,
+                                       List<DayEndRecord> dayEnds) {
+        if (fixedPointEnabled) {
+            try {
+                FixedPointProfitEngine.apply(sortedHistories, holdings, dayEnds);
+                return;
+            } catch (ArithmeticException e) {
+                log.debug("고정소수점 계산 불가, BigDecimal로 계산: {}", e.getMessage());
+            }
+        }
+        
+        // 현재 날짜에 거래한 코인 (일 마감 기록용)
+        Set<Integer> touchedCoins = dayEnds != null ? new LinkedHashSet<>() : null;
+        LocalDate currentDay = null;
         for (TradingHistory history : sortedHistories) {
+            if (dayEnds != null) {
+                LocalDate day = history.getTradeTime().toLocalDate();
+                if (currentDay != null && !day.equals(currentDay)) {
+                    recordDayEnd(dayEnds, currentDay, touchedCoins, holdings);
+                }
+                currentDay = day;
+                touchedCoins.add(history.getCoinId());
+            }
+            
             Integer coinId = history.getCoinId();
             Short tradeType = history.getTradeType();
             BigDecimal price = history.getPrice();
@@ -36,9 +206,20 @@ public class TradingProfitCalculator {
                 processSell(holdings, coinId, price, quantity, history);
             }
         }
-        
-        log.info("수익률 계산 완료: 총 {}개 거래 내역 처리", sortedHistories.size());
-        return sortedHistories;
+        if (currentDay != null) {
+            recordDayEnd(dayEnds, currentDay, touchedCoins, holdings);
+        }
+    }
+    
+    private void recordDayEnd(List<DayEndRecord> dayEnds, LocalDate day, Set<Integer> touchedCoins,
+                              Map<Integer, List<BigDecimal>> holdings) {
+        for (Integer coinId : touchedCoins) {
+            List<BigDecimal> holding = holdings.get(coinId);
+            dayEnds.add(holding != null
+                ? new DayEndRecord(day, coinId, holding.get(0), holding.get(1))
+                : new DayEndRecord(day, coinId, null, null));
+        }
+        touchedCoins.clear();
     }
     
     public void processBuy(Map<Integer, List<BigDecimal>> holdings, Integer coinId, 
@@ -124,5 +305,43 @@ public class TradingProfitCalculator {
             holdings.put(coinId, Arrays.asList(avgBuyPrice, newQuantity));
         }
     }
+    
+    /**
+     * 거래가 있었던 날짜의 마감 보유 상태를 받는 콜백
+     * holdings는 호출 동안만 유효한 읽기 전용 보기이므로 필요하면 복사해서 사용합니다.
+     */
+    @FunctionalInterface
+    public interface DayEndListener {
+        void onDayEnd(LocalDate day, Map<Integer, List<BigDecimal>> holdings);
+    }
+    
+    /**
+     * 한 코인의 일 마감 보유 상태, quantity가 null이면 보유 수량 없음
+     */
+    static final class DayEndRecord {
+        private final LocalDate day;
+        private final int coinId;
+        private final BigDecimal avgBuyPrice;
+        private final BigDecimal quantity;
+        
+        DayEndRecord(LocalDate day, int coinId, BigDecimal avgBuyPrice, BigDecimal quantity) {
+            this.day = day;
+            this.coinId = coinId;
+            this.avgBuyPrice = avgBuyPrice;
+            this.quantity = quantity;
+        }
+    }
+    
+    /**
+     * 코인 하나의 병렬 계산 결과
+     */
+    private static final class CoinResult {
+        private final Map<Integer, List<BigDecimal>> holdings;
+        private final List<DayEndRecord> dayEnds;
+        
+        CoinResult(Map<Integer, List<BigDecimal>> holdings, List<DayEndRecord> dayEnds) {
+            this.holdings = holdings;
+            this.dayEnds = dayEnds;
+        }
+    }
 }
-
@@ -1,8 +1,16 @@
 package com.bitreiver.fetch_server.domain.profit.service;
 
+import com.bitreiver.fetch_server.domain.profit.dto.PortfolioDailyPositionResponse;
+import com.bitreiver.fetch_server.domain.profit.dto.RealizedPnlMonthlyResponse;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
 public interface TradingProfitService {
     Map<String, Object> calculateAndUpdateProfitLoss(UUID userId, Integer exchangeCode, Boolean isInitial);
+    List<PortfolioDailyPositionResponse> getPortfolioDailyPositions(UUID userId, Integer exchangeCode, LocalDate from, LocalDate to);
+    List<RealizedPnlMonthlyResponse> getRealizedPnlMonthly(UUID userId, Integer exchangeCode, Integer coinId, YearMonth from, YearMonth to);
 }
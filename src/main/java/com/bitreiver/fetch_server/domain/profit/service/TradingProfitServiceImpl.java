@@ -1,11 +1,20 @@
 package com.bitreiver.fetch_server.domain.profit.service;
 
-import com.bitreiver.fetch_server.domain.coin.entity.Coin;
-import com.bitreiver.fetch_server.domain.coin.repository.CoinRepository;
+import com.bitreiver.fetch_server.domain.coin.service.CoinCatalog;
+import com.bitreiver.fetch_server.domain.profit.dto.PortfolioDailyPositionResponse;
+import com.bitreiver.fetch_server.domain.profit.dto.RealizedPnlMonthlyResponse;
 import com.bitreiver.fetch_server.domain.profit.entity.CoinHoldingPast;
+import com.bitreiver.fetch_server.domain.profit.entity.PortfolioDailyPosition;
+import com.bitreiver.fetch_server.domain.profit.entity.ProfitCalculationWatermark;
+import com.bitreiver.fetch_server.domain.profit.entity.RealizedPnlMonthly;
 import com.bitreiver.fetch_server.domain.profit.repository.CoinHoldingPastRepository;
+import com.bitreiver.fetch_server.domain.profit.repository.PortfolioDailyPositionRepository;
+import com.bitreiver.fetch_server.domain.profit.repository.ProfitCalculationWatermarkRepository;
+import com.bitreiver.fetch_server.domain.profit.repository.RealizedPnlMonthlyRepository;
 import com.bitreiver.fetch_server.domain.trading.entity.TradingHistory;
+import com.bitreiver.fetch_server.domain.trading.repository.TradingAdvisoryLockRepository;
 import com.bitreiver.fetch_server.domain.trading.repository.TradingHistoryRepository;
+import com.bitreiver.fetch_server.domain.trading.service.TradingHistoryResponseCache;
 import com.bitreiver.fetch_server.global.common.exception.CustomException;
 import com.bitreiver.fetch_server.global.common.exception.ErrorCode;
 import lombok.RequiredArgsConstructor;
@@ -14,10 +23,14 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.*;
 import java.util.UUID;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
@@ -27,129 +40,136 @@ public class TradingProfitServiceImpl implements TradingProfitService {
     private final TradingProfitCalculator tradingProfitCalculator;
     private final TradingHistoryRepository tradingHistoryRepository;
     private final CoinHoldingPastRepository coinHoldingPastRepository;
-    private final CoinRepository coinRepository;
+    private final PortfolioDailyPositionRepository portfolioDailyPositionRepository;
+    private final RealizedPnlMonthlyRepository realizedPnlMonthlyRepository;
+    private final ProfitCalculationWatermarkRepository profitCalculationWatermarkRepository;
+    private final CoinCatalog coinCatalog;
+    private final TradingHistoryResponseCache tradingHistoryResponseCache;
+    private final TradingAdvisoryLockRepository tradingAdvisoryLockRepository;
     
+    private static final String MODE_INCREMENTAL = "incremental";
+    private static final String MODE_FULL = "full";
+    
+    /** 스트리밍 조회한 거래 내역을 한 번에 계산·반영하는 묶음 크기 */
+    private static final int CALCULATION_CHUNK_SIZE = 10_000;
+    
+    private static final int DEFAULT_POSITION_PERIOD_DAYS = 365;
+    private static final int DEFAULT_PNL_PERIOD_MONTHS = 12;
+    
+    /**
+     * 거래 내역의 수익률을 계산하고 보유 종목(coin_holdings_past)을 갱신합니다.
+     * 
+     * - 증분 계산: profit_calculation_watermarks에 마지막으로 반영된 거래(last_trade_id, last_trade_time)가 있으면
+     *   그 이후에 저장된 거래만 조회해 기존 보유 상태 위에 반영합니다. 전량 매도로 보유 종목이 없어도 워터마크는 유지됩니다.
+     * - 전체 계산: is_initial=true이거나 워터마크가 없는 경우,
+     *   또는 워터마크보다 이전 시각의 거래가 새로 저장된 경우 전체 거래 내역을 처음부터 다시 계산합니다.
+     * - 같은 계산 과정에서 거래가 있었던 날의 장 마감 보유 상태를 portfolio_daily_positions에 저장합니다.
+     *   증분 계산은 새 거래가 있는 날짜만 추가(마지막 날짜는 덮어쓰기)하고, 전체 계산은 시계열을 다시 만듭니다.
+     * - 코인·월별 실현 손익 집계(realized_pnl_monthly)도 같은 과정에서 새로 반영된 거래만큼 더하며, 전체 계산은 집계를 다시 만듭니다.
+     * - 집계에 증분을 더하므로 같은 사용자·거래소의 계산·거래내역 저장·재처리와 겹치지 않도록
+     *   트랜잭션 시작 시 사용자·거래소 advisory lock을 잡습니다. (다른 서버, API 직접 호출 포함)
+     */
     @Override
     @Transactional
     public Map<String, Object> calculateAndUpdateProfitLoss(UUID userId, Integer exchangeCode, Boolean isInitial) {
         try {
-            List<TradingHistory> tradingHistories = tradingHistoryRepository
-                .findByUserIdAndExchangeCodeOrderByTradeTimeAsc(userId, exchangeCode.shortValue());
-            
-            if (tradingHistories.isEmpty()) {
-                log.warn("calculateAndUpdateProfitLoss - 거래 내역이 없습니다: user_id={}, exchange_code={}", userId, exchangeCode);
-                Map<String, Object> result = new HashMap<>();
-                result.put("updated_count", 0);
-                result.put("holdings_count", 0);
-                result.put("deleted_holdings_count", 0);
-                return result;
-            }
+            Short exchangeCodeShort = exchangeCode.shortValue();
+            tradingAdvisoryLockRepository.lockUserExchange(userId, exchangeCodeShort);
             
             List<CoinHoldingPast> existingHoldings = coinHoldingPastRepository
-                .findByUserIdAndExchangeCode(userId, exchangeCode.shortValue());
-            
-            Map<Integer, Map<String, Object>> holdingsDict = existingHoldings.stream()
-                .collect(Collectors.toMap(
-                    CoinHoldingPast::getCoinId,
-                    h -> {
-                        Map<String, Object> map = new HashMap<>();
-                        map.put("avg_buy_price", h.getAvgBuyPrice());
-                        map.put("remaining_quantity", h.getRemainingQuantity());
-                        map.put("symbol", h.getSymbol());
-                        return map;
-                    }
-                ));
+                .findByUserIdAndExchangeCode(userId, exchangeCodeShort);
             
-            if (holdingsDict.isEmpty()) {
-                isInitial = true;
-                log.info("calculateAndUpdateProfitLoss - coin_holdings_past에 데이터가 없어 최초 계산으로 판단: user_id={}, exchange_code={}", 
-                    userId, exchangeCode);
-            } else {
-                isInitial = false;
-                log.info("calculateAndUpdateProfitLoss - coin_holdings_past에 데이터가 있어 이후 업데이트로 판단: user_id={}, exchange_code={}, holdings_count={}", 
-                    userId, exchangeCode, holdingsDict.size());
-            }
+            ProfitCalculationWatermark watermark = profitCalculationWatermarkRepository
+                .findByUserIdAndExchangeCode(userId, exchangeCodeShort)
+                .orElse(null);
             
-            List<TradingHistory> updatedHistories;
-            if (!isInitial && !holdingsDict.isEmpty()) {
-                updatedHistories = calculateWithExistingHoldings(tradingHistories, holdingsDict);
+            Integer lastTradeId = null;
+            LocalDateTime lastTradeTime = null;
+            if (watermark != null) {
+                lastTradeId = watermark.getLastTradeId();
+                lastTradeTime = watermark.getLastTradeTime();
             } else {
-                updatedHistories = tradingProfitCalculator.calculateProfitLoss(tradingHistories);
-            }
-            
-            for (TradingHistory history : updatedHistories) {
-                if (history.getId() != null) {
-                    tradingHistoryRepository.updateProfitLoss(
-                        history.getId(),
-                        history.getProfitLossRate(),
-                        history.getAvgBuyPrice()
-                    );
-                } else {
-                    tradingHistoryRepository.save(history);
+                // 워터마크 테이블 도입 전에 계산된 사용자는 보유 종목에 남은 워터마크에서 시작
+                for (CoinHoldingPast holding : existingHoldings) {
+                    if (holding.getLastTradeId() != null 
+                            && (lastTradeId == null || holding.getLastTradeId() > lastTradeId)) {
+                        lastTradeId = holding.getLastTradeId();
+                        lastTradeTime = holding.getLastTradeTime();
+                    }
                 }
             }
             
-            Map<Integer, Map<String, Object>> finalHoldings = calculateFinalHoldings(updatedHistories);
+            boolean incremental = !Boolean.TRUE.equals(isInitial) && lastTradeId != null && lastTradeTime != null;
             
-            List<Coin> coins = coinRepository.findAll();
-            Map<Integer, String> coinMap = coins.stream()
-                .collect(Collectors.toMap(Coin::getId, Coin::getSymbol, (a, b) -> a));
+            // 보유량 추적: {coin_id: [avg_buy_price, quantity]}, 증분 계산은 저장된 보유 상태에서 시작
+            Map<Integer, List<BigDecimal>> holdings = new HashMap<>();
+            CalculationProgress progress = new CalculationProgress(userId, exchangeCodeShort, lastTradeId, lastTradeTime);
             
-            for (Map.Entry<Integer, Map<String, Object>> entry : finalHoldings.entrySet()) {
-                Integer coinId = entry.getKey();
-                Map<String, Object> data = entry.getValue();
-                
-                Optional<CoinHoldingPast> existing = coinHoldingPastRepository
-                    .findByUserIdAndCoinIdAndExchangeCode(userId, coinId, exchangeCode.shortValue());
-                
-                CoinHoldingPast holding;
-                if (existing.isPresent()) {
-                    holding = existing.get();
-                    holding.setAvgBuyPrice((BigDecimal) data.get("avg_buy_price"));
-                    holding.setRemainingQuantity((BigDecimal) data.get("remaining_quantity"));
-                    holding.setSymbol((String) data.get("symbol"));
-                    holding.setUpdatedAt(LocalDateTime.now());
-                } else {
-                    holding = CoinHoldingPast.builder()
-                        .userId(userId)
-                        .coinId(coinId)
-                        .exchangeCode(exchangeCode.shortValue())
-                        .symbol((String) data.get("symbol"))
-                        .avgBuyPrice((BigDecimal) data.get("avg_buy_price"))
-                        .remainingQuantity((BigDecimal) data.get("remaining_quantity"))
-                        .createdAt(LocalDateTime.now())
-                        .updatedAt(LocalDateTime.now())
-                        .build();
+            if (incremental) {
+                for (CoinHoldingPast holding : existingHoldings) {
+                    holdings.put(holding.getCoinId(), 
+                        Arrays.asList(holding.getAvgBuyPrice(), holding.getRemainingQuantity()));
                 }
                 
-                coinHoldingPastRepository.save(holding);
+                try (Stream<TradingHistory> stream = tradingHistoryRepository
+                        .streamForProfitCalculation(userId, exchangeCodeShort, lastTradeId)) {
+                    Iterator<TradingHistory> trades = stream.iterator();
+                    if (!trades.hasNext()) {
+                        log.info("calculateAndUpdateProfitLoss - 새로 반영할 거래 내역이 없습니다: user_id={}, exchange_code={}, last_trade_id={}", 
+                            userId, exchangeCode, lastTradeId);
+                        saveWatermark(watermark, userId, exchangeCodeShort, lastTradeId, lastTradeTime);
+                        return buildResult(MODE_INCREMENTAL, 0, 0, existingHoldings.size(), 0);
+                    }
+                    
+                    TradingHistory first = trades.next();
+                    if (first.getTradeTime().isBefore(lastTradeTime)) {
+                        // 워터마크 이전 시각의 거래가 뒤늦게 저장되었으면 반영 순서가 어긋나므로 전체 재계산
+                        log.info("calculateAndUpdateProfitLoss - 워터마크 이전 거래가 추가되어 전체 재계산: user_id={}, exchange_code={}, last_trade_time={}", 
+                            userId, exchangeCode, lastTradeTime);
+                        incremental = false;
+                    } else {
+                        log.info("calculateAndUpdateProfitLoss - 수익률 계산 시작: user_id={}, exchange_code={}, mode={}", 
+                            userId, exchangeCode, MODE_INCREMENTAL);
+                        applyInChunks(first, trades, holdings, progress);
+                    }
+                }
             }
             
-            Set<Integer> coinIdsWithHoldings = finalHoldings.entrySet().stream()
-                .filter(e -> ((BigDecimal) e.getValue().get("remaining_quantity")).compareTo(BigDecimal.ZERO) > 0)
-                .map(Map.Entry::getKey)
-                .collect(Collectors.toSet());
-            
-            List<CoinHoldingPast> allHoldings = coinHoldingPastRepository
-                .findByUserIdAndExchangeCode(userId, exchangeCode.shortValue());
-            
-            int deletedCount = 0;
-            for (CoinHoldingPast holding : allHoldings) {
-                if (!coinIdsWithHoldings.contains(holding.getCoinId())) {
-                    coinHoldingPastRepository.delete(holding);
-                    deletedCount++;
+            if (!incremental) {
+                holdings.clear();
+                progress = new CalculationProgress(userId, exchangeCodeShort, null, null);
+                portfolioDailyPositionRepository.deleteByUserIdAndExchangeCode(userId, exchangeCodeShort);
+                realizedPnlMonthlyRepository.deleteByUserIdAndExchangeCode(userId, exchangeCodeShort);
+                
+                try (Stream<TradingHistory> stream = tradingHistoryRepository
+                        .streamForProfitCalculation(userId, exchangeCodeShort, null)) {
+                    Iterator<TradingHistory> trades = stream.iterator();
+                    if (!trades.hasNext()) {
+                        log.warn("calculateAndUpdateProfitLoss - 거래 내역이 없습니다: user_id={}, exchange_code={}", userId, exchangeCode);
+                        return buildResult(MODE_FULL, 0, 0, 0, 0);
+                    }
+                    
+                    log.info("calculateAndUpdateProfitLoss - 수익률 계산 시작: user_id={}, exchange_code={}, mode={}", 
+                        userId, exchangeCode, MODE_FULL);
+                    applyInChunks(trades.next(), trades, holdings, progress);
                 }
             }
+            String mode = incremental ? MODE_INCREMENTAL : MODE_FULL;
             
-            log.info("calculateAndUpdateProfitLoss - 수익률 계산 및 업데이트 완료: user_id={}, exchange_code={}, updated={}, holdings={}, deleted={}", 
-                userId, exchangeCode, updatedHistories.size(), finalHoldings.size(), deletedCount);
+            int[] holdingCounts = saveHoldings(userId, exchangeCodeShort, existingHoldings, holdings, 
+                progress.lastTradeId, progress.lastTradeTime);
+            saveWatermark(watermark, userId, exchangeCodeShort, progress.lastTradeId, progress.lastTradeTime);
             
-            Map<String, Object> result = new HashMap<>();
-            result.put("updated_count", updatedHistories.size());
-            result.put("holdings_count", finalHoldings.size());
-            result.put("deleted_holdings_count", deletedCount);
+            // 수익률·평균 단가가 실제로 바뀐 행이 있을 때만 거래내역 조회 캐시 무효화 (커밋 후)
+            if (progress.changedCount > 0) {
+                tradingHistoryResponseCache.invalidate(userId);
+            }
+            
+            log.info("calculateAndUpdateProfitLoss - 수익률 계산 및 업데이트 완료: user_id={}, exchange_code={}, mode={}, updated={}, changed={}, holdings={}, deleted={}, position_days={}", 
+                userId, exchangeCode, mode, progress.processedCount, progress.changedCount, holdingCounts[0], holdingCounts[1], 
+                progress.positionDayCount);
             
-            return result;
+            return buildResult(mode, progress.processedCount, progress.changedCount, holdingCounts[0], holdingCounts[1]);
         } catch (CustomException e) {
             log.error("calculateAndUpdateProfitLoss - {}", e.getMessage());
             throw e;
@@ -160,80 +180,398 @@ public class TradingProfitServiceImpl implements TradingProfitService {
         }
     }
     
-    private List<TradingHistory> calculateWithExistingHoldings(
-            List<TradingHistory> tradingHistories,
-            Map<Integer, Map<String, Object>> existingHoldings) {
+    /**
+     * 거래 시각 순으로 스트리밍되는 거래 내역을 CALCULATION_CHUNK_SIZE개씩 계산합니다.
+     * 보유 상태(holdings)는 묶음 사이에 이어지고, 묶음마다 바뀐 행만 일괄 UPDATE한 뒤 버리므로
+     * 거래 내역이 많아도 메모리 사용량이 묶음 크기로 제한됩니다.
+     */
+    private void applyInChunks(TradingHistory first, Iterator<TradingHistory> rest,
+                               Map<Integer, List<BigDecimal>> holdings, CalculationProgress progress) {
+        List<TradingHistory> chunk = new ArrayList<>(CALCULATION_CHUNK_SIZE);
+        chunk.add(first);
+        while (true) {
+            while (chunk.size() < CALCULATION_CHUNK_SIZE && rest.hasNext()) {
+                chunk.add(rest.next());
+            }
+            applyChunk(chunk, holdings, progress);
+            if (!rest.hasNext()) {
+                return;
+            }
+            chunk.clear();
+        }
+    }
+    
+    /**
+     * 묶음 전체를 한 번에 계산하고, 계산기가 날짜 마감마다 넘겨주는 보유 상태를 일별 보유 종목으로 기록합니다.
+     * 묶음 경계에 걸친 날짜는 다음 묶음에서 같은 날짜 행을 다시 저장(upsert)해 최종 상태가 남습니다.
+     */
+    private void applyChunk(List<TradingHistory> chunk, Map<Integer, List<BigDecimal>> holdings, 
+                            CalculationProgress progress) {
+        // 계산 전 값을 기록해 두고, 계산 후 실제로 바뀐 행만 반영
+        Map<Integer, BigDecimal[]> previousValues = new HashMap<>();
+        for (TradingHistory history : chunk) {
+            previousValues.put(history.getId(), 
+                new BigDecimal[]{history.getProfitLossRate(), history.getAvgBuyPrice()});
+        }
         
-        Map<Integer, List<BigDecimal>> holdings = new HashMap<>();
-        for (Map.Entry<Integer, Map<String, Object>> entry : existingHoldings.entrySet()) {
-            Integer coinId = entry.getKey();
-            Map<String, Object> data = entry.getValue();
-            holdings.put(coinId, Arrays.asList(
-                (BigDecimal) data.get("avg_buy_price"),
-                (BigDecimal) data.get("remaining_quantity")
-            ));
+        LocalDateTime now = LocalDateTime.now();
+        List<PortfolioDailyPosition> dailyPositions = new ArrayList<>();
+        List<TradingHistory> updatedHistories = tradingProfitCalculator.calculateProfitLoss(chunk, holdings,
+            (day, dayHoldings) -> dailyPositions.add(toDailyPosition(progress, day, dayHoldings, now)));
+        
+        List<TradingHistory> changedHistories = new ArrayList<>();
+        for (TradingHistory history : updatedHistories) {
+            BigDecimal[] previous = previousValues.get(history.getId());
+            if (!sameValue(previous[0], history.getProfitLossRate()) 
+                    || !sameValue(previous[1], history.getAvgBuyPrice())) {
+                changedHistories.add(history);
+            }
+            if (progress.lastTradeId == null || history.getId() > progress.lastTradeId) {
+                progress.lastTradeId = history.getId();
+            }
+            if (progress.lastTradeTime == null || history.getTradeTime().isAfter(progress.lastTradeTime)) {
+                progress.lastTradeTime = history.getTradeTime();
+            }
         }
         
-        for (TradingHistory history : tradingHistories) {
-            Integer coinId = history.getCoinId();
+        progress.processedCount += updatedHistories.size();
+        progress.changedCount += tradingHistoryRepository.updateProfitLossInBulk(changedHistories);
+        progress.positionDayCount += portfolioDailyPositionRepository.upsertPositions(dailyPositions);
+        realizedPnlMonthlyRepository.addToRollups(toMonthlyPnlDeltas(progress, updatedHistories, now));
+    }
+    
+    /**
+     * 묶음에서 계산된 거래를 코인·월별로 합산합니다. 반환값은 기존 집계에 더할 증분입니다.
+     * 실현 손익은 평균 단가가 계산된 매도((매도가 - 평균 단가) x 매도 수량)만 반영합니다.
+     */
+    private List<RealizedPnlMonthly> toMonthlyPnlDeltas(CalculationProgress progress, List<TradingHistory> histories,
+                                                        LocalDateTime now) {
+        Map<String, PnlAccumulator> accumulators = new LinkedHashMap<>();
+        for (TradingHistory history : histories) {
             Short tradeType = history.getTradeType();
-            BigDecimal price = history.getPrice();
-            BigDecimal quantity = history.getQuantity();
+            if (tradeType != 0 && tradeType != 1) {
+                continue;
+            }
+            LocalDate month = history.getTradeTime().toLocalDate().withDayOfMonth(1);
+            PnlAccumulator accumulator = accumulators.computeIfAbsent(history.getCoinId() + "|" + month, 
+                key -> new PnlAccumulator(history.getCoinId(), month));
             
-            if (tradeType == 0) {
-                tradingProfitCalculator.processBuy(holdings, coinId, price, quantity, history);
-            } else if (tradeType == 1) {
-                tradingProfitCalculator.processSell(holdings, coinId, price, quantity, history);
+            BigDecimal volume = history.getTotalPrice() != null 
+                ? history.getTotalPrice() 
+                : history.getPrice().multiply(history.getQuantity());
+            if (history.getFee() != null) {
+                accumulator.fee = accumulator.fee.add(history.getFee());
+            }
+            
+            if (tradeType == 0) { // 매수
+                accumulator.buyVolume = accumulator.buyVolume.add(volume);
+                accumulator.buyCount++;
+                continue;
+            }
+            
+            accumulator.sellVolume = accumulator.sellVolume.add(volume);
+            accumulator.sellCount++;
+            if (history.getAvgBuyPrice() != null) {
+                BigDecimal pnl = history.getPrice().subtract(history.getAvgBuyPrice()).multiply(history.getQuantity());
+                accumulator.realizedPnl = accumulator.realizedPnl.add(pnl);
+                if (pnl.signum() > 0) {
+                    accumulator.winCount++;
+                } else if (pnl.signum() < 0) {
+                    accumulator.lossCount++;
+                }
             }
         }
         
-        return tradingHistories;
+        List<RealizedPnlMonthly> deltas = new ArrayList<>(accumulators.size());
+        for (PnlAccumulator accumulator : accumulators.values()) {
+            deltas.add(RealizedPnlMonthly.builder()
+                .userId(progress.userId)
+                .exchangeCode(progress.exchangeCode)
+                .coinId(accumulator.coinId)
+                .pnlMonth(accumulator.month)
+                .realizedPnl(accumulator.realizedPnl.setScale(8, RoundingMode.HALF_UP))
+                .buyVolume(accumulator.buyVolume.setScale(8, RoundingMode.HALF_UP))
+                .sellVolume(accumulator.sellVolume.setScale(8, RoundingMode.HALF_UP))
+                .fee(accumulator.fee.setScale(8, RoundingMode.HALF_UP))
+                .buyCount(accumulator.buyCount)
+                .sellCount(accumulator.sellCount)
+                .winCount(accumulator.winCount)
+                .lossCount(accumulator.lossCount)
+                .updatedAt(now)
+                .build());
+        }
+        return deltas;
     }
     
-    private Map<Integer, Map<String, Object>> calculateFinalHoldings(List<TradingHistory> tradingHistories) {
-        List<TradingHistory> sortedHistories = new ArrayList<>(tradingHistories);
-        sortedHistories.sort(Comparator.comparing(TradingHistory::getTradeTime));
+    /**
+     * 현재 보유 상태를 coin_id 순 배열로 묶어 일별 보유 종목 행을 만듭니다.
+     */
+    private PortfolioDailyPosition toDailyPosition(CalculationProgress progress, LocalDate day,
+                                                   Map<Integer, List<BigDecimal>> holdings, LocalDateTime now) {
+        List<Integer> coinIds = new ArrayList<>(holdings.size());
+        for (Map.Entry<Integer, List<BigDecimal>> entry : holdings.entrySet()) {
+            if (entry.getValue().get(1).compareTo(BigDecimal.ZERO) > 0) {
+                coinIds.add(entry.getKey());
+            }
+        }
+        Collections.sort(coinIds);
         
-        Map<Integer, List<BigDecimal>> holdings = new HashMap<>();
-        Map<Integer, String> coinSymbols = new HashMap<>();
+        BigDecimal[] quantities = new BigDecimal[coinIds.size()];
+        BigDecimal[] avgBuyPrices = new BigDecimal[coinIds.size()];
+        BigDecimal totalCost = BigDecimal.ZERO;
+        for (int i = 0; i < coinIds.size(); i++) {
+            List<BigDecimal> holding = holdings.get(coinIds.get(i));
+            avgBuyPrices[i] = holding.get(0);
+            quantities[i] = holding.get(1);
+            totalCost = totalCost.add(holding.get(0).multiply(holding.get(1)));
+        }
         
-        List<Coin> coins = coinRepository.findAll();
-        Map<Integer, String> coinMap = coins.stream()
-            .collect(Collectors.toMap(Coin::getId, Coin::getSymbol, (a, b) -> a));
+        return PortfolioDailyPosition.builder()
+            .userId(progress.userId)
+            .exchangeCode(progress.exchangeCode)
+            .positionDate(day)
+            .coinIds(coinIds.toArray(new Integer[0]))
+            .quantities(quantities)
+            .avgBuyPrices(avgBuyPrices)
+            .totalCost(totalCost.setScale(8, RoundingMode.HALF_UP))
+            .createdAt(now)
+            .updatedAt(now)
+            .build();
+    }
+    
+    /**
+     * 계산된 보유 상태를 coin_holdings_past에 반영합니다.
+     * 수량이 남은 종목은 한 번의 upsert로 저장하고(워터마크 포함), 남지 않은 종목은 한 번의 DELETE로 삭제합니다.
+     * 
+     * @return [보유 종목 수, 삭제된 종목 수]
+     */
+    private int[] saveHoldings(UUID userId, Short exchangeCode, List<CoinHoldingPast> existingHoldings,
+                               Map<Integer, List<BigDecimal>> holdings, Integer lastTradeId, LocalDateTime lastTradeTime) {
+        Map<Integer, String> existingSymbols = new HashMap<>();
+        for (CoinHoldingPast holding : existingHoldings) {
+            existingSymbols.putIfAbsent(holding.getCoinId(), holding.getSymbol());
+        }
         
-        for (TradingHistory history : sortedHistories) {
-            Integer coinId = history.getCoinId();
-            Short tradeType = history.getTradeType();
-            BigDecimal price = history.getPrice();
-            BigDecimal quantity = history.getQuantity();
-            
-            if (!coinSymbols.containsKey(coinId)) {
-                coinSymbols.put(coinId, coinMap.getOrDefault(coinId, "UNKNOWN"));
+        LocalDateTime now = LocalDateTime.now();
+        List<CoinHoldingPast> finalHoldings = new ArrayList<>();
+        
+        for (Map.Entry<Integer, List<BigDecimal>> entry : holdings.entrySet()) {
+            Integer coinId = entry.getKey();
+            BigDecimal remainingQuantity = entry.getValue().get(1);
+            if (remainingQuantity.compareTo(BigDecimal.ZERO) <= 0) {
+                continue;
             }
             
-            if (tradeType == 0) {
-                tradingProfitCalculator.processBuy(holdings, coinId, price, quantity, history);
-            } else if (tradeType == 1) {
-                tradingProfitCalculator.processSell(holdings, coinId, price, quantity, history);
+            String symbol = existingSymbols.get(coinId);
+            if (symbol == null) {
+                symbol = coinCatalog.findById(coinId)
+                    .map(CoinCatalog.CoinEntry::getSymbol)
+                    .orElse("UNKNOWN");
             }
+            
+            // 조회한 엔티티를 수정하면 변경 감지로 UPDATE가 추가되므로 새 객체로 upsert
+            finalHoldings.add(CoinHoldingPast.builder()
+                .userId(userId)
+                .coinId(coinId)
+                .exchangeCode(exchangeCode)
+                .symbol(symbol)
+                .avgBuyPrice(entry.getValue().get(0))
+                .remainingQuantity(remainingQuantity)
+                .lastTradeId(lastTradeId)
+                .lastTradeTime(lastTradeTime)
+                .createdAt(now)
+                .updatedAt(now)
+                .build());
         }
         
-        Map<Integer, Map<String, Object>> finalHoldings = new HashMap<>();
-        for (Map.Entry<Integer, List<BigDecimal>> entry : holdings.entrySet()) {
-            Integer coinId = entry.getKey();
-            List<BigDecimal> values = entry.getValue();
-            BigDecimal avgBuyPrice = values.get(0);
-            BigDecimal remainingQuantity = values.get(1);
-            
-            if (remainingQuantity.compareTo(BigDecimal.ZERO) > 0) {
-                Map<String, Object> data = new HashMap<>();
-                data.put("symbol", coinSymbols.getOrDefault(coinId, "UNKNOWN"));
-                data.put("avg_buy_price", avgBuyPrice);
-                data.put("remaining_quantity", remainingQuantity);
-                finalHoldings.put(coinId, data);
+        int holdingsCount = coinHoldingPastRepository.upsertHoldings(finalHoldings);
+        
+        // 남은 보유 수량이 없는 종목 삭제
+        Set<Integer> heldCoinIds = finalHoldings.stream()
+            .map(CoinHoldingPast::getCoinId)
+            .collect(Collectors.toSet());
+        int deletedCount = heldCoinIds.isEmpty()
+            ? coinHoldingPastRepository.deleteByUserIdAndExchangeCode(userId, exchangeCode)
+            : coinHoldingPastRepository.deleteByUserIdAndExchangeCodeAndCoinIdNotIn(userId, exchangeCode, heldCoinIds);
+        
+        return new int[]{holdingsCount, deletedCount};
+    }
+    
+    /**
+     * 수익률 계산 워터마크를 저장합니다. 기존 행은 변경 감지로, 없으면 새로 저장합니다.
+     */
+    private void saveWatermark(ProfitCalculationWatermark watermark, UUID userId, Short exchangeCode,
+                               Integer lastTradeId, LocalDateTime lastTradeTime) {
+        if (watermark != null) {
+            if (!Objects.equals(watermark.getLastTradeId(), lastTradeId)
+                    || !Objects.equals(watermark.getLastTradeTime(), lastTradeTime)) {
+                watermark.moveTo(lastTradeId, lastTradeTime);
             }
+            return;
+        }
+        if (lastTradeId == null) {
+            return;
         }
+        LocalDateTime now = LocalDateTime.now();
+        profitCalculationWatermarkRepository.save(ProfitCalculationWatermark.builder()
+            .userId(userId)
+            .exchangeCode(exchangeCode)
+            .lastTradeId(lastTradeId)
+            .lastTradeTime(lastTradeTime)
+            .createdAt(now)
+            .updatedAt(now)
+            .build());
+    }
+    
+    /**
+     * 일별 보유 종목 시계열을 조회합니다.
+     * 거래가 있었던 날짜만 저장되어 있으므로, 시작일 이전의 마지막 보유 상태를 시작일 항목으로 함께 반환합니다.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<PortfolioDailyPositionResponse> getPortfolioDailyPositions(UUID userId, Integer exchangeCode,
+                                                                          LocalDate from, LocalDate to) {
+        LocalDate toDate = to != null ? to : LocalDate.now();
+        LocalDate fromDate = from != null ? from : toDate.minusDays(DEFAULT_POSITION_PERIOD_DAYS);
+        if (fromDate.isAfter(toDate)) {
+            throw new CustomException(ErrorCode.INVALID_DATE_RANGE);
+        }
+        Short exchangeCodeShort = exchangeCode.shortValue();
+        
+        List<PortfolioDailyPosition> positions = portfolioDailyPositionRepository
+            .findByUserIdAndExchangeCodeAndPositionDateBetweenOrderByPositionDateAsc(userId, exchangeCodeShort, fromDate, toDate);
         
-        return finalHoldings;
+        List<PortfolioDailyPositionResponse> responses = new ArrayList<>(positions.size() + 1);
+        if (positions.isEmpty() || positions.get(0).getPositionDate().isAfter(fromDate)) {
+            portfolioDailyPositionRepository
+                .findFirstByUserIdAndExchangeCodeAndPositionDateLessThanOrderByPositionDateDesc(userId, exchangeCodeShort, fromDate)
+                .ifPresent(previous -> responses.add(toPositionResponse(previous, fromDate)));
+        }
+        for (PortfolioDailyPosition position : positions) {
+            responses.add(toPositionResponse(position, position.getPositionDate()));
+        }
+        return responses;
+    }
+    
+    /**
+     * 코인별 월간 실현 손익을 집계 테이블에서 조회합니다.
+     * 
+     * @param coinId null이면 전체 코인
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<RealizedPnlMonthlyResponse> getRealizedPnlMonthly(UUID userId, Integer exchangeCode, Integer coinId,
+                                                                 YearMonth from, YearMonth to) {
+        YearMonth toMonth = to != null ? to : YearMonth.now();
+        YearMonth fromMonth = from != null ? from : toMonth.minusMonths(DEFAULT_PNL_PERIOD_MONTHS - 1);
+        if (fromMonth.isAfter(toMonth)) {
+            throw new CustomException(ErrorCode.INVALID_DATE_RANGE);
+        }
+        Short exchangeCodeShort = exchangeCode.shortValue();
+        
+        List<RealizedPnlMonthly> rollups = coinId != null
+            ? realizedPnlMonthlyRepository.findByUserIdAndExchangeCodeAndCoinIdAndPnlMonthBetweenOrderByPnlMonthAsc(
+                userId, exchangeCodeShort, coinId, fromMonth.atDay(1), toMonth.atDay(1))
+            : realizedPnlMonthlyRepository.findByUserIdAndExchangeCodeAndPnlMonthBetweenOrderByPnlMonthAscCoinIdAsc(
+                userId, exchangeCodeShort, fromMonth.atDay(1), toMonth.atDay(1));
+        
+        List<RealizedPnlMonthlyResponse> responses = new ArrayList<>(rollups.size());
+        for (RealizedPnlMonthly rollup : rollups) {
+            responses.add(RealizedPnlMonthlyResponse.builder()
+                .month(YearMonth.from(rollup.getPnlMonth()))
+                .coinId(rollup.getCoinId())
+                .symbol(coinCatalog.findById(rollup.getCoinId()).map(CoinCatalog.CoinEntry::getSymbol).orElse("UNKNOWN"))
+                .realizedPnl(rollup.getRealizedPnl())
+                .buyVolume(rollup.getBuyVolume())
+                .sellVolume(rollup.getSellVolume())
+                .fee(rollup.getFee())
+                .tradeCount(rollup.getBuyCount() + rollup.getSellCount())
+                .buyCount(rollup.getBuyCount())
+                .sellCount(rollup.getSellCount())
+                .winCount(rollup.getWinCount())
+                .lossCount(rollup.getLossCount())
+                .build());
+        }
+        return responses;
+    }
+    
+    private PortfolioDailyPositionResponse toPositionResponse(PortfolioDailyPosition position, LocalDate date) {
+        Integer[] coinIds = position.getCoinIds();
+        List<PortfolioDailyPositionResponse.Position> items = new ArrayList<>(coinIds.length);
+        for (int i = 0; i < coinIds.length; i++) {
+            items.add(PortfolioDailyPositionResponse.Position.builder()
+                .coinId(coinIds[i])
+                .symbol(coinCatalog.findById(coinIds[i]).map(CoinCatalog.CoinEntry::getSymbol).orElse("UNKNOWN"))
+                .quantity(position.getQuantities()[i])
+                .avgBuyPrice(position.getAvgBuyPrices()[i])
+                .build());
+        }
+        return PortfolioDailyPositionResponse.builder()
+            .date(date)
+            .totalCost(position.getTotalCost())
+            .positions(items)
+            .build();
+    }
+    
+    private Map<String, Object> buildResult(String mode, int updatedCount, int changedCount, 
+                                            int holdingsCount, int deletedCount) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("calculation_mode", mode);
+        result.put("updated_count", updatedCount);
+        result.put("changed_count", changedCount);
+        result.put("holdings_count", holdingsCount);
+        result.put("deleted_holdings_count", deletedCount);
+        return result;
+    }
+    
+    /**
+     * 소수 자릿수(scale)와 관계없이 값이 같은지 비교합니다. (DB에서 읽은 값과 계산 값의 scale이 다를 수 있음)
+     */
+    private boolean sameValue(BigDecimal previous, BigDecimal current) {
+        if (previous == null || current == null) {
+            return previous == current;
+        }
+        return previous.compareTo(current) == 0;
+    }
+    
+    /**
+     * 코인·월 하나의 실현 손익 증분 합산
+     */
+    private static class PnlAccumulator {
+        private final Integer coinId;
+        private final LocalDate month;
+        private BigDecimal realizedPnl = BigDecimal.ZERO;
+        private BigDecimal buyVolume = BigDecimal.ZERO;
+        private BigDecimal sellVolume = BigDecimal.ZERO;
+        private BigDecimal fee = BigDecimal.ZERO;
+        private int buyCount;
+        private int sellCount;
+        private int winCount;
+        private int lossCount;
+        
+        PnlAccumulator(Integer coinId, LocalDate month) {
+            this.coinId = coinId;
+            this.month = month;
+        }
+    }
+    
+    /**
+     * 묶음 단위 계산에서 누적되는 처리 건수와 워터마크
+     */
+    private static class CalculationProgress {
+        private final UUID userId;
+        private final Short exchangeCode;
+        private Integer lastTradeId;
+        private LocalDateTime lastTradeTime;
+        private int processedCount;
+        private int changedCount;
+        private int positionDayCount;
+        
+        CalculationProgress(UUID userId, Short exchangeCode, Integer lastTradeId, LocalDateTime lastTradeTime) {
+            this.userId = userId;
+            this.exchangeCode = exchangeCode;
+            this.lastTradeId = lastTradeId;
+            this.lastTradeTime = lastTradeTime;
+        }
     }
 }
@@ -0,0 +1,112 @@
+package com.bitreiver.fetch_server.domain.trading.batch;
+
+import com.bitreiver.fetch_server.domain.trading.repository.TradingHistorySchemaRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.batch.support.transaction.ResourcelessTransactionManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * trading_histories를 trade_time 월 단위 범위 파티션 테이블로 전환하는 배치 작업
+ *
+ * 1. 파티션 테이블을 만들고 원본 변경을 반영하는 트리거를 겁니다.
+ * 2. id 순서로 묶음마다 커밋하며 복사합니다. 마지막으로 복사한 id를 Step 실행 컨텍스트에 남기므로 실패 후 다시 실행하면 이어서 복사합니다.
+ * 3. 짧은 잠금 안에서 테이블 이름을 바꿉니다.
+ *
+ * 각 단계는 저장소 메서드에서 트랜잭션을 나눠 커밋하므로 ResourcelessTransactionManager를 사용합니다.
+ */
+@Slf4j
+@Configuration
+public class TradingHistoryPartitionBatchJob {
+
+    private static final String LAST_COPIED_ID = "lastCopiedId";
+
+    private final TradingHistorySchemaRepository schemaRepository;
+    private final JobRepository jobRepository;
+    private final int copyBatchSize;
+
+    public TradingHistoryPartitionBatchJob(
+            TradingHistorySchemaRepository schemaRepository,
+            JobRepository jobRepository,
+            @Value("${trading.history.schema.partition-copy-batch-size:10000}") int copyBatchSize) {
+        this.schemaRepository = schemaRepository;
+        this.jobRepository = jobRepository;
+        this.copyBatchSize = copyBatchSize;
+    }
+
+    @Bean
+    public Tasklet preparePartitionedTradingHistoriesTasklet() {
+        return (contribution, chunkContext) -> {
+            Long monthsAhead = (Long) chunkContext.getStepContext().getJobParameters().get("monthsAhead");
+            if (schemaRepository.preparePartitionedCopy(monthsAhead.intValue())) {
+                log.info("거래내역 파티션 전환 - 파티션 테이블 준비 완료");
+            }
+            return RepeatStatus.FINISHED;
+        };
+    }
+
+    @Bean
+    public Tasklet copyPartitionedTradingHistoriesTasklet() {
+        return (contribution, chunkContext) -> {
+            ExecutionContext context = chunkContext.getStepContext().getStepExecution().getExecutionContext();
+            int afterId = context.getInt(LAST_COPIED_ID, 0);
+
+            Integer lastId = schemaRepository.copyToPartitioned(afterId, copyBatchSize);
+            if (lastId == null) {
+                log.info("거래내역 파티션 전환 - 복사 완료: 마지막 id={}", afterId);
+                return RepeatStatus.FINISHED;
+            }
+            context.putInt(LAST_COPIED_ID, lastId);
+            return RepeatStatus.CONTINUABLE;
+        };
+    }
+
+    @Bean
+    public Tasklet swapPartitionedTradingHistoriesTasklet() {
+        return (contribution, chunkContext) -> {
+            if (schemaRepository.swapInPartitioned()) {
+                log.info("거래내역 파티션 전환 완료 (기존 테이블은 trading_histories_legacy로 남아 있음)");
+            }
+            return RepeatStatus.FINISHED;
+        };
+    }
+
+    @Bean
+    public Step preparePartitionedTradingHistoriesStep() {
+        return new StepBuilder("preparePartitionedTradingHistoriesStep", jobRepository)
+                .tasklet(preparePartitionedTradingHistoriesTasklet(), new ResourcelessTransactionManager())
+                .build();
+    }
+
+    @Bean
+    public Step copyPartitionedTradingHistoriesStep() {
+        return new StepBuilder("copyPartitionedTradingHistoriesStep", jobRepository)
+                .tasklet(copyPartitionedTradingHistoriesTasklet(), new ResourcelessTransactionManager())
+                .build();
+    }
+
+    @Bean
+    public Step swapPartitionedTradingHistoriesStep() {
+        return new StepBuilder("swapPartitionedTradingHistoriesStep", jobRepository)
+                .tasklet(swapPartitionedTradingHistoriesTasklet(), new ResourcelessTransactionManager())
+                .build();
+    }
+
+    @Bean
+    public Job partitionTradingHistoriesJob() {
+        return new JobBuilder("partitionTradingHistoriesJob", jobRepository)
+                .start(preparePartitionedTradingHistoriesStep())
+                .next(copyPartitionedTradingHistoriesStep())
+                .next(swapPartitionedTradingHistoriesStep())
+                .build();
+    }
+}
@@ -0,0 +1,64 @@
+package com.bitreiver.fetch_server.domain.trading.batch;
+
+import com.bitreiver.fetch_server.domain.trading.service.TradingOrderArchiveService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.batch.support.transaction.ResourcelessTransactionManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Map;
+import java.util.UUID;
+
+@Slf4j
+@Configuration
+@RequiredArgsConstructor
+public class TradingHistoryReprocessBatchJob {
+    private final TradingOrderArchiveService tradingOrderArchiveService;
+    private final JobRepository jobRepository;
+
+    @Bean
+    public Tasklet reprocessTradingHistoriesTasklet() {
+        return (contribution, chunkContext) -> {
+            Map<String, Object> params = chunkContext.getStepContext().getJobParameters();
+
+            UUID userId = UUID.fromString((String) params.get("userId"));
+            String exchangeProviderStr = (String) params.get("exchangeProvider");
+
+            log.info("거래내역 재처리 배치 실행 - user_id: {}, exchange: {}", userId, exchangeProviderStr);
+
+            Map<String, Object> result = tradingOrderArchiveService.reprocessTradingHistories(userId, exchangeProviderStr);
+
+            // 작업 조회 API에서 결과를 보여주도록 Job 실행 컨텍스트에 기록
+            chunkContext.getStepContext().getStepExecution().getJobExecution().getExecutionContext()
+                .put("result", result.toString());
+
+            return RepeatStatus.FINISHED;
+        };
+    }
+
+    /**
+     * 재처리는 서비스에서 사용자·거래소 단위 한 트랜잭션으로 실행하므로,
+     * Step을 다시 JPA 트랜잭션으로 감싸지 않도록 ResourcelessTransactionManager를 사용합니다.
+     */
+    @Bean
+    public Step reprocessTradingHistoriesStep() {
+        return new StepBuilder("reprocessTradingHistoriesStep", jobRepository)
+                .tasklet(reprocessTradingHistoriesTasklet(), new ResourcelessTransactionManager())
+                .build();
+    }
+
+    @Bean
+    public Job reprocessTradingHistoriesJob() {
+        return new JobBuilder("reprocessTradingHistoriesJob", jobRepository)
+                .start(reprocessTradingHistoriesStep())
+                .build();
+    }
+}
@@ -0,0 +1,25 @@
+package com.bitreiver.fetch_server.domain.trading.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "거래내역 페이지 응답 (거래 일시 최신순, 커서 기반)")
+public class TradingHistoryPageResponse {
+    @Schema(description = "거래내역 목록")
+    private List<TradingHistoryResponse> tradingHistories;
+    
+    @Schema(description = "다음 페이지 존재 여부", example = "true")
+    private Boolean hasNext;
+    
+    @Schema(description = "다음 페이지 조회용 커서 (다음 페이지가 없으면 null)", example = "MjAyNC0wMS0wMVQwMDowMDowMHwxMjM", nullable = true)
+    private String nextCursor;
+}
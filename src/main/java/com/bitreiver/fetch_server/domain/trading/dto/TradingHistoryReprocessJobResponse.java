@@ -0,0 +1,41 @@
+package com.bitreiver.fetch_server.domain.trading.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "거래내역 재처리 작업 상태 응답")
+public class TradingHistoryReprocessJobResponse {
+    @Schema(description = "배치 작업 실행 ID", example = "42")
+    private Long jobExecutionId;
+    
+    @Schema(description = "사용자 ID", example = "123e4567-e89b-12d3-a456-426614174000")
+    private UUID userId;
+    
+    @Schema(description = "거래소명", example = "UPBIT")
+    private String exchangeProviderStr;
+    
+    @Schema(description = "작업 상태 (STARTING, STARTED, COMPLETED, FAILED 등)", example = "STARTED")
+    private String status;
+    
+    @Schema(description = "작업 시작 일시", example = "2024-01-01T00:00:01", nullable = true)
+    private LocalDateTime startedAt;
+    
+    @Schema(description = "작업 종료 일시", example = "2024-01-01T00:01:00", nullable = true)
+    private LocalDateTime finishedAt;
+    
+    @Schema(description = "재처리 결과 요약 (완료 시에만 값 존재)", nullable = true)
+    private String result;
+    
+    @Schema(description = "실패 사유 (실패 시에만 값 존재)", nullable = true)
+    private String errorMessage;
+}
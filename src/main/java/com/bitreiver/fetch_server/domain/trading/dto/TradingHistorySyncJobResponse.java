@@ -0,0 +1,72 @@
+package com.bitreiver.fetch_server.domain.trading.dto;
+
+import com.bitreiver.fetch_server.domain.trading.enums.SyncJobStatus;
+import com.bitreiver.fetch_server.domain.trading.service.TradingHistorySyncJob;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "거래내역 동기화 작업 상태 응답")
+public class TradingHistorySyncJobResponse {
+    @Schema(description = "작업 ID", example = "6f1c2d3e-4b5a-4c6d-8e7f-9a0b1c2d3e4f")
+    private UUID jobId;
+    
+    @Schema(description = "사용자 ID", example = "123e4567-e89b-12d3-a456-426614174000")
+    private UUID userId;
+    
+    @Schema(description = "거래소명", example = "UPBIT")
+    private String exchangeProviderStr;
+    
+    @Schema(description = "작업 상태 (PENDING, RUNNING, COMPLETED, FAILED)", example = "RUNNING")
+    private SyncJobStatus status;
+    
+    @Schema(description = "조회 완료된 구간(7일) 수", example = "120")
+    private Integer scannedWindowCount;
+    
+    @Schema(description = "상세 조회한 주문 수", example = "3500")
+    private Integer fetchedOrderCount;
+    
+    @Schema(description = "저장된 거래내역 수", example = "3500")
+    private Integer savedCount;
+    
+    @Schema(description = "작업 제출 일시", example = "2024-01-01T00:00:00")
+    private LocalDateTime submittedAt;
+    
+    @Schema(description = "작업 시작 일시", example = "2024-01-01T00:00:01", nullable = true)
+    private LocalDateTime startedAt;
+    
+    @Schema(description = "작업 종료 일시", example = "2024-01-01T00:05:00", nullable = true)
+    private LocalDateTime finishedAt;
+    
+    @Schema(description = "동기화 결과 (완료 시에만 값 존재)", nullable = true)
+    private TradingHistorySyncResult result;
+    
+    @Schema(description = "실패 사유 (실패 시에만 값 존재)", nullable = true)
+    private String errorMessage;
+    
+    public static TradingHistorySyncJobResponse from(TradingHistorySyncJob job) {
+        return TradingHistorySyncJobResponse.builder()
+            .jobId(job.getJobId())
+            .userId(job.getUserId())
+            .exchangeProviderStr(job.getExchangeProviderStr())
+            .status(job.getStatus())
+            .scannedWindowCount(job.getScannedWindowCount().get())
+            .fetchedOrderCount(job.getFetchedOrderCount().get())
+            .savedCount(job.getSavedCount().get())
+            .submittedAt(job.getSubmittedAt())
+            .startedAt(job.getStartedAt())
+            .finishedAt(job.getFinishedAt())
+            .result(job.getResult())
+            .errorMessage(job.getErrorMessage())
+            .build();
+    }
+}
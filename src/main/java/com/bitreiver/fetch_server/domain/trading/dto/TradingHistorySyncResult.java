@@ -0,0 +1,24 @@
+package com.bitreiver.fetch_server.domain.trading.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TradingHistorySyncResult {
+    private Boolean isInitial;
+    /** 현재 시각까지 모든 조회 구간을 처리했는지 여부 (false면 체크포인트부터 이어서 동기화해야 함) */
+    private Boolean completed;
+    private Integer scannedWindowCount;
+    private Integer fetchedOrderCount;
+    private Integer savedCount;
+    private LocalDateTime lastTradeTime;
+    private Map<String, Object> profitCalculation;
+}
@@ -14,16 +14,15 @@ import java.util.UUID;
 @Entity
 @Table(name = "trading_histories", 
     uniqueConstraints = {
+        // 파티션 테이블로 전환하면 파티션 키를 포함한 (user_id, exchange_code, trade_uuid, trade_time)으로 바뀜 (TradingHistorySchemaRepository)
         @UniqueConstraint(
             name = "uq_user_exchange_trade_uuid",
             columnNames = {"user_id", "exchange_code", "trade_uuid"}
         )
     },
+    // (user_id, exchange_code, trade_time, id) 커버링 인덱스와 trade_time 파티션은 TradingHistorySchemaRepository에서 관리
     indexes = {
-        @Index(name = "idx_user_id", columnList = "user_id"),
         @Index(name = "idx_coin_id", columnList = "coin_id"),
-        @Index(name = "idx_trade_time", columnList = "trade_time"),
-        @Index(name = "idx_exchange_code", columnList = "exchange_code"),
         @Index(name = "idx_user_trade_time", columnList = "user_id, trade_time")
     })
 @Getter
@@ -78,5 +77,26 @@ public class TradingHistory {
     
     @Column(name = "created_at")
     private LocalDateTime createdAt;
+    
+    /**
+     * 네이티브 INSERT로 저장된 행의 ID를 채운 사본을 반환합니다.
+     */
+    public TradingHistory withId(Integer id) {
+        return TradingHistory.builder()
+            .id(id)
+            .userId(userId)
+            .coinId(coinId)
+            .exchangeCode(exchangeCode)
+            .tradeUuid(tradeUuid)
+            .tradeType(tradeType)
+            .price(price)
+            .quantity(quantity)
+            .totalPrice(totalPrice)
+            .fee(fee)
+            .tradeTime(tradeTime)
+            .profitLossRate(profitLossRate)
+            .avgBuyPrice(avgBuyPrice)
+            .createdAt(createdAt)
+            .build();
+    }
 }
-
@@ -0,0 +1,60 @@
+package com.bitreiver.fetch_server.domain.trading.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * 거래소 주문 조회 응답 원문 아카이브 (추가 전용)
+ *
+ * 동기화 묶음 하나가 한 행이며, payload는 주문 응답 원문을 한 줄에 하나씩 담은 NDJSON을 gzip으로 압축한 값입니다.
+ * 거래내역 처리 로직이 바뀌면 거래소 API를 다시 호출하지 않고 이 원문으로 trading_histories를 다시 만듭니다.
+ */
+@Entity
+@Table(name = "trading_order_archives",
+    indexes = {
+        @Index(name = "idx_order_archive_user_exchange", columnList = "user_id, exchange_code, id")
+    })
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TradingOrderArchive {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "user_id", nullable = false, columnDefinition = "uuid")
+    private UUID userId;
+
+    @Column(name = "exchange_code", nullable = false)
+    private Short exchangeCode;
+
+    /** 주문을 조회한 구간 시작 (포함) */
+    @Column(name = "range_start", nullable = false)
+    private LocalDateTime rangeStart;
+
+    /** 주문을 조회한 구간 끝 (미포함) */
+    @Column(name = "range_end", nullable = false)
+    private LocalDateTime rangeEnd;
+
+    @Column(name = "order_count", nullable = false)
+    private Integer orderCount;
+
+    /** 압축 전 크기 (byte) */
+    @Column(name = "raw_size", nullable = false)
+    private Integer rawSize;
+
+    @Column(name = "payload", nullable = false, columnDefinition = "bytea")
+    private byte[] payload;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,114 @@
+package com.bitreiver.fetch_server.domain.trading.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "trading_sync_checkpoints",
+    uniqueConstraints = {
+        @UniqueConstraint(
+            name = "uq_sync_checkpoint_user_exchange",
+            columnNames = {"user_id", "exchange_code"}
+        )
+    })
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TradingSyncCheckpoint {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Integer id;
+
+    @Column(name = "user_id", nullable = false, columnDefinition = "uuid")
+    private UUID userId;
+
+    @Column(name = "exchange_code", nullable = false)
+    private Short exchangeCode;
+
+    /** 이 시각 이전의 조회 구간은 모두 저장까지 완료됨 */
+    @Column(name = "completed_until")
+    private LocalDateTime completedUntil;
+
+    /** 지금까지 저장된 거래 중 가장 늦은 trade_time (워터마크) */
+    @Column(name = "last_trade_time")
+    private LocalDateTime lastTradeTime;
+
+    @Column(name = "in_progress", nullable = false)
+    @Builder.Default
+    private Boolean inProgress = false;
+
+    /** 처음부터 조회하는 초기 동기화 여부 (중단 후 재개해도 완료될 때까지 유지) */
+    @Column(name = "initial_sync", nullable = false, columnDefinition = "boolean default false")
+    @Builder.Default
+    private Boolean initialSync = false;
+
+    /** 마지막 수익률 계산 이후 저장된 거래 수 (중단된 동기화에서 저장된 거래 포함) */
+    @Column(name = "pending_profit_count", nullable = false, columnDefinition = "integer default 0")
+    @Builder.Default
+    private Integer pendingProfitCount = 0;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    /**
+     * 다음 동기화의 조회 시작 시각
+     * 중단된 동기화는 완료된 구간 직후부터 이어서 조회하고,
+     * 완료된 동기화 이후에는 완료된 구간과 워터마크 중 늦은 시각부터 조회합니다.
+     */
+    public LocalDateTime resumeFrom() {
+        if (Boolean.TRUE.equals(inProgress) || lastTradeTime == null) {
+            return completedUntil;
+        }
+        if (completedUntil == null || lastTradeTime.isAfter(completedUntil)) {
+            return lastTradeTime;
+        }
+        return completedUntil;
+    }
+
+    /**
+     * 동기화를 시작합니다. 중단된 동기화를 이어서 진행하면 처음 시작할 때의 초기 동기화 여부를 유지합니다.
+     */
+    public void startSync(boolean initial) {
+        if (!Boolean.TRUE.equals(inProgress)) {
+            this.initialSync = initial;
+        }
+        this.inProgress = true;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    public void completeUntil(LocalDateTime completedUntil, LocalDateTime maxTradeTime, int savedCount) {
+        this.completedUntil = completedUntil;
+        if (maxTradeTime != null && (lastTradeTime == null || maxTradeTime.isAfter(lastTradeTime))) {
+            this.lastTradeTime = maxTradeTime;
+        }
+        this.pendingProfitCount = (pendingProfitCount != null ? pendingProfitCount : 0) + savedCount;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    public void finishSync() {
+        this.inProgress = false;
+        this.initialSync = false;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    public boolean hasPendingProfitCalculation() {
+        return pendingProfitCount != null && pendingProfitCount > 0;
+    }
+
+    public void markProfitCalculated() {
+        this.pendingProfitCount = 0;
+        this.updatedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,8 @@
+package com.bitreiver.fetch_server.domain.trading.enums;
+
+public enum SyncJobStatus {
+    PENDING,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
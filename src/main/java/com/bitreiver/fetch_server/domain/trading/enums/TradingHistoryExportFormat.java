@@ -0,0 +1,26 @@
+package com.bitreiver.fetch_server.domain.trading.enums;
+
+import lombok.Getter;
+
+@Getter
+public enum TradingHistoryExportFormat {
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv");
+
+    private final String contentType;
+    private final String extension;
+
+    TradingHistoryExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public static TradingHistoryExportFormat fromName(String name) {
+        for (TradingHistoryExportFormat format : values()) {
+            if (format.name().equalsIgnoreCase(name)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Invalid export format: " + name);
+    }
+}
@@ -0,0 +1,115 @@
+package com.bitreiver.fetch_server.domain.trading.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.UUID;
+
+/**
+ * 사용자·거래소 단위 PostgreSQL 트랜잭션 advisory lock
+ *
+ * 거래내역 저장, 수익률 계산, 주문 원문 재처리가 같은 사용자·거래소의 거래내역과 집계를 동시에 갱신하지 않도록 직렬화합니다.
+ * DB에서 잠그므로 다른 서버의 작업과도 함께 막히고, 잠금은 트랜잭션이 끝날 때(커밋·롤백) 풀립니다.
+ * 같은 트랜잭션에서 여러 번 잡아도 됩니다.
+ *
+ * 거래내역 동기화는 여러 트랜잭션과 거래소 API 호출에 걸쳐 실행되므로, 별도 세션 잠금(tryLockSync)으로 서버 간 중복 실행을 막습니다.
+ */
+@Slf4j
+@Repository
+@RequiredArgsConstructor
+public class TradingAdvisoryLockRepository {
+
+    private final DataSource dataSource;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * 잠금 키는 (user_id 해시, exchange_code)입니다. 해시가 겹치는 다른 사용자는 함께 직렬화될 뿐 결과에는 영향이 없습니다.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void lockUserExchange(UUID userId, Short exchangeCode) {
+        entityManager.createNativeQuery("SELECT 1 FROM pg_advisory_xact_lock(:userKey, :exchangeCode)")
+            .setParameter("userKey", userId.hashCode())
+            .setParameter("exchangeCode", exchangeCode.intValue())
+            .getSingleResult();
+    }
+
+    /**
+     * 사용자·거래소 동기화 세션 잠금을 기다리지 않고 시도합니다.
+     * 잠금은 반환된 SyncLock을 닫을 때까지 유지되며, 그동안 커넥션 하나를 점유합니다. (서버가 죽으면 커넥션이 끊기면서 풀림)
+     * 키는 bigint 하나이므로 lockUserExchange의 (int, int) 키와 겹치지 않아, 동기화 중 거래내역 저장이 이 잠금에 막히지 않습니다.
+     *
+     * @return 잠금을 잡았으면 SyncLock, 다른 세션(다른 서버 포함)이 잡고 있으면 null
+     */
+    public SyncLock tryLockSync(UUID userId, Short exchangeCode) {
+        long key = ((long) userId.hashCode() << 32) | (exchangeCode & 0xffffL);
+        Connection connection = null;
+        try {
+            connection = dataSource.getConnection();
+            connection.setAutoCommit(true);
+            if (queryLock(connection, "SELECT pg_try_advisory_lock(?)", key)) {
+                return new SyncLock(connection, key);
+            }
+            connection.close();
+            return null;
+        } catch (SQLException e) {
+            closeQuietly(connection);
+            throw new IllegalStateException("동기화 잠금 획득 실패: " + e.getMessage(), e);
+        }
+    }
+
+    private static boolean queryLock(Connection connection, String sql, long key) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setLong(1, key);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() && resultSet.getBoolean(1);
+            }
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            log.warn("closeQuietly - 커넥션 반납 실패: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * tryLockSync로 잡은 세션 잠금. close()에서 잠금을 풀고 커넥션을 반납합니다.
+     */
+    public static class SyncLock implements AutoCloseable {
+        private final Connection connection;
+        private final long key;
+
+        private SyncLock(Connection connection, long key) {
+            this.connection = connection;
+            this.key = key;
+        }
+
+        @Override
+        public void close() {
+            try {
+                queryLock(connection, "SELECT pg_advisory_unlock(?)", key);
+            } catch (SQLException e) {
+                log.warn("SyncLock.close - 동기화 잠금 해제 실패: {}", e.getMessage());
+            } finally {
+                closeQuietly(connection);
+            }
+        }
+    }
+}
@@ -1,26 +1,51 @@
 package com.bitreiver.fetch_server.domain.trading.repository;
 
 import com.bitreiver.fetch_server.domain.trading.entity.TradingHistory;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
 @Repository
-public interface TradingHistoryRepository extends JpaRepository<TradingHistory, Integer> {
+public interface TradingHistoryRepository extends JpaRepository<TradingHistory, Integer>, TradingHistoryRepositoryEntityManager {
     List<TradingHistory> findByUserIdOrderByTradeTimeDesc(UUID userId);
+    long countByUserId(UUID userId);
+    // 수익률 계산용 조회: 변경 감지(dirty checking) 대상에서 제외하고 변경분은 updateProfitLossInBulk로 반영
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
     List<TradingHistory> findByUserIdAndExchangeCodeOrderByTradeTimeAsc(UUID userId, Short exchangeCode);
     boolean existsByUserIdAndExchangeCodeAndTradeUuid(UUID userId, Short exchangeCode, String tradeUuid);
     
+    @Query("SELECT t.tradeUuid FROM TradingHistory t WHERE t.userId = :userId AND t.exchangeCode = :exchangeCode AND t.tradeUuid IN :tradeUuids")
+    List<String> findExistingTradeUuids(@Param("userId") UUID userId, 
+                                       @Param("exchangeCode") Short exchangeCode, 
+                                       @Param("tradeUuids") Collection<String> tradeUuids);
+    
+    // 주문 원문 재처리 시 다시 저장할 거래 삭제 (trade_time 범위로 파티션을 좁힘)
+    @Modifying
+    @Query("DELETE FROM TradingHistory t WHERE t.userId = :userId AND t.exchangeCode = :exchangeCode " +
+           "AND t.tradeTime BETWEEN :fromTime AND :toTime AND t.tradeUuid IN :tradeUuids")
+    int deleteByTradeUuids(@Param("userId") UUID userId, 
+                           @Param("exchangeCode") Short exchangeCode, 
+                           @Param("fromTime") LocalDateTime fromTime,
+                           @Param("toTime") LocalDateTime toTime,
+                           @Param("tradeUuids") Collection<String> tradeUuids);
+    
     @Modifying
     @Transactional
-    @Query("UPDATE TradingHistory t SET t.profitLossRate = :profitLossRate, t.avgBuyPrice = :avgBuyPrice WHERE t.id = :id")
+    @Query("UPDATE TradingHistory t SET t.profitLossRate = :profitLossRate, t.avgBuyPrice = :avgBuyPrice " +
+           "WHERE t.id = :id AND t.tradeTime = :tradeTime")
     void updateProfitLoss(@Param("id") Integer id, 
+                         @Param("tradeTime") LocalDateTime tradeTime,
                          @Param("profitLossRate") java.math.BigDecimal profitLossRate, 
                          @Param("avgBuyPrice") java.math.BigDecimal avgBuyPrice);
 }
@@ -0,0 +1,19 @@
+package com.bitreiver.fetch_server.domain.trading.repository;
+
+import com.bitreiver.fetch_server.domain.trading.entity.TradingHistory;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+public interface TradingHistoryRepositoryEntityManager {
+    List<TradingHistory> insertIgnoringDuplicates(List<TradingHistory> tradingHistories);
+    int updateProfitLossInBulk(List<TradingHistory> tradingHistories);
+    Stream<TradingHistory> streamForProfitCalculation(UUID userId, Short exchangeCode, Integer afterId);
+    List<TradingHistory> findExportPage(UUID userId, Short exchangeCode,
+                                        LocalDateTime cursorTradeTime, Integer cursorId, int limit);
+    List<TradingHistory> findPageByKeyset(UUID userId, Short exchangeCode, Integer coinId,
+                                          LocalDateTime from, LocalDateTime to,
+                                          LocalDateTime cursorTradeTime, Integer cursorId, int limit);
+}
@@ -0,0 +1,376 @@
+package com.bitreiver.fetch_server.domain.trading.repository;
+
+import com.bitreiver.fetch_server.domain.trading.entity.TradingHistory;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.PersistenceUnit;
+import jakarta.persistence.Query;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+@Repository
+public class TradingHistoryRepositoryEntityManagerImpl implements TradingHistoryRepositoryEntityManager {
+
+    /** 한 INSERT 문에 담는 행 수 (행당 파라미터 11개, PostgreSQL 파라미터 한도 32767개 이내) */
+    private static final int INSERT_CHUNK_SIZE = 500;
+
+    private static final String INSERT_COLUMNS =
+        "user_id, coin_id, exchange_code, trade_uuid, trade_type, price, quantity, total_price, fee, trade_time, created_at";
+
+    private static final String INSERT_PREFIX =
+        "INSERT INTO trading_histories (" + INSERT_COLUMNS + ") " +
+        "SELECT v.* FROM (VALUES ";
+
+    /** VALUES 각 행의 컬럼 타입 (NULL 값도 타입을 알 수 있도록 명시적으로 캐스팅) */
+    private static final String[] INSERT_COLUMN_TYPES = {
+        "uuid", "integer", "smallint", "varchar", "smallint", "numeric", "numeric", "numeric", "numeric", "timestamp", "timestamp"
+    };
+
+    /** 일반 테이블: uq_user_exchange_trade_uuid 유니크 제약으로 중복을 건너뜀 */
+    private static final String INSERT_SUFFIX =
+        ") AS v(" + INSERT_COLUMNS + ") " +
+        "ON CONFLICT (user_id, exchange_code, trade_uuid) DO NOTHING " +
+        "RETURNING id, user_id, exchange_code, trade_uuid";
+
+    /**
+     * 파티션 테이블: 유니크 제약이 trade_time을 포함하므로, 같은 거래의 trade_time이 달라지면 ON CONFLICT만으로는 걸러지지 않습니다.
+     * (user_id, exchange_code, trade_uuid)로 NOT EXISTS 확인을 함께 합니다.
+     * 전환 중(아직 일반 테이블)에도 쓸 수 있도록 ON CONFLICT는 대상 없이 둡니다.
+     */
+    private static final String PARTITIONED_INSERT_SUFFIX =
+        ") AS v(" + INSERT_COLUMNS + ") " +
+        "WHERE NOT EXISTS (SELECT 1 FROM trading_histories t " +
+        "WHERE t.user_id = v.user_id AND t.exchange_code = v.exchange_code AND t.trade_uuid = v.trade_uuid) " +
+        "ON CONFLICT DO NOTHING " +
+        "RETURNING id, user_id, exchange_code, trade_uuid";
+
+    /** 한 UPDATE 문에 담는 행 수 (행당 파라미터 4개) */
+    private static final int UPDATE_CHUNK_SIZE = 1000;
+
+    private static final String UPDATE_PREFIX =
+        "UPDATE trading_histories AS t " +
+        "SET profit_loss_rate = v.profit_loss_rate, avg_buy_price = v.avg_buy_price " +
+        "FROM (VALUES ";
+
+    private static final String UPDATE_SUFFIX =
+        ") AS v(id, trade_time, profit_loss_rate, avg_buy_price) WHERE t.id = v.id AND t.trade_time = v.trade_time";
+
+    /** 스트리밍 조회의 JDBC fetch size (PostgreSQL은 트랜잭션 안에서 서버 측 커서로 이 크기만큼씩 읽음) */
+    private static final int STREAM_FETCH_SIZE = 1000;
+
+    private static final String PROFIT_SELECT =
+        "SELECT t.id, t.coinId, t.tradeType, t.price, t.quantity, t.tradeTime, t.profitLossRate, t.avgBuyPrice, " +
+        "t.totalPrice, t.fee " +
+        "FROM TradingHistory t WHERE t.userId = :userId AND t.exchangeCode = :exchangeCode";
+
+    private static final String PROFIT_ORDER_BY = " ORDER BY t.tradeTime ASC, t.id ASC";
+
+    private static final String EXPORT_SELECT =
+        "SELECT t.id, t.coinId, t.exchangeCode, t.tradeUuid, t.tradeType, t.price, t.quantity, t.totalPrice, " +
+        "t.fee, t.tradeTime, t.profitLossRate, t.avgBuyPrice, t.createdAt " +
+        "FROM TradingHistory t WHERE t.userId = :userId";
+
+    private static final String EXPORT_ORDER_BY = " ORDER BY t.tradeTime DESC, t.id DESC";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @PersistenceUnit
+    private EntityManagerFactory entityManagerFactory;
+
+    /** trading_histories를 trade_time 파티션 테이블로 운영하는지 여부 (TradingHistorySchemaScheduler와 같은 설정) */
+    @Value("${trading.history.schema.partitioned:false}")
+    private boolean partitioned;
+
+    /**
+     * 다중 행 INSERT ... ON CONFLICT DO NOTHING으로 묶음 단위 저장하고, 실제로 삽입된 행만 ID와 함께 반환합니다.
+     * (user_id, exchange_code, trade_uuid)가 이미 있거나 목록 안에서 앞서 나온 행은 건너뜁니다.
+     * 파티션 테이블이면 trade_uuid 유일성을 DB 제약으로 보장할 수 없으므로 WHERE NOT EXISTS로 확인하며,
+     * 이때는 동시에 같은 거래를 저장하지 않도록 호출하는 쪽에서 사용자·거래소 advisory lock을 잡아야 합니다.
+     */
+    @Override
+    public List<TradingHistory> insertIgnoringDuplicates(List<TradingHistory> tradingHistories) {
+        Map<String, TradingHistory> unique = new LinkedHashMap<>();
+        for (TradingHistory history : tradingHistories) {
+            unique.putIfAbsent(tradeKey(history.getUserId(), history.getExchangeCode(), history.getTradeUuid()), history);
+        }
+        List<TradingHistory> distinct = new ArrayList<>(unique.values());
+
+        List<TradingHistory> inserted = new ArrayList<>();
+        for (int from = 0; from < distinct.size(); from += INSERT_CHUNK_SIZE) {
+            int to = Math.min(from + INSERT_CHUNK_SIZE, distinct.size());
+            inserted.addAll(insertChunk(distinct.subList(from, to)));
+        }
+        return inserted;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<TradingHistory> insertChunk(List<TradingHistory> chunk) {
+        String suffix = partitioned ? PARTITIONED_INSERT_SUFFIX : INSERT_SUFFIX;
+        StringBuilder sql = new StringBuilder(INSERT_PREFIX.length() + chunk.size() * 200 + suffix.length());
+        sql.append(INSERT_PREFIX);
+        int position = 1;
+        for (int i = 0; i < chunk.size(); i++) {
+            if (i > 0) {
+                sql.append(',');
+            }
+            sql.append('(');
+            for (int column = 0; column < INSERT_COLUMN_TYPES.length; column++) {
+                if (column > 0) {
+                    sql.append(',');
+                }
+                sql.append("CAST(?").append(position++).append(" AS ").append(INSERT_COLUMN_TYPES[column]).append(')');
+            }
+            sql.append(')');
+        }
+        sql.append(suffix);
+
+        Query query = entityManager.createNativeQuery(sql.toString());
+        position = 1;
+        Map<String, TradingHistory> historiesByKey = new HashMap<>();
+        for (TradingHistory history : chunk) {
+            query.setParameter(position++, history.getUserId());
+            query.setParameter(position++, history.getCoinId());
+            query.setParameter(position++, history.getExchangeCode());
+            query.setParameter(position++, history.getTradeUuid());
+            query.setParameter(position++, history.getTradeType());
+            query.setParameter(position++, history.getPrice());
+            query.setParameter(position++, history.getQuantity());
+            query.setParameter(position++, history.getTotalPrice());
+            query.setParameter(position++, history.getFee() != null ? history.getFee() : BigDecimal.ZERO);
+            query.setParameter(position++, history.getTradeTime());
+            query.setParameter(position++, history.getCreatedAt());
+            historiesByKey.put(tradeKey(history.getUserId(), history.getExchangeCode(), history.getTradeUuid()), history);
+        }
+
+        // RETURNING 행 순서는 VALUES 순서와 같다는 보장이 없고 삽입되지 않은 행은 빠지므로, 거래 키로 입력 행을 찾음
+        List<Object[]> rows = query.getResultList();
+        List<TradingHistory> inserted = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            TradingHistory history = historiesByKey.get(
+                tradeKey((UUID) row[1], ((Number) row[2]).shortValue(), (String) row[3]));
+            if (history != null) {
+                inserted.add(history.withId(((Number) row[0]).intValue()));
+            }
+        }
+        return inserted;
+    }
+
+    private static String tradeKey(UUID userId, Short exchangeCode, String tradeUuid) {
+        return userId + ":" + exchangeCode + ":" + tradeUuid;
+    }
+
+    /**
+     * 수익률(profit_loss_rate)과 평균 매수가(avg_buy_price)를 묶음 단위 UPDATE ... FROM (VALUES ...)로 반영합니다.
+     * 파티션 테이블에서 해당 월 파티션만 찾도록 id와 함께 trade_time으로 행을 지정합니다.
+     *
+     * @return 갱신된 행 수
+     */
+    @Override
+    public int updateProfitLossInBulk(List<TradingHistory> tradingHistories) {
+        int updatedCount = 0;
+        for (int from = 0; from < tradingHistories.size(); from += UPDATE_CHUNK_SIZE) {
+            int to = Math.min(from + UPDATE_CHUNK_SIZE, tradingHistories.size());
+            updatedCount += updateProfitLossChunk(tradingHistories.subList(from, to));
+        }
+        return updatedCount;
+    }
+
+    private int updateProfitLossChunk(List<TradingHistory> chunk) {
+        StringBuilder sql = new StringBuilder(UPDATE_PREFIX.length() + chunk.size() * 80 + UPDATE_SUFFIX.length());
+        sql.append(UPDATE_PREFIX);
+        int position = 1;
+        for (int i = 0; i < chunk.size(); i++) {
+            if (i > 0) {
+                sql.append(',');
+            }
+            // NULL 값도 컬럼 타입을 알 수 있도록 명시적으로 캐스팅
+            sql.append("(CAST(?").append(position++).append(" AS integer),")
+                .append("CAST(?").append(position++).append(" AS timestamp),")
+                .append("CAST(?").append(position++).append(" AS numeric),")
+                .append("CAST(?").append(position++).append(" AS numeric))");
+        }
+        sql.append(UPDATE_SUFFIX);
+
+        Query query = entityManager.createNativeQuery(sql.toString());
+        position = 1;
+        for (TradingHistory history : chunk) {
+            query.setParameter(position++, history.getId());
+            query.setParameter(position++, history.getTradeTime());
+            query.setParameter(position++, history.getProfitLossRate());
+            query.setParameter(position++, history.getAvgBuyPrice());
+        }
+        return query.executeUpdate();
+    }
+
+    /**
+     * 수익률 계산에 필요한 컬럼만 거래 시각 순으로 스트리밍 조회합니다.
+     * 엔티티가 아닌 스칼라 조회이므로 영속성 컨텍스트에 쌓이지 않고, 반환되는 TradingHistory는 비영속 객체입니다.
+     * 반환된 Stream은 트랜잭션 안에서 사용하고 닫아야 합니다.
+     *
+     * @param afterId 이 ID보다 큰 거래만 조회, null이면 전체
+     */
+    @Override
+    public Stream<TradingHistory> streamForProfitCalculation(UUID userId, Short exchangeCode, Integer afterId) {
+        String jpql = afterId != null
+            ? PROFIT_SELECT + " AND t.id > :afterId" + PROFIT_ORDER_BY
+            : PROFIT_SELECT + PROFIT_ORDER_BY;
+
+        TypedQuery<Object[]> query = entityManager.createQuery(jpql, Object[].class)
+            .setParameter("userId", userId)
+            .setParameter("exchangeCode", exchangeCode)
+            .setHint(HibernateHints.HINT_FETCH_SIZE, STREAM_FETCH_SIZE)
+            .setHint(HibernateHints.HINT_READ_ONLY, true);
+        if (afterId != null) {
+            query.setParameter("afterId", afterId);
+        }
+
+        return query.getResultStream().map(row -> TradingHistory.builder()
+            .id((Integer) row[0])
+            .userId(userId)
+            .exchangeCode(exchangeCode)
+            .coinId((Integer) row[1])
+            .tradeType((Short) row[2])
+            .price((BigDecimal) row[3])
+            .quantity((BigDecimal) row[4])
+            .tradeTime((LocalDateTime) row[5])
+            .profitLossRate((BigDecimal) row[6])
+            .avgBuyPrice((BigDecimal) row[7])
+            .totalPrice((BigDecimal) row[8])
+            .fee((BigDecimal) row[9])
+            .build());
+    }
+
+    /**
+     * 내보내기용으로 거래내역을 거래 일시 최신순으로 한 페이지씩 조회합니다. (keyset: trade_time, id)
+     * 페이지마다 EntityManager를 새로 열고 닫으므로, 긴 다운로드 중에도 DB 커넥션은 페이지를 읽는 동안만 사용하고
+     * 요청 스레드에 묶인 EntityManager(open-in-view)나 트랜잭션과 관계없이 바로 반납됩니다.
+     *
+     * @param exchangeCode 거래소 코드 필터, null이면 전체
+     * @param cursorTradeTime 이전 페이지 마지막 행의 trade_time, null이면 첫 페이지
+     * @param cursorId 이전 페이지 마지막 행의 id
+     */
+    @Override
+    public List<TradingHistory> findExportPage(UUID userId, Short exchangeCode,
+                                               LocalDateTime cursorTradeTime, Integer cursorId, int limit) {
+        StringBuilder jpql = new StringBuilder(EXPORT_SELECT);
+        if (exchangeCode != null) {
+            jpql.append(" AND t.exchangeCode = :exchangeCode");
+        }
+        if (cursorTradeTime != null && cursorId != null) {
+            jpql.append(" AND t.tradeTime <= :cursorTradeTime")
+                .append(" AND (t.tradeTime < :cursorTradeTime OR t.id < :cursorId)");
+        }
+        jpql.append(EXPORT_ORDER_BY);
+
+        EntityManager pageEntityManager = entityManagerFactory.createEntityManager();
+        try {
+            TypedQuery<Object[]> query = pageEntityManager.createQuery(jpql.toString(), Object[].class)
+                .setParameter("userId", userId)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .setMaxResults(limit);
+            if (exchangeCode != null) {
+                query.setParameter("exchangeCode", exchangeCode);
+            }
+            if (cursorTradeTime != null && cursorId != null) {
+                query.setParameter("cursorTradeTime", cursorTradeTime);
+                query.setParameter("cursorId", cursorId);
+            }
+
+            List<Object[]> rows = query.getResultList();
+            List<TradingHistory> histories = new ArrayList<>(rows.size());
+            for (Object[] row : rows) {
+                histories.add(TradingHistory.builder()
+                    .id((Integer) row[0])
+                    .userId(userId)
+                    .coinId((Integer) row[1])
+                    .exchangeCode((Short) row[2])
+                    .tradeUuid((String) row[3])
+                    .tradeType((Short) row[4])
+                    .price((BigDecimal) row[5])
+                    .quantity((BigDecimal) row[6])
+                    .totalPrice((BigDecimal) row[7])
+                    .fee((BigDecimal) row[8])
+                    .tradeTime((LocalDateTime) row[9])
+                    .profitLossRate((BigDecimal) row[10])
+                    .avgBuyPrice((BigDecimal) row[11])
+                    .createdAt((LocalDateTime) row[12])
+                    .build());
+            }
+            return histories;
+        } finally {
+            pageEntityManager.close();
+        }
+    }
+
+    /**
+     * 거래 일시 최신순((trade_time, id) 내림차순) 키셋 페이지 조회
+     * 커서가 있으면 커서 행보다 뒤(더 과거)의 행만 조회하므로 OFFSET 없이 idx_user_trade_time 범위 스캔으로 읽습니다.
+     *
+     * @param exchangeCode    거래소 코드 필터, null이면 전체
+     * @param coinId          코인 ID 필터, null이면 전체
+     * @param from            거래 일시 하한(포함), null이면 제한 없음
+     * @param to              거래 일시 상한(미포함), null이면 제한 없음
+     * @param cursorTradeTime 이전 페이지 마지막 행의 trade_time, 첫 페이지는 null
+     * @param cursorId        이전 페이지 마지막 행의 id, 첫 페이지는 null
+     */
+    @Override
+    public List<TradingHistory> findPageByKeyset(UUID userId, Short exchangeCode, Integer coinId,
+                                                 LocalDateTime from, LocalDateTime to,
+                                                 LocalDateTime cursorTradeTime, Integer cursorId, int limit) {
+        StringBuilder jpql = new StringBuilder("SELECT t FROM TradingHistory t WHERE t.userId = :userId");
+        if (exchangeCode != null) {
+            jpql.append(" AND t.exchangeCode = :exchangeCode");
+        }
+        if (coinId != null) {
+            jpql.append(" AND t.coinId = :coinId");
+        }
+        if (from != null) {
+            jpql.append(" AND t.tradeTime >= :from");
+        }
+        if (to != null) {
+            jpql.append(" AND t.tradeTime < :to");
+        }
+        if (cursorTradeTime != null && cursorId != null) {
+            // 앞의 조건은 인덱스 범위 조건, 괄호 안은 같은 trade_time 안에서 id로 이어 읽기 위한 조건
+            jpql.append(" AND t.tradeTime <= :cursorTradeTime")
+                .append(" AND (t.tradeTime < :cursorTradeTime OR t.id < :cursorId)");
+        }
+        jpql.append(" ORDER BY t.tradeTime DESC, t.id DESC");
+
+        TypedQuery<TradingHistory> query = entityManager.createQuery(jpql.toString(), TradingHistory.class)
+            .setParameter("userId", userId)
+            .setHint(HibernateHints.HINT_READ_ONLY, true)
+            .setMaxResults(limit);
+        if (exchangeCode != null) {
+            query.setParameter("exchangeCode", exchangeCode);
+        }
+        if (coinId != null) {
+            query.setParameter("coinId", coinId);
+        }
+        if (from != null) {
+            query.setParameter("from", from);
+        }
+        if (to != null) {
+            query.setParameter("to", to);
+        }
+        if (cursorTradeTime != null && cursorId != null) {
+            query.setParameter("cursorTradeTime", cursorTradeTime);
+            query.setParameter("cursorId", cursorId);
+        }
+        return query.getResultList();
+    }
+}
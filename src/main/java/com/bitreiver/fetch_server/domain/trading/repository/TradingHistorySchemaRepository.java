@@ -0,0 +1,336 @@
+package com.bitreiver.fetch_server.domain.trading.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * trading_histories 테이블의 스키마(인덱스, trade_time 월 단위 범위 파티션) 관리
+ *
+ * 엔티티의 @Index로 표현할 수 없는 INCLUDE 인덱스와 파티션 DDL을 PostgreSQL 네이티브 쿼리로 실행합니다.
+ * 인덱스 생성·삭제는 테이블 쓰기를 막지 않도록 CONCURRENTLY로 실행하며, CONCURRENTLY는 트랜잭션 안에서 실행할 수 없으므로
+ * JdbcTemplate(auto-commit)을 사용합니다.
+ */
+@Slf4j
+@Repository
+@RequiredArgsConstructor
+public class TradingHistorySchemaRepository {
+
+    private static final String TABLE = "trading_histories";
+    private static final String LEGACY_TABLE = "trading_histories_legacy";
+    private static final String DEFAULT_PARTITION = "trading_histories_default";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    /** 파티션 전환 중 행을 복사해 두는 파티션 테이블. 전환이 끝나면 trading_histories로 이름이 바뀜 */
+    private static final String SHADOW_TABLE = "trading_histories_partitioned";
+    /** 전환 전까지 SHADOW_TABLE의 인덱스·제약 이름에 붙이는 접미사 (인덱스 이름은 스키마 전체에서 유일해야 함) */
+    private static final String SHADOW_SUFFIX = "_partitioned";
+    /** 전환 중 trading_histories의 INSERT/UPDATE/DELETE를 SHADOW_TABLE에 그대로 반영하는 트리거 */
+    private static final String MIRROR_TRIGGER = "trading_histories_mirror";
+
+    /**
+     * 커버링 인덱스 이름. 정의를 바꿀 때는 이름의 버전을 올리고 이전 이름을 PREVIOUS_COVERING_INDEXES에 추가합니다.
+     * (기존 인덱스를 그대로 두고 새 인덱스를 만든 뒤 이전 인덱스를 지우므로 교체 중에도 조회가 인덱스를 사용함)
+     */
+    private static final String COVERING_INDEX = "idx_user_exchange_trade_time_v3";
+    private static final List<String> PREVIOUS_COVERING_INDEXES =
+        List.of("idx_user_exchange_trade_time", "idx_user_exchange_trade_time_v2");
+
+    /**
+     * 수익률 계산 조회(user_id, exchange_code 조건 + trade_time, id 순서)를 위한 커버링 인덱스
+     * 수익률 계산이 갱신하는 profit_loss_rate, avg_buy_price는 넣지 않아 해당 UPDATE가 HOT 갱신될 수 있게 합니다.
+     */
+    private static final String COVERING_INDEX_COLUMNS =
+        " (user_id, exchange_code, trade_time, id) INCLUDE (coin_id, trade_type, price, quantity, total_price, fee)";
+
+    /** idx_user_trade_time, 유니크 제약, 커버링 인덱스와 겹치거나 단독 조건으로 쓰이지 않는 단일 컬럼 인덱스 */
+    private static final List<String> REDUNDANT_INDEXES = List.of("idx_user_id", "idx_trade_time", "idx_exchange_code");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * 커버링 인덱스를 CREATE INDEX CONCURRENTLY로 만들고, 새 인덱스가 유효해지면 이전 버전 인덱스를 지웁니다.
+     * 이전 실행이 중단되어 유효하지 않은(indisvalid=false) 인덱스가 남아 있으면 지우고 다시 만듭니다.
+     *
+     * @return 인덱스를 새로 만들었으면 true
+     */
+    public boolean ensureCoveringIndex() {
+        boolean partitioned = isPartitioned();
+        boolean created = partitioned ? ensurePartitionedCoveringIndex() : ensureIndexConcurrently(COVERING_INDEX, TABLE);
+        for (String index : PREVIOUS_COVERING_INDEXES) {
+            // 파티션 테이블의 인덱스는 CONCURRENTLY로 지울 수 없음
+            jdbcTemplate.execute("DROP INDEX " + (partitioned ? "" : "CONCURRENTLY ") + "IF EXISTS " + index);
+        }
+        return created;
+    }
+
+    /**
+     * 파티션 테이블은 부모 인덱스를 ON ONLY로 만든 뒤(부모 테이블만 잠깐 잠금), 파티션마다 CONCURRENTLY로 만든 인덱스를 연결합니다.
+     * 모든 파티션의 인덱스가 연결되면 부모 인덱스가 유효해집니다.
+     */
+    private boolean ensurePartitionedCoveringIndex() {
+        if (Boolean.TRUE.equals(indexValidity(COVERING_INDEX))) {
+            return false;
+        }
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS " + COVERING_INDEX + " ON ONLY " + TABLE + COVERING_INDEX_COLUMNS);
+        List<String> partitions = jdbcTemplate.queryForList(
+            "SELECT inhrelid::regclass::text FROM pg_inherits WHERE inhparent = to_regclass(?)", String.class, TABLE);
+        for (String partition : partitions) {
+            String partitionIndex = partition + "_" + COVERING_INDEX;
+            ensureIndexConcurrently(partitionIndex, partition);
+            jdbcTemplate.execute("ALTER INDEX " + COVERING_INDEX + " ATTACH PARTITION " + partitionIndex);
+        }
+        return true;
+    }
+
+    private boolean ensureIndexConcurrently(String index, String table) {
+        Boolean valid = indexValidity(index);
+        if (Boolean.TRUE.equals(valid)) {
+            return false;
+        }
+        if (valid != null) {
+            log.warn("ensureIndexConcurrently - 유효하지 않은 인덱스를 지우고 다시 만듭니다: {}", index);
+            jdbcTemplate.execute("DROP INDEX CONCURRENTLY IF EXISTS " + index);
+        }
+        jdbcTemplate.execute("CREATE INDEX CONCURRENTLY IF NOT EXISTS " + index + " ON " + table + COVERING_INDEX_COLUMNS);
+        return true;
+    }
+
+    /**
+     * @return 인덱스가 없으면 null, 있으면 pg_index.indisvalid
+     */
+    private Boolean indexValidity(String index) {
+        List<Boolean> rows = jdbcTemplate.queryForList(
+            "SELECT i.indisvalid FROM pg_index i WHERE i.indexrelid = to_regclass(?)", Boolean.class, index);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    public void dropRedundantIndexes() {
+        for (String index : REDUNDANT_INDEXES) {
+            jdbcTemplate.execute("DROP INDEX CONCURRENTLY IF EXISTS " + index);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public boolean isPartitioned() {
+        List<?> rows = entityManager.createNativeQuery(
+                "SELECT c.relkind FROM pg_class c WHERE c.oid = to_regclass(:table)")
+            .setParameter("table", TABLE)
+            .getResultList();
+        return !rows.isEmpty() && "p".equals(String.valueOf(rows.get(0)));
+    }
+
+    /**
+     * 파티션 전환 1단계: 같은 컬럼의 파티션 테이블(trading_histories_partitioned)과 월 파티션을 만들고,
+     * 이후 trading_histories의 변경이 그대로 반영되도록 트리거를 겁니다.
+     *
+     * - 파티션 키가 포함되어야 하므로 기본 키는 (id, trade_time), 유니크 제약은 (user_id, exchange_code, trade_uuid, trade_time)이 됩니다.
+     * - 비어 있는 테이블에 인덱스를 미리 만들어 두므로 복사 중 인덱스 생성으로 인한 잠금이 없습니다.
+     * - 트리거 생성 시에만 trading_histories 쓰기가 잠깐 대기합니다. 이미 준비되어 있으면(재시작) 아무것도 하지 않습니다.
+     *
+     * @param monthsAhead 현재 월 이후로 미리 만들어 둘 월 파티션 수
+     * @return 새로 준비했으면 true
+     */
+    @Transactional
+    public boolean preparePartitionedCopy(int monthsAhead) {
+        if (isPartitioned() || relationExists(SHADOW_TABLE)) {
+            return false;
+        }
+
+        Object oldest = entityManager.createNativeQuery("SELECT MIN(trade_time) FROM " + TABLE).getSingleResult();
+        entityManager.createNativeQuery(
+            "CREATE TABLE " + SHADOW_TABLE + " (LIKE " + TABLE + " INCLUDING DEFAULTS INCLUDING IDENTITY INCLUDING CONSTRAINTS) " +
+            "PARTITION BY RANGE (trade_time)").executeUpdate();
+        entityManager.createNativeQuery(
+            "ALTER TABLE " + SHADOW_TABLE + " ADD CONSTRAINT trading_histories_pkey" + SHADOW_SUFFIX +
+            " PRIMARY KEY (id, trade_time)").executeUpdate();
+        entityManager.createNativeQuery(
+            "ALTER TABLE " + SHADOW_TABLE + " ADD CONSTRAINT uq_user_exchange_trade_uuid_time" + SHADOW_SUFFIX +
+            " UNIQUE (user_id, exchange_code, trade_uuid, trade_time)").executeUpdate();
+
+        YearMonth current = YearMonth.now();
+        YearMonth from = oldest != null ? YearMonth.from(toLocalDateTime(oldest)) : current;
+        if (from.isAfter(current)) {
+            from = current;
+        }
+        for (YearMonth month = from; !month.isAfter(current.plusMonths(monthsAhead)); month = month.plusMonths(1)) {
+            createMonthlyPartitionIfAbsent(SHADOW_TABLE, month);
+        }
+        entityManager.createNativeQuery(
+            "CREATE TABLE IF NOT EXISTS " + DEFAULT_PARTITION + " PARTITION OF " + SHADOW_TABLE + " DEFAULT").executeUpdate();
+
+        entityManager.createNativeQuery(
+            "CREATE INDEX idx_user_trade_time" + SHADOW_SUFFIX + " ON " + SHADOW_TABLE + " (user_id, trade_time)").executeUpdate();
+        entityManager.createNativeQuery(
+            "CREATE INDEX idx_coin_id" + SHADOW_SUFFIX + " ON " + SHADOW_TABLE + " (coin_id)").executeUpdate();
+        entityManager.createNativeQuery(
+            "CREATE INDEX " + COVERING_INDEX + SHADOW_SUFFIX + " ON " + SHADOW_TABLE + COVERING_INDEX_COLUMNS).executeUpdate();
+
+        // UPDATE는 기존 행을 지우고 새 행을 넣어 trade_time이 바뀌어도 올바른 파티션으로 옮겨지게 함
+        entityManager.createNativeQuery(
+            "CREATE FUNCTION " + MIRROR_TRIGGER + "() RETURNS trigger LANGUAGE plpgsql AS $$ " +
+            "BEGIN " +
+            "IF TG_OP IN ('UPDATE', 'DELETE') THEN " +
+            "DELETE FROM " + SHADOW_TABLE + " WHERE id = OLD.id AND trade_time = OLD.trade_time; " +
+            "END IF; " +
+            "IF TG_OP IN ('INSERT', 'UPDATE') THEN " +
+            "INSERT INTO " + SHADOW_TABLE + " SELECT NEW.* ON CONFLICT DO NOTHING; " +
+            "END IF; " +
+            "RETURN NULL; " +
+            "END $$").executeUpdate();
+        entityManager.createNativeQuery(
+            "CREATE TRIGGER " + MIRROR_TRIGGER + " AFTER INSERT OR UPDATE OR DELETE ON " + TABLE +
+            " FOR EACH ROW EXECUTE FUNCTION " + MIRROR_TRIGGER + "()").executeUpdate();
+        return true;
+    }
+
+    /**
+     * 파티션 전환 2단계: id 순서로 batchSize건씩 trading_histories_partitioned에 복사합니다. 묶음마다 별도 트랜잭션으로 커밋합니다.
+     * 복사하는 동안만 원본 행을 FOR SHARE로 잠가, 복사 중인 행의 변경은 복사가 끝난 뒤 트리거로 반영되게 합니다.
+     * 이미 트리거로 반영된 행은 건너뜁니다.
+     *
+     * @return 이번에 복사한 마지막 id, 더 복사할 행이 없으면 null
+     */
+    @Transactional
+    public Integer copyToPartitioned(int afterId, int batchSize) {
+        Object lastId = entityManager.createNativeQuery(
+                "WITH source AS (" +
+                "SELECT * FROM " + TABLE + " WHERE id > :afterId ORDER BY id LIMIT :batchSize FOR SHARE), " +
+                "copied AS (INSERT INTO " + SHADOW_TABLE + " SELECT * FROM source ON CONFLICT DO NOTHING) " +
+                "SELECT MAX(id) FROM source")
+            .setParameter("afterId", afterId)
+            .setParameter("batchSize", batchSize)
+            .getSingleResult();
+        return lastId != null ? ((Number) lastId).intValue() : null;
+    }
+
+    /**
+     * 파티션 전환 3단계: 짧은 ACCESS EXCLUSIVE 잠금 안에서 트리거를 지우고 테이블 이름을 바꿉니다. 행 복사는 하지 않습니다.
+     * 기존 테이블은 trading_histories_legacy로 이름을 바꿔 남겨 둡니다. (인덱스 이름에는 _legacy를 붙임)
+     *
+     * @return 전환했으면 true, 이미 파티션 테이블이면 false
+     */
+    @Transactional
+    public boolean swapInPartitioned() {
+        entityManager.createNativeQuery("LOCK TABLE " + TABLE + " IN ACCESS EXCLUSIVE MODE").executeUpdate();
+        if (isPartitioned()) {
+            return false;
+        }
+
+        entityManager.createNativeQuery("DROP TRIGGER " + MIRROR_TRIGGER + " ON " + TABLE).executeUpdate();
+        entityManager.createNativeQuery("DROP FUNCTION " + MIRROR_TRIGGER + "()").executeUpdate();
+
+        entityManager.createNativeQuery("ALTER TABLE " + TABLE + " RENAME TO " + LEGACY_TABLE).executeUpdate();
+        for (Object index : indexNames(LEGACY_TABLE)) {
+            entityManager.createNativeQuery(
+                "ALTER INDEX " + quote(index.toString()) + " RENAME TO " + quote(index + "_legacy")).executeUpdate();
+        }
+        entityManager.createNativeQuery("ALTER TABLE " + SHADOW_TABLE + " RENAME TO " + TABLE).executeUpdate();
+        for (Object index : indexNames(TABLE)) {
+            String name = index.toString();
+            if (name.endsWith(SHADOW_SUFFIX)) {
+                entityManager.createNativeQuery(
+                    "ALTER INDEX " + quote(name) + " RENAME TO " +
+                    quote(name.substring(0, name.length() - SHADOW_SUFFIX.length()))).executeUpdate();
+            }
+        }
+
+        // serial 컬럼이면 기존 시퀀스를 그대로 쓰므로, 이전 테이블을 지워도 남도록 소유 테이블을 옮김
+        if (serialSequence(TABLE) == null) {
+            Object legacySequence = serialSequence(LEGACY_TABLE);
+            if (legacySequence != null) {
+                entityManager.createNativeQuery(
+                    "ALTER SEQUENCE " + legacySequence + " OWNED BY " + TABLE + ".id").executeUpdate();
+            }
+        }
+        // 복사한 id 이후부터 발급되도록 시퀀스 위치 조정
+        entityManager.createNativeQuery(
+            "SELECT setval(pg_get_serial_sequence('" + TABLE + "', 'id'), " +
+            "(SELECT COALESCE(MAX(id), 0) + 1 FROM " + TABLE + "), false)").getSingleResult();
+        return true;
+    }
+
+    /**
+     * 현재 월부터 monthsAhead개월 뒤까지의 월 파티션이 없으면 만듭니다.
+     * 파티션 전환 중이면 trading_histories_partitioned에 만듭니다.
+     *
+     * @return 새로 만든 파티션 수
+     */
+    @Transactional
+    public int ensureMonthlyPartitions(int monthsAhead) {
+        String parent = isPartitioned() ? TABLE : relationExists(SHADOW_TABLE) ? SHADOW_TABLE : null;
+        if (parent == null) {
+            return 0;
+        }
+        YearMonth current = YearMonth.now();
+        int created = 0;
+        for (YearMonth month = current; !month.isAfter(current.plusMonths(monthsAhead)); month = month.plusMonths(1)) {
+            if (createMonthlyPartitionIfAbsent(parent, month)) {
+                created++;
+            }
+        }
+        return created;
+    }
+
+    /**
+     * 파티션 이름은 부모 테이블과 관계없이 trading_histories_pYYYY_MM입니다. (전환 후 이름을 바꾸지 않아도 되도록)
+     */
+    private boolean createMonthlyPartitionIfAbsent(String parent, YearMonth month) {
+        String partition = TABLE + "_p" + month.format(PARTITION_SUFFIX);
+        if (relationExists(partition)) {
+            return false;
+        }
+
+        LocalDateTime start = month.atDay(1).atStartOfDay();
+        LocalDateTime end = month.plusMonths(1).atDay(1).atStartOfDay();
+        entityManager.createNativeQuery(
+            "CREATE TABLE " + partition + " PARTITION OF " + parent +
+            " FOR VALUES FROM ('" + start + "') TO ('" + end + "')").executeUpdate();
+        log.info("createMonthlyPartitionIfAbsent - 거래내역 파티션 생성: {} [{}, {})", partition, start, end);
+        return true;
+    }
+
+    private boolean relationExists(String relation) {
+        List<?> existing = entityManager.createNativeQuery("SELECT CAST(to_regclass(:relation) AS text)")
+            .setParameter("relation", relation)
+            .getResultList();
+        return !existing.isEmpty() && existing.get(0) != null;
+    }
+
+    private List<?> indexNames(String table) {
+        return entityManager.createNativeQuery(
+                "SELECT indexname FROM pg_indexes WHERE schemaname = current_schema() AND tablename = :table")
+            .setParameter("table", table)
+            .getResultList();
+    }
+
+    private Object serialSequence(String table) {
+        return entityManager.createNativeQuery("SELECT pg_get_serial_sequence(:table, 'id')")
+            .setParameter("table", table)
+            .getSingleResult();
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime();
+        }
+        return (LocalDateTime) value;
+    }
+
+    private static String quote(String identifier) {
+        return '"' + identifier.replace("\"", "\"\"") + '"';
+    }
+}
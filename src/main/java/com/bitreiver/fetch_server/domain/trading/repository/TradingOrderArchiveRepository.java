@@ -0,0 +1,30 @@
+package com.bitreiver.fetch_server.domain.trading.repository;
+
+import com.bitreiver.fetch_server.domain.trading.entity.TradingOrderArchive;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface TradingOrderArchiveRepository extends JpaRepository<TradingOrderArchive, Long> {
+    // 재처리 시 압축 원문을 한 번에 모두 읽지 않도록 ID만 조회하고 한 건씩 불러옴
+    @Query("SELECT a.id FROM TradingOrderArchive a WHERE a.userId = :userId AND a.exchangeCode = :exchangeCode ORDER BY a.id DESC")
+    List<Long> findIdsNewestFirst(@Param("userId") UUID userId, @Param("exchangeCode") Short exchangeCode);
+    
+    // 엔티티가 아닌 projection으로 읽어, 한 트랜잭션에서 재처리해도 압축 원문이 영속성 컨텍스트에 쌓이지 않음
+    @Query("SELECT a.rangeStart AS rangeStart, a.rangeEnd AS rangeEnd, a.payload AS payload " +
+           "FROM TradingOrderArchive a WHERE a.id = :id")
+    Optional<ArchivePayload> findPayloadById(@Param("id") Long id);
+    
+    interface ArchivePayload {
+        LocalDateTime getRangeStart();
+        LocalDateTime getRangeEnd();
+        byte[] getPayload();
+    }
+}
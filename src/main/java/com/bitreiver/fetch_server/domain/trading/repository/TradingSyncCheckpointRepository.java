@@ -0,0 +1,13 @@
+package com.bitreiver.fetch_server.domain.trading.repository;
+
+import com.bitreiver.fetch_server.domain.trading.entity.TradingSyncCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface TradingSyncCheckpointRepository extends JpaRepository<TradingSyncCheckpoint, Integer> {
+    Optional<TradingSyncCheckpoint> findByUserIdAndExchangeCode(UUID userId, Short exchangeCode);
+}
@@ -0,0 +1,101 @@
+package com.bitreiver.fetch_server.domain.trading.scheduler;
+
+import com.bitreiver.fetch_server.domain.trading.repository.TradingHistorySchemaRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.batch.core.repository.JobExecutionAlreadyRunningException;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * trading_histories 스키마 관리 (trading.history.schema.managed=true일 때만 동작)
+ *
+ * - 애플리케이션 준비 후 중복되는 단일 컬럼 인덱스를 삭제하고 수익률 계산용 커버링 인덱스를 만듭니다. (CONCURRENTLY, 쓰기를 막지 않음)
+ * - trading.history.schema.partitioned=true이면 trade_time 월 단위 범위 파티션 테이블로 전환하는 배치 작업을 비동기로 실행하고,
+ *   매일 현재 월부터 partition-months-ahead개월 뒤까지의 파티션을 미리 만들어 둡니다.
+ *   사용자 단위 조회·저장은 모든 월 파티션을 확인하므로 일반 테이블보다 느립니다. 오래된 월을 파티션 단위로 지워야 할 때만 켭니다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "trading.history.schema.managed", havingValue = "true")
+public class TradingHistorySchemaScheduler {
+
+    private final TradingHistorySchemaRepository schemaRepository;
+    private final JobLauncher jobLauncher;
+    private final Job partitionTradingHistoriesJob;
+    private final boolean partitioned;
+    private final int monthsAhead;
+
+    public TradingHistorySchemaScheduler(
+            TradingHistorySchemaRepository schemaRepository,
+            @Qualifier("asyncJobLauncher") JobLauncher jobLauncher,
+            @Qualifier("partitionTradingHistoriesJob") Job partitionTradingHistoriesJob,
+            @Value("${trading.history.schema.partitioned:false}") boolean partitioned,
+            @Value("${trading.history.schema.partition-months-ahead:3}") int monthsAhead) {
+        this.schemaRepository = schemaRepository;
+        this.jobLauncher = jobLauncher;
+        this.partitionTradingHistoriesJob = partitionTradingHistoriesJob;
+        this.partitioned = partitioned;
+        this.monthsAhead = monthsAhead;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initializeSchema() {
+        try {
+            schemaRepository.dropRedundantIndexes();
+            schemaRepository.ensureCoveringIndex();
+        } catch (Exception e) {
+            log.error("initializeSchema - trading_histories 인덱스 초기화 실패: {}", e.getMessage(), e);
+        }
+        ensurePartitions();
+        if (partitioned) {
+            launchPartitionJob();
+        }
+    }
+
+    /**
+     * 작업 파라미터가 같으므로 이전 실행이 실패했으면 마지막으로 복사한 위치부터 이어서 실행됩니다.
+     * 다른 서버에서 이미 실행 중이면 건너뜁니다.
+     */
+    private void launchPartitionJob() {
+        try {
+            if (schemaRepository.isPartitioned()) {
+                return;
+            }
+            JobExecution execution = jobLauncher.run(partitionTradingHistoriesJob, new JobParametersBuilder()
+                .addLong("monthsAhead", (long) monthsAhead)
+                .toJobParameters());
+            log.info("launchPartitionJob - trading_histories 파티션 전환 작업 실행: job_execution_id={}", execution.getId());
+        } catch (JobExecutionAlreadyRunningException e) {
+            log.info("launchPartitionJob - trading_histories 파티션 전환 작업이 이미 실행 중입니다.");
+        } catch (Exception e) {
+            log.error("launchPartitionJob - trading_histories 파티션 전환 작업 실행 실패: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 다음 달 파티션이 없어 기본(default) 파티션에 쌓이지 않도록 매일 미리 만듭니다.
+     */
+    @Scheduled(cron = "${trading.history.schema.partition-cron:0 0 3 * * *}")
+    public void ensurePartitions() {
+        if (!partitioned) {
+            return;
+        }
+        try {
+            int created = schemaRepository.ensureMonthlyPartitions(monthsAhead);
+            if (created > 0) {
+                log.info("ensurePartitions - 거래내역 파티션 {}개 생성", created);
+            }
+        } catch (Exception e) {
+            log.error("ensurePartitions - 거래내역 파티션 생성 실패: {}", e.getMessage(), e);
+        }
+    }
+}
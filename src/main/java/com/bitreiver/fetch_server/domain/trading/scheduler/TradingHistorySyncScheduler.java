@@ -0,0 +1,214 @@
+package com.bitreiver.fetch_server.domain.trading.scheduler;
+
+import com.bitreiver.fetch_server.domain.exchange.enums.ExchangeType;
+import com.bitreiver.fetch_server.domain.trading.dto.TradingHistorySyncResult;
+import com.bitreiver.fetch_server.domain.trading.service.TradingHistorySyncService;
+import com.bitreiver.fetch_server.domain.user.entity.User;
+import com.bitreiver.fetch_server.domain.user.repository.UserRepository;
+import com.bitreiver.fetch_server.global.common.exception.CustomException;
+import com.bitreiver.fetch_server.global.common.exception.ErrorCode;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 거래소가 연결된 모든 사용자의 거래내역을 주기적으로 동기화하는 스케줄러
+ *
+ * - 사용자·거래소 단위 작업을 하나의 대기열에 넣고, 워커는 한 번에 조회 구간 묶음 몇 개씩만 처리한 뒤
+ *   남은 구간이 있으면 작업을 대기열 맨 뒤로 다시 넣습니다(라운드 로빈).
+ *   거래 기간이 긴 계정이 있어도 다른 사용자의 동기화가 밀리지 않습니다.
+ * - 요청 수는 UpbitRateLimiter의 Access Key별 버킷과 전역 버킷으로 제한됩니다.
+ * - 여러 서버에서 실행되면 같은 사용자·거래소를 각 서버가 대기열에 넣지만, 동기화는 DB 세션 advisory lock을 잡은 한 서버만 진행하고
+ *   나머지 서버의 차례는 건너뜁니다(skipped). 한 사용자의 요청은 한 서버에서만 나가므로 서버별 버킷으로도 Access Key 한도를 지킵니다.
+ * - 차례별 결과는 trading.sync.scheduler.turns 카운터(result=success|skipped|failure, code)로 집계합니다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "trading.sync.scheduler.enabled", havingValue = "true", matchIfMissing = true)
+public class TradingHistorySyncScheduler {
+
+    private static final Set<String> SUPPORTED_EXCHANGES = Set.of(ExchangeType.UPBIT.name());
+
+    private final UserRepository userRepository;
+    private final TradingHistorySyncService tradingHistorySyncService;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final int workerCount;
+    private final int batchesPerTurn;
+    private final ExecutorService workers;
+
+    private final BlockingDeque<SyncTask> syncQueue = new LinkedBlockingDeque<>();
+    private final Set<String> queuedKeys = ConcurrentHashMap.newKeySet();
+
+    public TradingHistorySyncScheduler(
+            UserRepository userRepository,
+            TradingHistorySyncService tradingHistorySyncService,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${trading.sync.scheduler.worker-count:2}") int workerCount,
+            @Value("${trading.sync.scheduler.batches-per-turn:1}") int batchesPerTurn) {
+        this.userRepository = userRepository;
+        this.tradingHistorySyncService = tradingHistorySyncService;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.workerCount = workerCount;
+        this.batchesPerTurn = batchesPerTurn;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(workerCount, runnable -> {
+            Thread thread = new Thread(runnable, "trading-sync-scheduler-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PostConstruct
+    public void startWorkers() {
+        for (int i = 0; i < workerCount; i++) {
+            workers.execute(this::runWorker);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * 거래소가 연결된 사용자를 동기화 대기열에 추가
+     * 15분마다 실행 (900,000ms = 15분), 이미 대기 중이거나 진행 중인 사용자·거래소는 다시 넣지 않습니다.
+     */
+    @Scheduled(fixedDelayString = "${trading.sync.scheduler.refresh-interval-ms:900000}",
+               initialDelayString = "${trading.sync.scheduler.initial-delay-ms:60000}")
+    public void enqueueConnectedUsers() {
+        try {
+            List<User> users = userRepository.findByIsActiveTrueAndIsConnectExchangeTrue();
+
+            int enqueuedCount = 0;
+            for (User user : users) {
+                for (String exchange : parseConnectedExchanges(user.getConnectedExchanges())) {
+                    if (!SUPPORTED_EXCHANGES.contains(exchange)) {
+                        continue;
+                    }
+                    SyncTask task = new SyncTask(user.getId(), exchange);
+                    if (queuedKeys.add(task.getKey())) {
+                        syncQueue.offerLast(task);
+                        enqueuedCount++;
+                    }
+                }
+            }
+
+            log.info("enqueueConnectedUsers - 거래내역 동기화 대기열 추가: users={}, enqueued={}, queue_size={}",
+                users.size(), enqueuedCount, syncQueue.size());
+        } catch (Exception e) {
+            log.error("enqueueConnectedUsers - 거래내역 동기화 대기열 추가 실패: {}", e.getMessage(), e);
+        }
+    }
+
+    private void runWorker() {
+        while (!Thread.currentThread().isInterrupted()) {
+            SyncTask task;
+            try {
+                task = syncQueue.takeFirst();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            runTurn(task);
+        }
+    }
+
+    private void runTurn(SyncTask task) {
+        boolean requeue = false;
+        try {
+            TradingHistorySyncResult result = tradingHistorySyncService.syncNextBatches(
+                task.getUserId(), task.getExchangeProviderStr(), batchesPerTurn);
+            requeue = !Boolean.TRUE.equals(result.getCompleted());
+            countTurn("success", "NONE");
+        } catch (CustomException e) {
+            // TradingHistorySyncService는 모든 실패를 CustomException으로 감싸므로 여기서 사용자별 실패를 기록
+            ErrorCode errorCode = e.getErrorCode();
+            if (errorCode == ErrorCode.SYNC_ALREADY_IN_PROGRESS) {
+                // 수동 동기화 또는 다른 서버의 동기화가 진행 중: 다음 주기에 다시 시도
+                log.debug("runTurn - 다른 동기화가 진행 중이라 건너뜀: user_id={}, exchange={}",
+                    task.getUserId(), task.getExchangeProviderStr());
+                countTurn("skipped", errorCode.getCode());
+            } else {
+                log.warn("runTurn - 거래내역 동기화 실패: user_id={}, exchange={}, code={}, error={}",
+                    task.getUserId(), task.getExchangeProviderStr(), errorCode.getCode(), e.getMessage());
+                countTurn("failure", errorCode.getCode());
+            }
+        } catch (Exception e) {
+            log.error("runTurn - 거래내역 동기화 실패: user_id={}, exchange={}, error={}",
+                task.getUserId(), task.getExchangeProviderStr(), e.getMessage(), e);
+            countTurn("failure", "UNEXPECTED");
+        }
+
+        if (requeue) {
+            syncQueue.offerLast(task);
+        } else {
+            queuedKeys.remove(task.getKey());
+        }
+    }
+
+    private void countTurn(String result, String code) {
+        Counter.builder("trading.sync.scheduler.turns")
+            .tag("result", result)
+            .tag("code", code)
+            .register(meterRegistry)
+            .increment();
+    }
+
+    private List<String> parseConnectedExchanges(String connectedExchanges) {
+        if (connectedExchanges == null || connectedExchanges.trim().isEmpty()) {
+            return new ArrayList<>();
+        }
+        try {
+            return objectMapper.readValue(connectedExchanges, new TypeReference<List<String>>() {});
+        } catch (Exception e) {
+            log.warn("parseConnectedExchanges - connectedExchanges 파싱 실패: {}", e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    private static class SyncTask {
+        private final UUID userId;
+        private final String exchangeProviderStr;
+
+        SyncTask(UUID userId, String exchangeProviderStr) {
+            this.userId = userId;
+            this.exchangeProviderStr = exchangeProviderStr;
+        }
+
+        UUID getUserId() {
+            return userId;
+        }
+
+        String getExchangeProviderStr() {
+            return exchangeProviderStr;
+        }
+
+        String getKey() {
+            return userId + ":" + exchangeProviderStr;
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.bitreiver.fetch_server.domain.trading.service;
+
+import com.bitreiver.fetch_server.domain.trading.dto.TradingHistoryReprocessJobResponse;
+
+import java.util.UUID;
+
+public interface TradingHistoryReprocessJobService {
+    TradingHistoryReprocessJobResponse submitReprocessJob(UUID userId, String exchangeProviderStr);
+    TradingHistoryReprocessJobResponse getReprocessJob(Long jobExecutionId);
+}
@@ -0,0 +1,95 @@
+package com.bitreiver.fetch_server.domain.trading.service;
+
+import com.bitreiver.fetch_server.domain.trading.dto.TradingHistoryReprocessJobResponse;
+import com.bitreiver.fetch_server.global.common.exception.CustomException;
+import com.bitreiver.fetch_server.global.common.exception.ErrorCode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import java.util.UUID;
+
+@Slf4j
+@Service
+public class TradingHistoryReprocessJobServiceImpl implements TradingHistoryReprocessJobService {
+    
+    private static final String JOB_NAME = "reprocessTradingHistoriesJob";
+    
+    private final JobLauncher jobLauncher;
+    private final Job reprocessTradingHistoriesJob;
+    private final JobExplorer jobExplorer;
+    
+    public TradingHistoryReprocessJobServiceImpl(
+            @Qualifier("asyncJobLauncher") JobLauncher jobLauncher,
+            @Qualifier("reprocessTradingHistoriesJob") Job reprocessTradingHistoriesJob,
+            JobExplorer jobExplorer) {
+        this.jobLauncher = jobLauncher;
+        this.reprocessTradingHistoriesJob = reprocessTradingHistoriesJob;
+        this.jobExplorer = jobExplorer;
+    }
+    
+    /**
+     * 주문 원문 아카이브로 거래내역을 다시 만드는 배치 작업을 비동기로 실행하고 실행 ID를 반환합니다.
+     * 같은 사용자·거래소의 재처리가 진행 중이면 거부합니다.
+     */
+    @Override
+    public TradingHistoryReprocessJobResponse submitReprocessJob(UUID userId, String exchangeProviderStr) {
+        for (JobExecution running : jobExplorer.findRunningJobExecutions(JOB_NAME)) {
+            JobParameters params = running.getJobParameters();
+            if (userId.toString().equals(params.getString("userId")) 
+                    && exchangeProviderStr.equalsIgnoreCase(params.getString("exchangeProvider"))) {
+                throw new CustomException(ErrorCode.REPROCESS_ALREADY_IN_PROGRESS);
+            }
+        }
+        
+        try {
+            JobParameters jobParameters = new JobParametersBuilder()
+                .addLong("timestamp", System.currentTimeMillis())
+                .addString("userId", userId.toString())
+                .addString("exchangeProvider", exchangeProviderStr)
+                .toJobParameters();
+            
+            JobExecution execution = jobLauncher.run(reprocessTradingHistoriesJob, jobParameters);
+            log.info("submitReprocessJob - 거래내역 재처리 작업 실행: user_id={}, exchange={}, job_execution_id={}", 
+                userId, exchangeProviderStr, execution.getId());
+            return toResponse(execution);
+        } catch (Exception e) {
+            log.error("submitReprocessJob - 거래내역 재처리 작업 실행 실패: user_id={}, {}", userId, e.getMessage(), e);
+            throw new CustomException(ErrorCode.INTERNAL_ERROR, 
+                "거래내역 재처리 작업 실행 중 오류가 발생했습니다: " + e.getMessage());
+        }
+    }
+    
+    @Override
+    public TradingHistoryReprocessJobResponse getReprocessJob(Long jobExecutionId) {
+        JobExecution execution = jobExplorer.getJobExecution(jobExecutionId);
+        if (execution == null || !JOB_NAME.equals(execution.getJobInstance().getJobName())) {
+            throw new CustomException(ErrorCode.REPROCESS_JOB_NOT_FOUND);
+        }
+        return toResponse(execution);
+    }
+    
+    private TradingHistoryReprocessJobResponse toResponse(JobExecution execution) {
+        JobParameters params = execution.getJobParameters();
+        boolean failed = execution.getStatus() == BatchStatus.FAILED;
+        return TradingHistoryReprocessJobResponse.builder()
+            .jobExecutionId(execution.getId())
+            .userId(UUID.fromString(params.getString("userId")))
+            .exchangeProviderStr(params.getString("exchangeProvider"))
+            .status(execution.getStatus().name())
+            .startedAt(execution.getStartTime())
+            .finishedAt(execution.getEndTime())
+            .result(execution.getExecutionContext().containsKey("result") 
+                ? execution.getExecutionContext().getString("result") 
+                : null)
+            .errorMessage(failed ? execution.getExitStatus().getExitDescription() : null)
+            .build();
+    }
+}
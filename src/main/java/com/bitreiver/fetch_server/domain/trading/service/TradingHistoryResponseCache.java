@@ -0,0 +1,126 @@
+package com.bitreiver.fetch_server.domain.trading.service;
+
+import com.bitreiver.fetch_server.domain.trading.dto.TradingHistoryListResponse;
+import com.bitreiver.fetch_server.global.cache.RedisCacheService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * 사용자별 거래내역 전체 조회 응답(TradingHistoryListResponse) Redis 캐시
+ *
+ * - 응답은 trading:histories:{userId}:{version} 키에 저장하고, 현재 버전은 trading:histories:version:{userId}에 둡니다.
+ * - 거래내역이 실제로 바뀌면(저장·수익률 갱신) 커밋 후 버전을 새로 발급합니다. 이전 버전 키는 더 이상 읽히지 않고 TTL로 만료되므로,
+ *   변경 전에 DB를 읽은 요청이 늦게 캐시를 저장해도 오래된 응답이 조회되지 않습니다.
+ * - 조회 결과는 trading.history.cache.requests(result=hit|miss) 카운터와 trading.history.cache.hit.rate 게이지로 노출됩니다.
+ */
+@Slf4j
+@Component
+public class TradingHistoryResponseCache {
+
+    private static final String KEY_PREFIX = "trading:histories:";
+    private static final String VERSION_KEY_PREFIX = "trading:histories:version:";
+    private static final String METRIC_REQUESTS = "trading.history.cache.requests";
+
+    private final RedisCacheService redisCacheService;
+    private final long ttlSeconds;
+    private final Counter hitCounter;
+    private final Counter missCounter;
+
+    public TradingHistoryResponseCache(RedisCacheService redisCacheService,
+                                       MeterRegistry meterRegistry,
+                                       @Value("${cache.trading-history.ttl:86400}") long ttlSeconds) {
+        this.redisCacheService = redisCacheService;
+        this.ttlSeconds = ttlSeconds;
+        this.hitCounter = Counter.builder(METRIC_REQUESTS)
+            .description("거래내역 조회 캐시 요청 수")
+            .tag("result", "hit")
+            .register(meterRegistry);
+        this.missCounter = Counter.builder(METRIC_REQUESTS)
+            .description("거래내역 조회 캐시 요청 수")
+            .tag("result", "miss")
+            .register(meterRegistry);
+        Gauge.builder("trading.history.cache.hit.rate", this, TradingHistoryResponseCache::getHitRate)
+            .description("거래내역 조회 캐시 적중률 (서버 기동 후 누적)")
+            .register(meterRegistry);
+    }
+
+    /**
+     * 캐시된 응답을 조회합니다. 캐시가 없으면 version과 함께 miss를 반환하며, DB에서 만든 응답은 이 version으로 저장합니다.
+     */
+    public Lookup get(UUID userId) {
+        String version = redisCacheService.get(VERSION_KEY_PREFIX + userId, String.class).orElse("0");
+        Optional<TradingHistoryListResponse> cached = redisCacheService.get(key(userId, version), TradingHistoryListResponse.class);
+        if (cached.isPresent()) {
+            hitCounter.increment();
+        } else {
+            missCounter.increment();
+        }
+        return new Lookup(version, cached.orElse(null));
+    }
+
+    public void put(UUID userId, String version, TradingHistoryListResponse response) {
+        redisCacheService.set(key(userId, version), response, ttlSeconds);
+    }
+
+    /**
+     * 사용자의 거래내역을 변경한 뒤 호출합니다.
+     * 트랜잭션 안이면 커밋 후에, 아니면 즉시 새 버전을 발급합니다. 롤백되면 캐시는 그대로 유지됩니다.
+     */
+    public void invalidate(UUID userId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publishNewVersion(userId);
+                }
+            });
+        } else {
+            publishNewVersion(userId);
+        }
+    }
+
+    public double getHitRate() {
+        double hits = hitCounter.count();
+        double total = hits + missCounter.count();
+        return total == 0 ? 0.0 : hits / total;
+    }
+
+    private void publishNewVersion(UUID userId) {
+        String version = String.valueOf(System.currentTimeMillis());
+        // 버전 키는 응답 키보다 오래 유지되어야 이전 버전으로 되돌아가지 않음
+        redisCacheService.set(VERSION_KEY_PREFIX + userId, version, -1L);
+        log.debug("invalidate - 거래내역 캐시 무효화: userId={}, version={}", userId, version);
+    }
+
+    private static String key(UUID userId, String version) {
+        return KEY_PREFIX + userId + ":" + version;
+    }
+
+    /**
+     * 캐시 조회 결과 (miss면 response는 null)
+     */
+    @Getter
+    public static final class Lookup {
+        private final String version;
+        private final TradingHistoryListResponse response;
+
+        private Lookup(String version, TradingHistoryListResponse response) {
+            this.version = version;
+            this.response = response;
+        }
+
+        public boolean isHit() {
+            return response != null;
+        }
+    }
+}
@@ -1,17 +1,31 @@
 package com.bitreiver.fetch_server.domain.trading.service;
 
 import com.bitreiver.fetch_server.domain.trading.dto.TradingHistoryListResponse;
+import com.bitreiver.fetch_server.domain.trading.dto.TradingHistoryPageResponse;
 import com.bitreiver.fetch_server.domain.trading.entity.TradingHistory;
+import com.bitreiver.fetch_server.domain.trading.enums.TradingHistoryExportFormat;
+import com.bitreiver.fetch_server.domain.upbit.dto.UpbitOrder;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
 public interface TradingHistoryService {
-    List<Map<String, Object>> getTradingHistories(UUID userId, String exchangeProviderStr, LocalDateTime startTime);
-    List<TradingHistory> processTradingHistories(UUID userId, String exchangeProviderStr, List<Map<String, Object>> tradingHisties);
+    List<UpbitOrder> getTradingHistories(UUID userId, String exchangeProviderStr, LocalDateTime startTime);
+    List<String> filterNewTradeUuids(UUID userId, Short exchangeCode, List<String> tradeUuids);
+    List<TradingHistory> processTradingHistories(UUID userId, String exchangeProviderStr, List<UpbitOrder> tradingHisties);
     List<TradingHistory> saveTradingHistories(List<TradingHistory> tradingHistories);
+    List<TradingHistory> replaceTradingHistories(UUID userId, Short exchangeCode, List<String> orderUuids,
+                                                 LocalDateTime rangeStart, LocalDateTime rangeEnd,
+                                                 List<TradingHistory> tradingHistories);
     TradingHistoryListResponse getAllTradingHistoriesByUserFormatted(UUID userId);
     Map<String, Object> getAllTradingHistoriesByUserFormattedAsMap(UUID userId);
+    TradingHistoryPageResponse getTradingHistoryPage(UUID userId, Short exchangeCode, Integer coinId,
+                                                     LocalDateTime from, LocalDateTime to, String cursor, Integer size);
+    long countTradingHistories(UUID userId);
+    long exportTradingHistories(UUID userId, Short exchangeCode, TradingHistoryExportFormat format,
+                                OutputStream outputStream) throws IOException;
 }
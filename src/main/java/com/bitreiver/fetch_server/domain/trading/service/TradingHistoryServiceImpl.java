@@ -1,29 +1,41 @@
 package com.bitreiver.fetch_server.domain.trading.service;
 
-import com.bitreiver.fetch_server.domain.coin.entity.Coin;
-import com.bitreiver.fetch_server.domain.coin.repository.CoinRepository;
+import com.bitreiver.fetch_server.domain.coin.service.CoinCatalog;
 import com.bitreiver.fetch_server.domain.exchange.dto.ExchangeCredentialResponse;
 import com.bitreiver.fetch_server.domain.exchange.enums.ExchangeType;
 import com.bitreiver.fetch_server.domain.exchange.service.ExchangeCredentialService;
 import com.bitreiver.fetch_server.domain.trading.dto.TradingHistoryListResponse;
+import com.bitreiver.fetch_server.domain.trading.dto.TradingHistoryPageResponse;
 import com.bitreiver.fetch_server.domain.trading.dto.TradingHistoryResponse;
 import com.bitreiver.fetch_server.domain.trading.entity.TradingHistory;
+import com.bitreiver.fetch_server.domain.trading.enums.TradingHistoryExportFormat;
+import com.bitreiver.fetch_server.domain.trading.repository.TradingAdvisoryLockRepository;
 import com.bitreiver.fetch_server.domain.trading.repository.TradingHistoryRepository;
+import com.bitreiver.fetch_server.domain.upbit.dto.UpbitOrder;
+import com.bitreiver.fetch_server.domain.upbit.dto.UpbitTrade;
 import com.bitreiver.fetch_server.domain.upbit.service.UpbitService;
 import com.bitreiver.fetch_server.global.common.exception.CustomException;
 import com.bitreiver.fetch_server.global.common.exception.ErrorCode;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -31,12 +43,23 @@ import java.util.stream.Collectors;
 public class TradingHistoryServiceImpl implements TradingHistoryService {
     
     private final TradingHistoryRepository tradingRepository;
-    private final CoinRepository coinRepository;
+    private final CoinCatalog coinCatalog;
     private final ExchangeCredentialService exchangeCredentialService;
     private final UpbitService upbitService;
+    private final ObjectMapper objectMapper;
+    private final TradingHistoryResponseCache tradingHistoryResponseCache;
+    private final TradingAdvisoryLockRepository tradingAdvisoryLockRepository;
+    
+    private static final int EXISTING_UUID_QUERY_CHUNK_SIZE = 1000;
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int EXPORT_BUFFER_SIZE = 64 * 1024;
+    private static final int EXPORT_PAGE_SIZE = 1000;
+    private static final String CSV_HEADER = "id,user_id,coin_id,exchange_code,trade_uuid,trade_type,price,quantity," +
+        "total_price,fee,trade_time,profit_loss_rate,avg_buy_price,created_at";
     
     @Override
-    public List<Map<String, Object>> getTradingHistories(UUID userId, String exchangeProviderStr, LocalDateTime startTime) {
+    public List<UpbitOrder> getTradingHistories(UUID userId, String exchangeProviderStr, LocalDateTime startTime) {
         try {
             ExchangeType exchangeType = ExchangeType.fromName(exchangeProviderStr);
             Short exchangeProvider = (short) exchangeType.getCode();
@@ -46,6 +69,8 @@ public class TradingHistoryServiceImpl implements TradingHistoryService {
                 .orElseThrow(() -> new CustomException(ErrorCode.EXCHANGE_CREDENTIAL_NOT_FOUND, 
                     "User not found"));
             
+            long startedAt = System.currentTimeMillis();
+            
             List<String> uuids = upbitService.fetchAllTradingUuids(
                 credentials.getAccessKey(), 
                 credentials.getSecretKey(), 
@@ -56,12 +81,22 @@ public class TradingHistoryServiceImpl implements TradingHistoryService {
                 return new ArrayList<>();
             }
             
-            List<Map<String, Object>> tradingHistories = upbitService.fetchAllTradingHistory(
+            int fetchedUuidCount = uuids.size();
+            uuids = filterNewTradeUuids(userId, exchangeProvider, uuids);
+            if (uuids.isEmpty()) {
+                return new ArrayList<>();
+            }
+            
+            List<UpbitOrder> tradingHistories = upbitService.fetchAllTradingHistory(
                 credentials.getAccessKey(),
                 credentials.getSecretKey(),
                 uuids
             ).block();
             
+            log.info("getTradingHistories - 거래내역 조회 완료: user_id={}, uuid_count={}, new_uuid_count={}, order_count={}, elapsed_ms={}", 
+                userId, fetchedUuidCount, uuids.size(), tradingHistories != null ? tradingHistories.size() : 0, 
+                System.currentTimeMillis() - startedAt);
+            
             return tradingHistories != null ? tradingHistories : new ArrayList<>();
         } catch (CustomException e) {
             log.error("getTradingHistories - {}", e.getMessage());
@@ -73,23 +108,51 @@ public class TradingHistoryServiceImpl implements TradingHistoryService {
         }
     }
     
+    /**
+     * trading_histories에 이미 저장된 trade_uuid를 제외한 목록을 반환합니다.
+     * 상세 조회 전에 호출하여 재동기화나 겹치는 조회 구간이 외부 API 호출로 이어지지 않도록 합니다.
+     */
+    @Override
+    public List<String> filterNewTradeUuids(UUID userId, Short exchangeCode, List<String> tradeUuids) {
+        try {
+            if (tradeUuids == null || tradeUuids.isEmpty()) {
+                return new ArrayList<>();
+            }
+            
+            Set<String> existingUuids = new HashSet<>();
+            for (int from = 0; from < tradeUuids.size(); from += EXISTING_UUID_QUERY_CHUNK_SIZE) {
+                int to = Math.min(from + EXISTING_UUID_QUERY_CHUNK_SIZE, tradeUuids.size());
+                existingUuids.addAll(tradingRepository.findExistingTradeUuids(
+                    userId, exchangeCode, tradeUuids.subList(from, to)));
+            }
+            
+            List<String> newUuids = new ArrayList<>();
+            Set<String> seen = new HashSet<>();
+            for (String uuid : tradeUuids) {
+                if (!existingUuids.contains(uuid) && seen.add(uuid)) {
+                    newUuids.add(uuid);
+                }
+            }
+            return newUuids;
+        } catch (Exception e) {
+            log.error("filterNewTradeUuids - 예상치 못한 오류 발생: {}", e.getMessage(), e);
+            throw new CustomException(ErrorCode.INTERNAL_ERROR, 
+                "저장된 거래내역 확인 중 오류가 발생했습니다: " + e.getMessage());
+        }
+    }
+    
     @Override
     public List<TradingHistory> processTradingHistories(UUID userId, String exchangeProviderStr, 
-                                                       List<Map<String, Object>> tradingHisties) {
+                                                       List<UpbitOrder> tradingHisties) {
         try {
             ExchangeType exchangeType = ExchangeType.fromName(exchangeProviderStr);
             Short exchangeCode = (short) exchangeType.getCode();
             
-            List<Coin> coins = coinRepository.findAll();
-            Map<String, Integer> coinMap = coins.stream()
-                .collect(Collectors.toMap(Coin::getMarketCode, Coin::getId, (a, b) -> a));
-            
             List<TradingHistory> tradingHistoryList = new ArrayList<>();
             DateTimeFormatter formatter = DateTimeFormatter.ISO_DATE_TIME;
             
-            for (Map<String, Object> tradingHistory : tradingHisties) {
-                @SuppressWarnings("unchecked")
-                List<Map<String, Object>> trades = (List<Map<String, Object>>) tradingHistory.get("trades");
+            for (UpbitOrder tradingHistory : tradingHisties) {
+                List<UpbitTrade> trades = tradingHistory.getTrades();
                 
                 if (trades == null || trades.isEmpty()) {
                     continue;
@@ -98,34 +161,35 @@ public class TradingHistoryServiceImpl implements TradingHistoryService {
                 BigDecimal totalQuantity = BigDecimal.ZERO;
                 BigDecimal totalPrice = BigDecimal.ZERO;
                 
-                for (Map<String, Object> trade : trades) {
-                    BigDecimal volume = new BigDecimal(trade.getOrDefault("volume", "0").toString());
-                    BigDecimal funds = new BigDecimal(trade.getOrDefault("funds", "0").toString());
-                    
-                    totalQuantity = totalQuantity.add(volume);
-                    totalPrice = totalPrice.add(funds);
+                for (UpbitTrade trade : trades) {
+                    if (trade.getVolume() != null) {
+                        totalQuantity = totalQuantity.add(trade.getVolume());
+                    }
+                    if (trade.getFunds() != null) {
+                        totalPrice = totalPrice.add(trade.getFunds());
+                    }
                 }
                 
                 BigDecimal avgPrice = totalQuantity.compareTo(BigDecimal.ZERO) > 0 
                     ? totalPrice.divide(totalQuantity, 8, RoundingMode.HALF_UP)
                     : BigDecimal.ZERO;
                 
-                String side = tradingHistory.getOrDefault("side", "").toString();
-                Short tradeType = "bid".equals(side) ? (short) 0 : (short) 1;
+                Short tradeType = "bid".equals(tradingHistory.getSide()) ? (short) 0 : (short) 1;
                 
-                String market = tradingHistory.getOrDefault("market", "").toString();
-                Integer coinId = coinMap.get(market);
+                String market = tradingHistory.getMarket() != null ? tradingHistory.getMarket() : "";
+                Integer coinId = coinCatalog.findByMarketCode(market)
+                    .map(CoinCatalog.CoinEntry::getId)
+                    .orElse(null);
                 
                 if (coinId == null) {
                     log.warn("processTradingHistories - 코인을 찾을 수 없습니다: market={}", market);
                     continue;
                 }
                 
-                String uuid = tradingHistory.getOrDefault("uuid", "").toString();
-                String createdAtStr = tradingHistory.getOrDefault("created_at", "").toString();
-                LocalDateTime tradeTime = parseDateTime(createdAtStr);
+                String uuid = tradingHistory.getUuid() != null ? tradingHistory.getUuid() : "";
+                LocalDateTime tradeTime = parseDateTime(tradingHistory.getCreatedAt());
                 
-                BigDecimal fee = new BigDecimal(tradingHistory.getOrDefault("paid_fee", "0").toString());
+                BigDecimal fee = tradingHistory.getPaidFee() != null ? tradingHistory.getPaidFee() : BigDecimal.ZERO;
                 
                 TradingHistory history = TradingHistory.builder()
                     .userId(userId)
@@ -163,20 +227,22 @@ public class TradingHistoryServiceImpl implements TradingHistoryService {
                 return new ArrayList<>();
             }
             
-            List<TradingHistory> savedHistories = new ArrayList<>();
-            
+            // 같은 사용자·거래소의 수익률 계산·재처리가 진행 중이면 끝날 때까지 기다림 (잠금 순서를 고정해 교착 방지)
+            Map<UUID, Set<Short>> lockKeys = new TreeMap<>();
             for (TradingHistory history : tradingHistories) {
-                boolean exists = tradingRepository.existsByUserIdAndExchangeCodeAndTradeUuid(
-                    history.getUserId(),
-                    history.getExchangeCode(),
-                    history.getTradeUuid()
-                );
-                
-                if (!exists) {
-                    TradingHistory saved = tradingRepository.save(history);
-                    savedHistories.add(saved);
-                }
+                lockKeys.computeIfAbsent(history.getUserId(), key -> new TreeSet<>()).add(history.getExchangeCode());
             }
+            lockKeys.forEach((userId, exchangeCodes) -> exchangeCodes
+                .forEach(exchangeCode -> tradingAdvisoryLockRepository.lockUserExchange(userId, exchangeCode)));
+            
+            // (user_id, exchange_code, trade_uuid)가 이미 있는 거래는 DB에서 건너뛰고, 새로 삽입된 행만 반환됨
+            List<TradingHistory> savedHistories = tradingRepository.insertIgnoringDuplicates(tradingHistories);
+            
+            // 실제로 삽입된 행이 있는 사용자만 조회 캐시 무효화 (커밋 후)
+            savedHistories.stream()
+                .map(TradingHistory::getUserId)
+                .distinct()
+                .forEach(tradingHistoryResponseCache::invalidate);
             
             log.info("saveTradingHistories - 거래내역 저장 완료: {}개", savedHistories.size());
             return savedHistories;
@@ -187,8 +253,58 @@ public class TradingHistoryServiceImpl implements TradingHistoryService {
         }
     }
     
+    /**
+     * 다시 변환된 주문(orderUuids)의 기존 거래를 지우고 변환한 거래를 저장합니다. (주문 원문 재처리용)
+     * orderUuids에는 tradingHistories를 만든 주문만 넘겨야 합니다. 변환되지 않은 주문의 거래까지 지우면 복구할 수 없습니다.
+     * 삭제는 아카이브 조회 구간과 다시 변환한 거래 시각을 모두 포함하는 trade_time 범위로 좁힙니다. (파티션 제외)
+     * 호출하는 쪽의 트랜잭션에 참여하며, 저장된 거래의 수익률 필드는 수익률 재계산에서 채워집니다.
+     */
+    @Override
+    @Transactional
+    public List<TradingHistory> replaceTradingHistories(UUID userId, Short exchangeCode, List<String> orderUuids,
+                                                        LocalDateTime rangeStart, LocalDateTime rangeEnd,
+                                                        List<TradingHistory> tradingHistories) {
+        if (orderUuids == null || orderUuids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        tradingAdvisoryLockRepository.lockUserExchange(userId, exchangeCode);
+        
+        LocalDateTime fromTime = rangeStart;
+        LocalDateTime toTime = rangeEnd;
+        for (TradingHistory history : tradingHistories) {
+            if (history.getTradeTime().isBefore(fromTime)) {
+                fromTime = history.getTradeTime();
+            }
+            if (history.getTradeTime().isAfter(toTime)) {
+                toTime = history.getTradeTime();
+            }
+        }
+        int deletedCount = 0;
+        for (int from = 0; from < orderUuids.size(); from += EXISTING_UUID_QUERY_CHUNK_SIZE) {
+            int to = Math.min(from + EXISTING_UUID_QUERY_CHUNK_SIZE, orderUuids.size());
+            deletedCount += tradingRepository.deleteByTradeUuids(
+                userId, exchangeCode, fromTime, toTime, orderUuids.subList(from, to));
+        }
+        
+        List<TradingHistory> savedHistories = tradingHistories.isEmpty() 
+            ? new ArrayList<>() 
+            : saveTradingHistories(tradingHistories);
+        if (deletedCount > 0) {
+            // 다시 삽입된 행이 없으면 saveTradingHistories가 캐시를 비우지 않으므로 삭제만으로도 무효화
+            tradingHistoryResponseCache.invalidate(userId);
+        }
+        log.debug("replaceTradingHistories - 거래내역 교체: user_id={}, orders={}, deleted={}, saved={}", 
+            userId, orderUuids.size(), deletedCount, savedHistories.size());
+        return savedHistories;
+    }
+    
     @Override
     public TradingHistoryListResponse getAllTradingHistoriesByUserFormatted(UUID userId) {
+        TradingHistoryResponseCache.Lookup cached = tradingHistoryResponseCache.get(userId);
+        if (cached.isHit()) {
+            return cached.getResponse();
+        }
+        
         try {
             List<TradingHistory> histories = tradingRepository.findByUserIdOrderByTradeTimeDesc(userId);
             
@@ -204,10 +320,12 @@ public class TradingHistoryServiceImpl implements TradingHistoryService {
                 }
             }
             
-            return TradingHistoryListResponse.builder()
+            TradingHistoryListResponse response = TradingHistoryListResponse.builder()
                 .totalCount(histories.size())
                 .tradingHistories(formattedHistories)
                 .build();
+            tradingHistoryResponseCache.put(userId, cached.getVersion(), response);
+            return response;
         } catch (Exception e) {
             log.error("getAllTradingHistoriesByUserFormatted - 예상치 못한 오류 발생: {}", e.getMessage(), e);
             throw new CustomException(ErrorCode.INTERNAL_ERROR, 
@@ -235,6 +353,191 @@ public class TradingHistoryServiceImpl implements TradingHistoryService {
         }
     }
     
+    @Override
+    public TradingHistoryPageResponse getTradingHistoryPage(UUID userId, Short exchangeCode, Integer coinId,
+                                                            LocalDateTime from, LocalDateTime to, 
+                                                            String cursor, Integer size) {
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new CustomException(ErrorCode.INVALID_DATE_RANGE);
+        }
+        int pageSize = size == null || size <= 0 ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+        
+        LocalDateTime cursorTradeTime = null;
+        Integer cursorId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = decoded.lastIndexOf('|');
+                cursorTradeTime = LocalDateTime.parse(decoded.substring(0, separator));
+                cursorId = Integer.parseInt(decoded.substring(separator + 1));
+            } catch (Exception e) {
+                log.warn("getTradingHistoryPage - 커서 파싱 실패: cursor={}", cursor);
+                throw new CustomException(ErrorCode.INVALID_CURSOR);
+            }
+        }
+        
+        try {
+            // 다음 페이지 존재 여부를 알기 위해 1개 더 조회
+            List<TradingHistory> histories = tradingRepository.findPageByKeyset(
+                userId, exchangeCode, coinId, from, to, cursorTradeTime, cursorId, pageSize + 1);
+            
+            boolean hasNext = histories.size() > pageSize;
+            if (hasNext) {
+                histories = histories.subList(0, pageSize);
+            }
+            
+            List<TradingHistoryResponse> formattedHistories = new ArrayList<>(histories.size());
+            for (TradingHistory history : histories) {
+                formattedHistories.add(TradingHistoryResponse.from(history));
+            }
+            
+            String nextCursor = null;
+            if (hasNext) {
+                TradingHistory last = histories.get(histories.size() - 1);
+                nextCursor = Base64.getUrlEncoder().withoutPadding().encodeToString(
+                    (last.getTradeTime() + "|" + last.getId()).getBytes(StandardCharsets.UTF_8));
+            }
+            
+            return TradingHistoryPageResponse.builder()
+                .tradingHistories(formattedHistories)
+                .hasNext(hasNext)
+                .nextCursor(nextCursor)
+                .build();
+        } catch (Exception e) {
+            log.error("getTradingHistoryPage - 예상치 못한 오류 발생: {}", e.getMessage(), e);
+            throw new CustomException(ErrorCode.INTERNAL_ERROR, 
+                "거래내역 조회 중 오류가 발생했습니다: " + e.getMessage());
+        }
+    }
+    
+    @Override
+    public long countTradingHistories(UUID userId) {
+        return tradingRepository.countByUserId(userId);
+    }
+    
+    /**
+     * 사용자의 거래내역 전체를 거래 일시 최신순으로 outputStream에 NDJSON(한 줄에 하나의 JSON) 또는 CSV로 씁니다.
+     * EXPORT_PAGE_SIZE개씩 keyset 페이지로 읽어 바로 쓰므로 거래내역 수와 관계없이 메모리 사용량이 일정합니다.
+     * 페이지 조회마다 커넥션을 잡았다 반납하므로 다운로드가 길어져도 트랜잭션·커넥션을 붙잡고 있지 않습니다.
+     * outputStream은 닫지 않습니다.
+     * 
+     * @return 내보낸 거래내역 수
+     */
+    @Override
+    public long exportTradingHistories(UUID userId, Short exchangeCode, TradingHistoryExportFormat format,
+                                       OutputStream outputStream) throws IOException {
+        long startedAt = System.currentTimeMillis();
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), EXPORT_BUFFER_SIZE);
+        long count = 0;
+        
+        try {
+            SequenceWriter rowWriter = null;
+            if (format == TradingHistoryExportFormat.CSV) {
+                writer.write(CSV_HEADER);
+                writer.write('\n');
+            } else {
+                rowWriter = objectMapper.writerFor(TradingHistoryResponse.class)
+                    .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                    .withRootValueSeparator("\n")
+                    .writeValues(writer);
+            }
+            
+            LocalDateTime cursorTradeTime = null;
+            Integer cursorId = null;
+            while (true) {
+                List<TradingHistory> page = tradingRepository.findExportPage(
+                    userId, exchangeCode, cursorTradeTime, cursorId, EXPORT_PAGE_SIZE);
+                for (TradingHistory history : page) {
+                    if (rowWriter != null) {
+                        rowWriter.write(TradingHistoryResponse.from(history));
+                    } else {
+                        writeCsvRow(writer, history);
+                    }
+                }
+                count += page.size();
+                if (rowWriter != null) {
+                    rowWriter.flush();
+                } else {
+                    writer.flush();
+                }
+                
+                if (page.size() < EXPORT_PAGE_SIZE) {
+                    break;
+                }
+                TradingHistory last = page.get(page.size() - 1);
+                cursorTradeTime = last.getTradeTime();
+                cursorId = last.getId();
+            }
+            
+            if (rowWriter != null) {
+                rowWriter.close();
+                if (count > 0) {
+                    writer.write('\n');
+                }
+            }
+            writer.flush();
+        } catch (IOException e) {
+            // 대부분 클라이언트가 다운로드 중 연결을 끊은 경우
+            log.warn("exportTradingHistories - 거래내역 내보내기 중단: userId={}, 내보낸 건수={}, {}", userId, count, e.getMessage());
+            throw e;
+        }
+        
+        log.info("exportTradingHistories - 거래내역 내보내기 완료: userId={}, format={}, {}건, {}ms", 
+            userId, format, count, System.currentTimeMillis() - startedAt);
+        return count;
+    }
+    
+    private void writeCsvRow(Writer writer, TradingHistory history) throws IOException {
+        writer.write(String.valueOf(history.getId()));
+        writer.write(',');
+        writer.write(String.valueOf(history.getUserId()));
+        writer.write(',');
+        writer.write(csvValue(history.getCoinId()));
+        writer.write(',');
+        writer.write(csvValue(history.getExchangeCode()));
+        writer.write(',');
+        writer.write(csvText(history.getTradeUuid()));
+        writer.write(',');
+        writer.write(csvValue(history.getTradeType()));
+        writer.write(',');
+        writer.write(csvValue(history.getPrice()));
+        writer.write(',');
+        writer.write(csvValue(history.getQuantity()));
+        writer.write(',');
+        writer.write(csvValue(history.getTotalPrice()));
+        writer.write(',');
+        writer.write(csvValue(history.getFee()));
+        writer.write(',');
+        writer.write(csvValue(history.getTradeTime()));
+        writer.write(',');
+        writer.write(csvValue(history.getProfitLossRate()));
+        writer.write(',');
+        writer.write(csvValue(history.getAvgBuyPrice()));
+        writer.write(',');
+        writer.write(csvValue(history.getCreatedAt()));
+        writer.write('\n');
+    }
+    
+    private String csvValue(Object value) {
+        if (value == null) {
+            return "";
+        }
+        if (value instanceof BigDecimal decimal) {
+            return decimal.toPlainString();
+        }
+        return value.toString();
+    }
+    
+    private String csvText(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+    
     private LocalDateTime parseDateTime(String dateTimeStr) {
         if (dateTimeStr == null || dateTimeStr.isEmpty()) {
             return LocalDateTime.now();
@@ -0,0 +1,74 @@
+package com.bitreiver.fetch_server.domain.trading.service;
+
+import com.bitreiver.fetch_server.domain.trading.dto.TradingHistorySyncResult;
+import com.bitreiver.fetch_server.domain.trading.enums.SyncJobStatus;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 비동기로 실행되는 거래내역 동기화 작업의 상태
+ * 작업 스레드가 갱신하고 조회 요청 스레드가 읽으므로 모든 필드는 스레드 안전하게 공개됩니다.
+ */
+@Getter
+public class TradingHistorySyncJob implements TradingHistorySyncProgress {
+
+    private final UUID jobId;
+    private final UUID userId;
+    private final String exchangeProviderStr;
+    private final LocalDateTime submittedAt;
+    private final AtomicInteger scannedWindowCount = new AtomicInteger();
+    private final AtomicInteger fetchedOrderCount = new AtomicInteger();
+    private final AtomicInteger savedCount = new AtomicInteger();
+
+    private volatile SyncJobStatus status = SyncJobStatus.PENDING;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile TradingHistorySyncResult result;
+    private volatile String errorMessage;
+
+    public TradingHistorySyncJob(UUID userId, String exchangeProviderStr) {
+        this.jobId = UUID.randomUUID();
+        this.userId = userId;
+        this.exchangeProviderStr = exchangeProviderStr;
+        this.submittedAt = LocalDateTime.now();
+    }
+
+    public boolean isFinished() {
+        return status == SyncJobStatus.COMPLETED || status == SyncJobStatus.FAILED;
+    }
+
+    public void markRunning() {
+        this.startedAt = LocalDateTime.now();
+        this.status = SyncJobStatus.RUNNING;
+    }
+
+    public void markCompleted(TradingHistorySyncResult result) {
+        this.result = result;
+        this.finishedAt = LocalDateTime.now();
+        this.status = SyncJobStatus.COMPLETED;
+    }
+
+    public void markFailed(String errorMessage) {
+        this.errorMessage = errorMessage;
+        this.finishedAt = LocalDateTime.now();
+        this.status = SyncJobStatus.FAILED;
+    }
+
+    @Override
+    public void onWindowsScanned(int count) {
+        scannedWindowCount.addAndGet(count);
+    }
+
+    @Override
+    public void onOrdersFetched(int count) {
+        fetchedOrderCount.addAndGet(count);
+    }
+
+    @Override
+    public void onHistoriesSaved(int count) {
+        savedCount.addAndGet(count);
+    }
+}
@@ -0,0 +1,10 @@
+package com.bitreiver.fetch_server.domain.trading.service;
+
+import com.bitreiver.fetch_server.domain.trading.dto.TradingHistorySyncJobResponse;
+
+import java.util.UUID;
+
+public interface TradingHistorySyncJobService {
+    TradingHistorySyncJobResponse submitSyncJob(UUID userId, String exchangeProviderStr);
+    TradingHistorySyncJobResponse getSyncJob(UUID jobId);
+}
@@ -0,0 +1,115 @@
+package com.bitreiver.fetch_server.domain.trading.service;
+
+import com.bitreiver.fetch_server.domain.trading.dto.TradingHistorySyncJobResponse;
+import com.bitreiver.fetch_server.domain.trading.dto.TradingHistorySyncResult;
+import com.bitreiver.fetch_server.global.common.exception.CustomException;
+import com.bitreiver.fetch_server.global.common.exception.ErrorCode;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Slf4j
+@Service
+public class TradingHistorySyncJobServiceImpl implements TradingHistorySyncJobService {
+    
+    private final TradingHistorySyncService tradingHistorySyncService;
+    private final ThreadPoolExecutor syncExecutor;
+    private final long jobRetentionMinutes;
+    
+    private final Map<UUID, TradingHistorySyncJob> jobs = new ConcurrentHashMap<>();
+    private final Map<String, TradingHistorySyncJob> activeJobs = new ConcurrentHashMap<>();
+    
+    /**
+     * 동기화 작업은 요청 스레드(Tomcat)와 분리된 전용 스레드 풀에서 실행합니다.
+     * 대기열이 가득 차면 작업 제출을 거부합니다.
+     */
+    public TradingHistorySyncJobServiceImpl(
+            TradingHistorySyncService tradingHistorySyncService,
+            @Value("${trading.sync.executor.pool-size:4}") int poolSize,
+            @Value("${trading.sync.executor.queue-capacity:100}") int queueCapacity,
+            @Value("${trading.sync.job-retention-minutes:60}") long jobRetentionMinutes) {
+        this.tradingHistorySyncService = tradingHistorySyncService;
+        this.jobRetentionMinutes = jobRetentionMinutes;
+        
+        AtomicInteger threadCount = new AtomicInteger();
+        this.syncExecutor = new ThreadPoolExecutor(
+            poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> {
+                Thread thread = new Thread(runnable, "trading-sync-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+    }
+    
+    @Override
+    public TradingHistorySyncJobResponse submitSyncJob(UUID userId, String exchangeProviderStr) {
+        evictFinishedJobs();
+        
+        String activeKey = userId + ":" + exchangeProviderStr.toUpperCase();
+        TradingHistorySyncJob job = new TradingHistorySyncJob(userId, exchangeProviderStr);
+        
+        // 같은 사용자·거래소의 작업이 이미 진행 중이면 새로 만들지 않고 기존 작업을 반환
+        TradingHistorySyncJob runningJob = activeJobs.putIfAbsent(activeKey, job);
+        if (runningJob != null) {
+            return TradingHistorySyncJobResponse.from(runningJob);
+        }
+        
+        jobs.put(job.getJobId(), job);
+        try {
+            syncExecutor.execute(() -> runSyncJob(activeKey, job));
+        } catch (RejectedExecutionException e) {
+            activeJobs.remove(activeKey, job);
+            jobs.remove(job.getJobId());
+            log.error("submitSyncJob - 동기화 작업 대기열 초과: user_id={}, exchange={}", userId, exchangeProviderStr);
+            throw new CustomException(ErrorCode.SYNC_JOB_REJECTED);
+        }
+        
+        return TradingHistorySyncJobResponse.from(job);
+    }
+    
+    @Override
+    public TradingHistorySyncJobResponse getSyncJob(UUID jobId) {
+        TradingHistorySyncJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new CustomException(ErrorCode.SYNC_JOB_NOT_FOUND);
+        }
+        return TradingHistorySyncJobResponse.from(job);
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        syncExecutor.shutdown();
+    }
+    
+    private void runSyncJob(String activeKey, TradingHistorySyncJob job) {
+        job.markRunning();
+        try {
+            TradingHistorySyncResult result = tradingHistorySyncService.syncTradingHistories(
+                job.getUserId(), job.getExchangeProviderStr(), job);
+            job.markCompleted(result);
+        } catch (Exception e) {
+            // 로그는 TradingHistorySyncService에서 처리
+            job.markFailed(e.getMessage());
+        } finally {
+            activeJobs.remove(activeKey, job);
+        }
+    }
+    
+    private void evictFinishedJobs() {
+        LocalDateTime threshold = LocalDateTime.now().minusMinutes(jobRetentionMinutes);
+        jobs.values().removeIf(job -> job.isFinished() && job.getFinishedAt().isBefore(threshold));
+    }
+}
@@ -0,0 +1,16 @@
+package com.bitreiver.fetch_server.domain.trading.service;
+
+/**
+ * 거래내역 동기화 진행 상황 수신자
+ * 조회 구간 묶음 하나가 저장까지 끝날 때마다 해당 묶음의 증가분이 전달됩니다.
+ */
+public interface TradingHistorySyncProgress {
+    
+    TradingHistorySyncProgress NONE = new TradingHistorySyncProgress() {};
+    
+    default void onWindowsScanned(int count) {}
+    
+    default void onOrdersFetched(int count) {}
+    
+    default void onHistoriesSaved(int count) {}
+}
@@ -0,0 +1,11 @@
+package com.bitreiver.fetch_server.domain.trading.service;
+
+import com.bitreiver.fetch_server.domain.trading.dto.TradingHistorySyncResult;
+
+import java.util.UUID;
+
+public interface TradingHistorySyncService {
+    TradingHistorySyncResult syncTradingHistories(UUID userId, String exchangeProviderStr);
+    TradingHistorySyncResult syncTradingHistories(UUID userId, String exchangeProviderStr, TradingHistorySyncProgress progress);
+    TradingHistorySyncResult syncNextBatches(UUID userId, String exchangeProviderStr, int maxBatches);
+}
@@ -0,0 +1,266 @@
+package com.bitreiver.fetch_server.domain.trading.service;
+
+import com.bitreiver.fetch_server.domain.exchange.dto.ExchangeCredentialResponse;
+import com.bitreiver.fetch_server.domain.exchange.enums.ExchangeType;
+import com.bitreiver.fetch_server.domain.exchange.service.ExchangeCredentialService;
+import com.bitreiver.fetch_server.domain.profit.service.TradingProfitService;
+import com.bitreiver.fetch_server.domain.trading.dto.TradingHistorySyncResult;
+import com.bitreiver.fetch_server.domain.trading.entity.TradingHistory;
+import com.bitreiver.fetch_server.domain.trading.entity.TradingSyncCheckpoint;
+import com.bitreiver.fetch_server.domain.trading.repository.TradingAdvisoryLockRepository;
+import com.bitreiver.fetch_server.domain.trading.repository.TradingSyncCheckpointRepository;
+import com.bitreiver.fetch_server.domain.upbit.dto.UpbitOrder;
+import com.bitreiver.fetch_server.domain.upbit.service.UpbitService;
+import com.bitreiver.fetch_server.domain.user.entity.User;
+import com.bitreiver.fetch_server.domain.user.service.UserService;
+import com.bitreiver.fetch_server.global.common.exception.CustomException;
+import com.bitreiver.fetch_server.global.common.exception.ErrorCode;
+import com.bitreiver.fetch_server.global.util.TimeUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TradingHistorySyncServiceImpl implements TradingHistorySyncService {
+
+    private final TradingHistoryService tradingHistoryService;
+    private final TradingProfitService tradingProfitService;
+    private final TradingSyncCheckpointRepository checkpointRepository;
+    private final TradingOrderArchiveService tradingOrderArchiveService;
+    private final ExchangeCredentialService exchangeCredentialService;
+    private final UpbitService upbitService;
+    private final UserService userService;
+    private final TradingAdvisoryLockRepository tradingAdvisoryLockRepository;
+
+    @Value("${trading.sync.windows-per-checkpoint:4}")
+    private int windowsPerCheckpoint;
+
+    private final Set<String> runningSyncs = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public TradingHistorySyncResult syncTradingHistories(UUID userId, String exchangeProviderStr) {
+        return syncTradingHistories(userId, exchangeProviderStr, TradingHistorySyncProgress.NONE);
+    }
+    
+    /**
+     * 거래내역을 조회 구간 묶음 단위로 조회 → 처리 → 저장하고, 묶음마다 체크포인트를 기록합니다.
+     * 중간에 실패하면 마지막으로 완료된 구간 직후부터 재개하며,
+     * 완료 후에는 저장된 거래 중 가장 늦은 trade_time을 워터마크로 남겨 다음 동기화의 시작점으로 사용합니다.
+     * 조회한 주문 응답 원문은 처리 전에 아카이브(trading_order_archives)에 먼저 저장합니다.
+     * 체결이 있는데 처리하지 못한 주문(코인 카탈로그에 없는 마켓 등)이 있으면 체크포인트를 그 묶음의 시작 시각에 고정해
+     * 다음 동기화에서 다시 조회합니다. 이후 묶음의 거래는 그대로 저장합니다.
+     */
+    @Override
+    public TradingHistorySyncResult syncTradingHistories(UUID userId, String exchangeProviderStr, 
+                                                         TradingHistorySyncProgress progress) {
+        return runSync(userId, exchangeProviderStr, progress, Integer.MAX_VALUE);
+    }
+    
+    /**
+     * 조회 구간 묶음을 최대 maxBatches개까지만 처리하고 반환합니다.
+     * 처리할 구간이 남아 있으면 completed=false를 반환하며, 다음 호출은 체크포인트부터 이어서 진행합니다.
+     * 수익률 계산과 사용자 동기화 시각 갱신은 마지막 묶음까지 처리한 호출에서만 수행합니다.
+     */
+    @Override
+    public TradingHistorySyncResult syncNextBatches(UUID userId, String exchangeProviderStr, int maxBatches) {
+        return runSync(userId, exchangeProviderStr, TradingHistorySyncProgress.NONE, maxBatches);
+    }
+    
+    private TradingHistorySyncResult runSync(UUID userId, String exchangeProviderStr,
+                                             TradingHistorySyncProgress progress, int maxBatches) {
+        // 같은 사용자·거래소의 체크포인트를 두 동기화가 동시에 갱신하지 않도록 막음
+        // (이 서버 안에서는 runningSyncs, 다른 서버와는 DB 세션 advisory lock)
+        String syncKey = userId + ":" + exchangeProviderStr.toUpperCase();
+        if (!runningSyncs.add(syncKey)) {
+            throw new CustomException(ErrorCode.SYNC_ALREADY_IN_PROGRESS);
+        }
+        TradingAdvisoryLockRepository.SyncLock syncLock = null;
+        try {
+            ExchangeType exchangeType = ExchangeType.fromName(exchangeProviderStr);
+            Short exchangeCode = (short) exchangeType.getCode();
+            
+            syncLock = tradingAdvisoryLockRepository.tryLockSync(userId, exchangeCode);
+            if (syncLock == null) {
+                throw new CustomException(ErrorCode.SYNC_ALREADY_IN_PROGRESS);
+            }
+
+            ExchangeCredentialResponse credentials = exchangeCredentialService
+                .getCredentials(userId, exchangeCode)
+                .orElseThrow(() -> new CustomException(ErrorCode.EXCHANGE_CREDENTIAL_NOT_FOUND,
+                    "User not found"));
+
+            TradingSyncCheckpoint checkpoint = checkpointRepository
+                .findByUserIdAndExchangeCode(userId, exchangeCode)
+                .orElseGet(() -> TradingSyncCheckpoint.builder()
+                    .userId(userId)
+                    .exchangeCode(exchangeCode)
+                    .createdAt(LocalDateTime.now())
+                    .build());
+
+            LocalDateTime startTime = checkpoint.resumeFrom();
+            if (startTime == null) {
+                startTime = userService.getUser(userId)
+                    .map(User::getLastTradingHistoryUpdateAt)
+                    .orElse(null);
+            }
+            long startedAt = System.currentTimeMillis();
+            // 중단된 초기 동기화를 이어서 진행하는 경우에도 완료될 때까지 초기 동기화로 취급
+            checkpoint.startSync(startTime == null);
+            checkpoint = checkpointRepository.save(checkpoint);
+            boolean isInitial = Boolean.TRUE.equals(checkpoint.getInitialSync());
+
+            LocalDateTime scanEndTime = TimeUtil.getCurrentKoreaTime();
+            LocalDateTime batchStartTime = startTime != null ? startTime : TimeUtil.UPBIT_TRADING_START_TIME;
+            int scannedWindowCount = 0;
+            int fetchedOrderCount = 0;
+            int savedCount = 0;
+            int batchCount = 0;
+            // 처리하지 못한 주문이 처음 나온 묶음의 시작 시각, 체크포인트는 이 시각을 넘어 진행하지 않음
+            LocalDateTime heldFrom = null;
+
+            while (batchStartTime.isBefore(scanEndTime) && batchCount < maxBatches) {
+                LocalDateTime batchEndTime = batchStartTime.plusDays((long) TimeUtil.TRADING_RANGE_DAYS * windowsPerCheckpoint);
+                if (batchEndTime.isAfter(scanEndTime)) {
+                    batchEndTime = scanEndTime;
+                }
+
+                List<String> uuids = upbitService.fetchAllTradingUuids(
+                    credentials.getAccessKey(), credentials.getSecretKey(), batchStartTime, batchEndTime).block();
+                List<String> newUuids = tradingHistoryService.filterNewTradeUuids(userId, exchangeCode, uuids);
+
+                List<UpbitOrder> orders = newUuids.isEmpty()
+                    ? new ArrayList<>()
+                    : upbitService.fetchAllTradingHistory(
+                        credentials.getAccessKey(), credentials.getSecretKey(), newUuids).block();
+                tradingOrderArchiveService.archiveOrders(userId, exchangeCode, batchStartTime, batchEndTime, orders);
+
+                List<TradingHistory> processedHistories =
+                    tradingHistoryService.processTradingHistories(userId, exchangeProviderStr, orders);
+                List<TradingHistory> savedHistories =
+                    tradingHistoryService.saveTradingHistories(processedHistories);
+
+                List<String> skippedUuids = findSkippedOrderUuids(orders, processedHistories);
+                if (!skippedUuids.isEmpty() && heldFrom == null) {
+                    heldFrom = batchStartTime;
+                    log.warn("syncTradingHistories - 처리하지 못한 주문이 있어 체크포인트를 고정합니다: user_id={}, held_from={}, skipped={}",
+                        userId, heldFrom, skippedUuids);
+                }
+                if (heldFrom == null) {
+                    checkpoint.completeUntil(batchEndTime, getMaxTradeTime(processedHistories), savedHistories.size());
+                } else {
+                    checkpoint.completeUntil(heldFrom, null, savedHistories.size());
+                }
+                checkpoint = checkpointRepository.save(checkpoint);
+
+                int batchWindowCount = (int) TimeUtil.streamTradingTimeRanges(batchStartTime, batchEndTime).count();
+                int batchOrderCount = orders != null ? orders.size() : 0;
+                scannedWindowCount += batchWindowCount;
+                fetchedOrderCount += batchOrderCount;
+                savedCount += savedHistories.size();
+                progress.onWindowsScanned(batchWindowCount);
+                progress.onOrdersFetched(batchOrderCount);
+                progress.onHistoriesSaved(savedHistories.size());
+                batchStartTime = batchEndTime;
+                batchCount++;
+            }
+
+            if (batchStartTime.isBefore(scanEndTime)) {
+                log.info("syncTradingHistories - 거래내역 동기화 일부 완료: user_id={}, completed_until={}, windows={}, saved={}",
+                    userId, checkpoint.getCompletedUntil(), scannedWindowCount, savedCount);
+                return TradingHistorySyncResult.builder()
+                    .isInitial(isInitial)
+                    .completed(false)
+                    .scannedWindowCount(scannedWindowCount)
+                    .fetchedOrderCount(fetchedOrderCount)
+                    .savedCount(savedCount)
+                    .lastTradeTime(checkpoint.getLastTradeTime())
+                    .build();
+            }
+
+            checkpoint.finishSync();
+
+            // 마지막 수익률 계산 이후 저장된 거래(중단된 이전 호출에서 저장된 거래 포함)가 있을 때만 계산
+            Map<String, Object> profitCalculationResult = null;
+            if (checkpoint.hasPendingProfitCalculation()) {
+                try {
+                    profitCalculationResult = tradingProfitService.calculateAndUpdateProfitLoss(
+                        userId, exchangeType.getCode(), isInitial);
+                    checkpoint.markProfitCalculated();
+                } catch (Exception e) {
+                    // 수익률 계산 실패해도 거래 내역 저장은 성공했으므로 계속 진행, 다음 동기화에서 다시 계산 (로그는 TradingProfitService에서 처리)
+                }
+            }
+            checkpoint = checkpointRepository.save(checkpoint);
+
+            userService.updateUserTradingHistoryUpdatedAt(userId, checkpoint.getLastTradeTime());
+
+            log.info("syncTradingHistories - 거래내역 동기화 완료: user_id={}, windows={}, orders={}, saved={}, elapsed_ms={}",
+                userId, scannedWindowCount, fetchedOrderCount, savedCount, System.currentTimeMillis() - startedAt);
+
+            return TradingHistorySyncResult.builder()
+                .isInitial(isInitial)
+                .completed(true)
+                .scannedWindowCount(scannedWindowCount)
+                .fetchedOrderCount(fetchedOrderCount)
+                .savedCount(savedCount)
+                .lastTradeTime(checkpoint.getLastTradeTime())
+                .profitCalculation(profitCalculationResult)
+                .build();
+        } catch (CustomException e) {
+            log.error("syncTradingHistories - {}", e.getMessage());
+            throw e;
+        } catch (Exception e) {
+            log.error("syncTradingHistories - 예상치 못한 오류 발생: {}", e.getMessage(), e);
+            throw new CustomException(ErrorCode.INTERNAL_ERROR,
+                "거래내역 동기화 중 오류가 발생했습니다: " + e.getMessage());
+        } finally {
+            if (syncLock != null) {
+                syncLock.close();
+            }
+            runningSyncs.remove(syncKey);
+        }
+    }
+
+    /**
+     * 체결이 있는데 거래 내역으로 변환되지 않은 주문의 uuid를 반환합니다.
+     */
+    private List<String> findSkippedOrderUuids(List<UpbitOrder> orders, List<TradingHistory> processedHistories) {
+        List<String> skippedUuids = new ArrayList<>();
+        if (orders == null || orders.isEmpty()) {
+            return skippedUuids;
+        }
+        Set<String> processedUuids = new HashSet<>();
+        for (TradingHistory history : processedHistories) {
+            processedUuids.add(history.getTradeUuid());
+        }
+        for (UpbitOrder order : orders) {
+            if (order.getTrades() != null && !order.getTrades().isEmpty() && !processedUuids.contains(order.getUuid())) {
+                skippedUuids.add(order.getUuid());
+            }
+        }
+        return skippedUuids;
+    }
+
+    private LocalDateTime getMaxTradeTime(List<TradingHistory> histories) {
+        LocalDateTime maxTradeTime = null;
+        for (TradingHistory history : histories) {
+            LocalDateTime tradeTime = history.getTradeTime();
+            if (tradeTime != null && (maxTradeTime == null || tradeTime.isAfter(maxTradeTime))) {
+                maxTradeTime = tradeTime;
+            }
+        }
+        return maxTradeTime;
+    }
+}
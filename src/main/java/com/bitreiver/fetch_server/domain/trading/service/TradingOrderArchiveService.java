@@ -0,0 +1,13 @@
+package com.bitreiver.fetch_server.domain.trading.service;
+
+import com.bitreiver.fetch_server.domain.upbit.dto.UpbitOrder;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+public interface TradingOrderArchiveService {
+    void archiveOrders(UUID userId, Short exchangeCode, LocalDateTime rangeStart, LocalDateTime rangeEnd, List<UpbitOrder> orders);
+    Map<String, Object> reprocessTradingHistories(UUID userId, String exchangeProviderStr);
+}
@@ -0,0 +1,207 @@
+package com.bitreiver.fetch_server.domain.trading.service;
+
+import com.bitreiver.fetch_server.domain.exchange.enums.ExchangeType;
+import com.bitreiver.fetch_server.domain.profit.service.TradingProfitService;
+import com.bitreiver.fetch_server.domain.trading.entity.TradingHistory;
+import com.bitreiver.fetch_server.domain.trading.entity.TradingOrderArchive;
+import com.bitreiver.fetch_server.domain.trading.repository.TradingAdvisoryLockRepository;
+import com.bitreiver.fetch_server.domain.trading.repository.TradingOrderArchiveRepository;
+import com.bitreiver.fetch_server.domain.upbit.dto.UpbitOrder;
+import com.bitreiver.fetch_server.global.common.exception.CustomException;
+import com.bitreiver.fetch_server.global.common.exception.ErrorCode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+@Slf4j
+@Service
+public class TradingOrderArchiveServiceImpl implements TradingOrderArchiveService {
+    
+    private final TradingOrderArchiveRepository archiveRepository;
+    private final TradingHistoryService tradingHistoryService;
+    private final TradingProfitService tradingProfitService;
+    private final TradingAdvisoryLockRepository tradingAdvisoryLockRepository;
+    private final ObjectMapper objectMapper;
+    private final boolean archiveEnabled;
+    
+    public TradingOrderArchiveServiceImpl(
+            TradingOrderArchiveRepository archiveRepository,
+            TradingHistoryService tradingHistoryService,
+            TradingProfitService tradingProfitService,
+            TradingAdvisoryLockRepository tradingAdvisoryLockRepository,
+            ObjectMapper objectMapper,
+            @Value("${trading.archive.enabled:true}") boolean archiveEnabled) {
+        this.archiveRepository = archiveRepository;
+        this.tradingHistoryService = tradingHistoryService;
+        this.tradingProfitService = tradingProfitService;
+        this.tradingAdvisoryLockRepository = tradingAdvisoryLockRepository;
+        this.objectMapper = objectMapper;
+        this.archiveEnabled = archiveEnabled;
+    }
+    
+    /**
+     * 동기화 묶음에서 조회한 주문 응답 원문을 gzip 압축 NDJSON 한 행으로 추가합니다.
+     * 원문은 응답에서 잘라 둔 바이트(rawPayload)를 다시 직렬화하지 않고 그대로 씁니다.
+     * 아카이브는 추가만 하며, 같은 주문이 여러 번 저장되면 재처리 시 가장 최근 원문을 사용합니다.
+     */
+    @Override
+    @Transactional
+    public void archiveOrders(UUID userId, Short exchangeCode, LocalDateTime rangeStart, LocalDateTime rangeEnd,
+                              List<UpbitOrder> orders) {
+        if (!archiveEnabled || orders == null || orders.isEmpty()) {
+            return;
+        }
+        try {
+            ByteArrayOutputStream raw = new ByteArrayOutputStream();
+            for (UpbitOrder order : orders) {
+                raw.write(order.getRawPayload() != null ? order.getRawPayload() : objectMapper.writeValueAsBytes(order));
+                raw.write('\n');
+            }
+            
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(raw.size() / 4 + 64);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                raw.writeTo(gzip);
+            }
+            
+            archiveRepository.save(TradingOrderArchive.builder()
+                .userId(userId)
+                .exchangeCode(exchangeCode)
+                .rangeStart(rangeStart)
+                .rangeEnd(rangeEnd)
+                .orderCount(orders.size())
+                .rawSize(raw.size())
+                .payload(compressed.toByteArray())
+                .createdAt(LocalDateTime.now())
+                .build());
+            
+            log.debug("archiveOrders - 주문 원문 저장: user_id={}, orders={}, raw_bytes={}, compressed_bytes={}", 
+                userId, orders.size(), raw.size(), compressed.size());
+        } catch (IOException e) {
+            log.error("archiveOrders - 주문 원문 압축 실패: user_id={}, {}", userId, e.getMessage(), e);
+            throw new CustomException(ErrorCode.INTERNAL_ERROR, 
+                "주문 원문 저장 중 오류가 발생했습니다: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * 아카이브된 주문 원문만으로 trading_histories를 다시 만듭니다. 거래소 API는 호출하지 않습니다.
+     * 
+     * - 사용자·거래소 단위 한 트랜잭션에서 실행하며, 거래내역 저장·수익률 계산과 같은 advisory lock을 잡습니다.
+     *   중간에 실패하면 모두 롤백되어 재처리 전 상태가 유지됩니다.
+     * - 최근 묶음부터 한 행씩 읽어 주문 UUID별로 가장 최근 원문만 사용합니다.
+     * - 묶음마다 현재 processTradingHistories로 다시 변환된 주문의 기존 거래만 지우고 변환한 거래를 저장합니다.
+     * - 다시 변환되지 않는 주문(체결 정보 없음, 코인 카탈로그에 없음 등)은 일시적인 상태로 보고 기존 거래를 그대로 두며,
+     *   결과의 skipped_order_uuids로 알려 줍니다.
+     * - 아카이브에 없는 거래(아카이브 도입 이전에 저장된 거래)는 그대로 둡니다.
+     * - 같은 트랜잭션에서 수익률을 전체 재계산합니다.
+     */
+    @Override
+    @Transactional
+    public Map<String, Object> reprocessTradingHistories(UUID userId, String exchangeProviderStr) {
+        try {
+            ExchangeType exchangeType = ExchangeType.fromName(exchangeProviderStr);
+            Short exchangeCode = (short) exchangeType.getCode();
+            long startedAt = System.currentTimeMillis();
+            
+            tradingAdvisoryLockRepository.lockUserExchange(userId, exchangeCode);
+            
+            List<Long> archiveIds = archiveRepository.findIdsNewestFirst(userId, exchangeCode);
+            Set<String> seenUuids = new HashSet<>();
+            List<String> skippedUuids = new ArrayList<>();
+            int orderCount = 0;
+            int replacedCount = 0;
+            int rebuiltCount = 0;
+            
+            for (Long archiveId : archiveIds) {
+                TradingOrderArchiveRepository.ArchivePayload archive = archiveRepository.findPayloadById(archiveId).orElse(null);
+                if (archive == null) {
+                    continue;
+                }
+                
+                List<String> archivedUuids = new ArrayList<>();
+                List<UpbitOrder> orders = new ArrayList<>();
+                for (UpbitOrder order : readOrders(archive.getPayload())) {
+                    if (order.getUuid() == null || !seenUuids.add(order.getUuid())) {
+                        continue;
+                    }
+                    archivedUuids.add(order.getUuid());
+                    UpbitOrder resolved = order.withResolvedTrades();
+                    if (resolved != null) {
+                        orders.add(resolved);
+                    }
+                }
+                if (archivedUuids.isEmpty()) {
+                    continue;
+                }
+                
+                List<TradingHistory> histories = orders.isEmpty()
+                    ? new ArrayList<>()
+                    : tradingHistoryService.processTradingHistories(userId, exchangeType.name(), orders);
+                
+                // 다시 변환된 주문만 교체하고, 변환되지 않은 주문(체결 정보 없음, 코인 없음 등)의 기존 거래는 그대로 둠
+                Set<String> rebuiltUuids = new LinkedHashSet<>();
+                histories.forEach(history -> rebuiltUuids.add(history.getTradeUuid()));
+                for (String uuid : archivedUuids) {
+                    if (!rebuiltUuids.contains(uuid)) {
+                        skippedUuids.add(uuid);
+                    }
+                }
+                orderCount += archivedUuids.size();
+                if (rebuiltUuids.isEmpty()) {
+                    continue;
+                }
+                
+                rebuiltCount += tradingHistoryService.replaceTradingHistories(userId, exchangeCode, new ArrayList<>(rebuiltUuids),
+                    archive.getRangeStart(), archive.getRangeEnd(), histories).size();
+                replacedCount += rebuiltUuids.size();
+            }
+            
+            Map<String, Object> profitCalculationResult = replacedCount > 0
+                ? tradingProfitService.calculateAndUpdateProfitLoss(userId, exchangeType.getCode(), true)
+                : null;
+            
+            long elapsedMs = System.currentTimeMillis() - startedAt;
+            log.info("reprocessTradingHistories - 거래내역 재처리 완료: user_id={}, archives={}, orders={}, rebuilt={}, skipped={}, elapsed_ms={}",
+                userId, archiveIds.size(), orderCount, rebuiltCount, skippedUuids.size(), elapsedMs);
+            if (!skippedUuids.isEmpty()) {
+                log.warn("reprocessTradingHistories - 다시 변환되지 않아 기존 거래를 유지한 주문: user_id={}, uuids={}",
+                    userId, skippedUuids);
+            }
+            
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("archive_count", archiveIds.size());
+            result.put("order_count", orderCount);
+            result.put("rebuilt_count", rebuiltCount);
+            result.put("skipped_count", skippedUuids.size());
+            result.put("skipped_order_uuids", skippedUuids);
+            result.put("elapsed_ms", elapsedMs);
+            result.put("profit_calculation", profitCalculationResult);
+            return result;
+        } catch (CustomException e) {
+            log.error("reprocessTradingHistories - {}", e.getMessage());
+            throw e;
+        } catch (Exception e) {
+            log.error("reprocessTradingHistories - 예상치 못한 오류 발생: {}", e.getMessage(), e);
+            throw new CustomException(ErrorCode.INTERNAL_ERROR, 
+                "거래내역 재처리 중 오류가 발생했습니다: " + e.getMessage());
+        }
+    }
+    
+    private List<UpbitOrder> readOrders(byte[] payload) throws IOException {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(payload))) {
+            return UpbitOrder.readAll(objectMapper, in.readAllBytes());
+        }
+    }
+}
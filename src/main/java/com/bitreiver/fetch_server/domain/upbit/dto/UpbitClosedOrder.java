@@ -0,0 +1,28 @@
+package com.bitreiver.fetch_server.domain.upbit.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * 종료된 주문 목록(/v1/orders/closed)의 원소
+ * 체결 여부 판단에 필요한 필드만 디코딩하고 나머지 필드는 건너뜁니다.
+ */
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class UpbitClosedOrder {
+    private String uuid;
+
+    @JsonProperty("executed_volume")
+    private BigDecimal executedVolume;
+
+    public boolean isExecuted() {
+        return uuid != null && executedVolume != null && executedVolume.signum() != 0;
+    }
+}
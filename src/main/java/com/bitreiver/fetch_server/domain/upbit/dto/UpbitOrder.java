@@ -0,0 +1,109 @@
+package com.bitreiver.fetch_server.domain.upbit.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 주문 상세(/v1/order, /v1/orders/uuids)
+ * 거래내역 저장에 필요한 필드만 디코딩하고 나머지 필드는 건너뜁니다.
+ * 응답 원문은 rawPayload(주문 하나의 JSON 바이트)로 함께 보관해 주문 원문 아카이브에 그대로 저장합니다.
+ */
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class UpbitOrder {
+    private String uuid;
+    private String side;
+    private String market;
+
+    @JsonProperty("created_at")
+    private String createdAt;
+
+    @JsonProperty("paid_fee")
+    private BigDecimal paidFee;
+
+    @JsonProperty("executed_volume")
+    private BigDecimal executedVolume;
+
+    @JsonProperty("executed_funds")
+    private BigDecimal executedFunds;
+
+    private List<UpbitTrade> trades;
+
+    /** 디코딩 전 응답 원문 */
+    @JsonIgnore
+    private byte[] rawPayload;
+
+    /**
+     * 주문 JSON(단건 객체, 배열, 또는 줄마다 하나씩 이어진 값)을 트리로 만들지 않고 주문 단위로 디코딩합니다.
+     * 각 주문에는 입력에서 해당 주문이 차지하는 바이트를 그대로 잘라 rawPayload로 담습니다.
+     */
+    public static List<UpbitOrder> readAll(ObjectMapper objectMapper, byte[] json) throws IOException {
+        List<UpbitOrder> orders = new ArrayList<>();
+        try (JsonParser parser = objectMapper.getFactory().createParser(json)) {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                if (token == JsonToken.START_OBJECT) {
+                    orders.add(readOne(objectMapper, parser, json));
+                } else if (token == JsonToken.START_ARRAY) {
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        orders.add(readOne(objectMapper, parser, json));
+                    }
+                }
+            }
+        }
+        return orders;
+    }
+
+    private static UpbitOrder readOne(ObjectMapper objectMapper, JsonParser parser, byte[] json) throws IOException {
+        int start = (int) parser.getTokenLocation().getByteOffset();
+        UpbitOrder order = objectMapper.readValue(parser, UpbitOrder.class);
+        int end = (int) parser.getCurrentLocation().getByteOffset();
+        return order.withRawPayload(Arrays.copyOfRange(json, start, end));
+    }
+
+    public boolean hasTrades() {
+        return trades != null && !trades.isEmpty();
+    }
+
+    /**
+     * 체결 합계(executed_volume, executed_funds)를 단일 체결로 환산한 주문을 반환합니다.
+     */
+    public UpbitOrder withAggregatedTrade() {
+        return new UpbitOrder(uuid, side, market, createdAt, paidFee, executedVolume, executedFunds,
+            List.of(new UpbitTrade(executedVolume, executedFunds)), rawPayload);
+    }
+
+    /**
+     * 체결 목록(trades)이 있는 주문은 그대로 반환합니다.
+     * 체결 목록 없이 체결 합계만 있는 주문은 합계를 단일 체결로 환산하고,
+     * 둘 다 없으면 null을 반환합니다.
+     */
+    public UpbitOrder withResolvedTrades() {
+        if (hasTrades()) {
+            return this;
+        }
+        if (executedVolume == null || executedFunds == null) {
+            return null;
+        }
+        return withAggregatedTrade();
+    }
+
+    public UpbitOrder withRawPayload(byte[] rawPayload) {
+        return new UpbitOrder(uuid, side, market, createdAt, paidFee, executedVolume, executedFunds, trades, rawPayload);
+    }
+}
@@ -0,0 +1,20 @@
+package com.bitreiver.fetch_server.domain.upbit.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * 주문의 체결 내역 (체결 수량과 체결 금액만 디코딩)
+ */
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class UpbitTrade {
+    private BigDecimal volume;
+    private BigDecimal funds;
+}
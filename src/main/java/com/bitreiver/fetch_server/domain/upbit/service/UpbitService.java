@@ -1,5 +1,6 @@
 package com.bitreiver.fetch_server.domain.upbit.service;
 
+import com.bitreiver.fetch_server.domain.upbit.dto.UpbitOrder;
 import reactor.core.publisher.Mono;
 
 import java.time.LocalDateTime;
@@ -8,7 +9,9 @@ import java.util.Map;
 
 public interface UpbitService {
     Mono<List<String>> fetchAllTradingUuids(String accessKey, String secretKey, LocalDateTime startTime);
-    Mono<List<Map<String, Object>>> fetchAllTradingHistory(String accessKey, String secretKey, List<String> uuids);
+    Mono<List<String>> fetchAllTradingUuids(String accessKey, String secretKey, LocalDateTime startTime, LocalDateTime endTime);
+    Mono<List<UpbitOrder>> fetchAllTradingHistory(String accessKey, String secretKey, List<String> uuids);
+    Mono<List<UpbitOrder>> fetchOrdersByUuids(String accessKey, String secretKey, List<String> uuids);
     Mono<List<Map<String, Object>>> fetchAllCoinList();
     Mono<List<Map<String, Object>>> fetchAccounts(String accessKey, String secretKey);
 }
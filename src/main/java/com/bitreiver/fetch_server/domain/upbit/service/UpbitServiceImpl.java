@@ -1,5 +1,7 @@
 package com.bitreiver.fetch_server.domain.upbit.service;
 
+import com.bitreiver.fetch_server.domain.upbit.dto.UpbitClosedOrder;
+import com.bitreiver.fetch_server.domain.upbit.dto.UpbitOrder;
 import com.bitreiver.fetch_server.global.common.exception.CustomException;
 import com.bitreiver.fetch_server.global.common.exception.ErrorCode;
 import com.bitreiver.fetch_server.global.util.TimeUtil;
@@ -7,13 +9,16 @@ import com.bitreiver.fetch_server.infra.upbit.UpbitClient;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.codec.json.Jackson2JsonDecoder;
 import org.springframework.http.codec.json.Jackson2JsonEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.*;
 
@@ -25,111 +30,129 @@ public class UpbitServiceImpl implements UpbitService {
     private final UpbitClient upbitClient;
     private final ObjectMapper objectMapper;
     
+    private static final int ORDER_BATCH_SIZE = 100;
+    
+    @Value("${external.upbit.sync.order-fetch-concurrency:8}")
+    private int orderFetchConcurrency;
+    
+    @Value("${external.upbit.sync.window-scan-concurrency:4}")
+    private int windowScanConcurrency;
+    
+    /**
+     * 7일 단위 조회 구간별로 종료된 주문(/v1/orders/closed)을 조회하여 체결된 주문의 UUID를 수집합니다.
+     * 구간은 지연 생성되며 최대 windowScanConcurrency개 구간을 동시에 조회하고, 결과는 구간 순서대로 합쳐집니다.
+     * 요청 속도는 UpbitClient가 상세 조회와 같은 Access Key별 토큰 버킷으로 제한합니다.
+     */
     @Override
     public Mono<List<String>> fetchAllTradingUuids(String accessKey, String secretKey, LocalDateTime startTime) {
-        try {
-            if (startTime == null) {
-                startTime = LocalDateTime.of(2017, 11, 1, 0, 0);
-            }
-            
-            LocalDateTime currentTime = TimeUtil.getCurrentKoreaTime();
-            List<String[]> timeRanges = TimeUtil.getAllTradingTimeRanges(startTime, currentTime);
-            
-            List<String> allUuids = new ArrayList<>();
-            
-            for (int i = 0; i < timeRanges.size(); i++) {
-                String[] range = timeRanges.get(i);
-                Map<String, Object> params = new LinkedHashMap<>();
-                params.put("states[]", Arrays.asList("done", "cancel"));
-                params.put("start_time", range[0]);
-                params.put("end_time", range[1]);
-                params.put("limit", 1000);
-
-                
-                Object response = upbitClient.get("/v1/orders/closed", accessKey, secretKey, params, true)
-                    .block();
-                
-                if (response == null) {
-                    continue;
-                }
-                
-                if (response instanceof List) {
-                    List<?> responseList = (List<?>) response;
-                    for (Object r : responseList) {
-                        if (r instanceof Map) {
-                            Map<String, Object> item = (Map<String, Object>) r;
-                            Object executedVolume = item.get("executed_volume");
-                            if (executedVolume != null && !"0".equals(executedVolume.toString())) {
-                                Object uuid = item.get("uuid");
-                                if (uuid != null) {
-                                    allUuids.add(uuid.toString());
-                                }
-                            }
-                        }
-                    }
-                }
-                
-                if ((i + 1) % 25 == 0) {
-                    try {
-                        Thread.sleep(1000);
-                    } catch (InterruptedException e) {
-                        Thread.currentThread().interrupt();
-                    }
-                }
-            }
-            
-            return Mono.just(allUuids);
-        } catch (CustomException e) {
-            log.error("fetchAllTradingUuids - {}", e.getMessage());
-            return Mono.error(e);
-        } catch (Exception e) {
-            log.error("fetchAllTradingUuids - 예상치 못한 오류 발생: {}", e.getMessage(), e);
-            return Mono.error(new CustomException(ErrorCode.INTERNAL_ERROR, 
-                "거래 UUID 조회 중 오류가 발생했습니다: " + e.getMessage()));
+        return fetchAllTradingUuids(accessKey, secretKey, startTime, TimeUtil.getCurrentKoreaTime());
+    }
+    
+    @Override
+    public Mono<List<String>> fetchAllTradingUuids(String accessKey, String secretKey, 
+                                                   LocalDateTime startTime, LocalDateTime endTime) {
+        LocalDateTime scanStartTime = startTime != null ? startTime : TimeUtil.UPBIT_TRADING_START_TIME;
+        
+        return Flux.fromStream(() -> TimeUtil.streamTradingTimeRanges(scanStartTime, endTime))
+            .flatMapSequential(range -> fetchClosedOrderUuids(accessKey, secretKey, range), windowScanConcurrency)
+            .flatMapIterable(uuids -> uuids)
+            .collectList()
+            .onErrorMap(error -> !(error instanceof CustomException), error -> {
+                log.error("fetchAllTradingUuids - 예상치 못한 오류 발생: {}", error.getMessage(), error);
+                return new CustomException(ErrorCode.INTERNAL_ERROR, 
+                    "거래 UUID 조회 중 오류가 발생했습니다: " + error.getMessage());
+            });
+    }
+    
+    private Mono<List<String>> fetchClosedOrderUuids(String accessKey, String secretKey, String[] range) {
+        Map<String, Object> params = new LinkedHashMap<>();
+        params.put("states[]", Arrays.asList("done", "cancel"));
+        params.put("start_time", range[0]);
+        params.put("end_time", range[1]);
+        params.put("limit", 1000);
+        
+        return upbitClient.getFlux("/v1/orders/closed", accessKey, secretKey, params, true, UpbitClosedOrder.class)
+            .filter(UpbitClosedOrder::isExecuted)
+            .map(UpbitClosedOrder::getUuid)
+            .collectList();
+    }
+    
+    /**
+     * 주문 상세를 UUID 100개 단위로 일괄 조회(/v1/orders/uuids)합니다.
+     * 일괄 조회 결과에 체결 정보가 없는 주문만 단건 조회(/v1/order)로 보완합니다.
+     * 요청 속도는 UpbitClient가 Access Key별 토큰 버킷(UpbitRateLimiter)으로 Upbit 허용치에 맞춰 조절하며,
+     * 결과는 입력 UUID 순서대로 반환됩니다. 각 주문에는 응답 원문(rawPayload)이 함께 담깁니다.
+     */
+    @Override
+    public Mono<List<UpbitOrder>> fetchAllTradingHistory(String accessKey, String secretKey, List<String> uuids) {
+        if (uuids == null || uuids.isEmpty()) {
+            return Mono.just(new ArrayList<>());
         }
+        
+        return Flux.fromIterable(uuids)
+            .buffer(ORDER_BATCH_SIZE)
+            .flatMapSequential(batch -> fetchOrderBatch(accessKey, secretKey, batch), orderFetchConcurrency)
+            .collectList()
+            .onErrorMap(error -> !(error instanceof CustomException), error -> {
+                log.error("fetchAllTradingHistory - 예상치 못한 오류 발생: {}", error.getMessage(), error);
+                return new CustomException(ErrorCode.INTERNAL_ERROR, 
+                    "거래내역 조회 중 오류가 발생했습니다: " + error.getMessage());
+            });
     }
     
     @Override
-    public Mono<List<Map<String, Object>>> fetchAllTradingHistory(String accessKey, String secretKey, List<String> uuids) {
-        try {
-            List<Map<String, Object>> tradingHistories = new ArrayList<>();
-            
-            try {
-                Thread.sleep(1000);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
-            
-            for (int i = 0; i < uuids.size(); i++) {
-                String uuid = uuids.get(i);
-                
-                Map<String, Object> params = new HashMap<>();
-                params.put("uuid", uuid);
-                
-                Object response = upbitClient.get("/v1/order", accessKey, secretKey, params, true)
-                    .block();
-                
-                if (response != null && response instanceof Map) {
-                    tradingHistories.add((Map<String, Object>) response);
-                }
-                
-                if ((i + 1) % 25 == 0) {
-                    try {
-                        Thread.sleep(1000);
-                    } catch (InterruptedException e) {
-                        Thread.currentThread().interrupt();
+    public Mono<List<UpbitOrder>> fetchOrdersByUuids(String accessKey, String secretKey, List<String> uuids) {
+        Map<String, Object> params = new LinkedHashMap<>();
+        params.put("uuids[]", uuids);
+        
+        return upbitClient.getMono("/v1/orders/uuids", accessKey, secretKey, params, true, byte[].class)
+            .map(this::toOrders);
+    }
+    
+    private Flux<UpbitOrder> fetchOrderBatch(String accessKey, String secretKey, List<String> batch) {
+        return fetchOrdersByUuids(accessKey, secretKey, batch)
+            .flatMapMany(orders -> {
+                Map<String, UpbitOrder> ordersByUuid = new HashMap<>();
+                for (UpbitOrder order : orders) {
+                    if (order.getUuid() != null) {
+                        ordersByUuid.put(order.getUuid(), order);
                     }
                 }
-            }
-            
-            return Mono.just(tradingHistories);
-        } catch (CustomException e) {
-            log.error("fetchAllTradingHistory - {}", e.getMessage());
-            return Mono.error(e);
-        } catch (Exception e) {
-            log.error("fetchAllTradingHistory - 예상치 못한 오류 발생: {}", e.getMessage(), e);
-            return Mono.error(new CustomException(ErrorCode.INTERNAL_ERROR, 
-                "거래내역 조회 중 오류가 발생했습니다: " + e.getMessage()));
+                
+                return Flux.fromIterable(batch)
+                    .flatMapSequential(uuid -> {
+                        UpbitOrder order = withTrades(ordersByUuid.get(uuid));
+                        return order != null ? Mono.just(order) : fetchOrder(accessKey, secretKey, uuid);
+                    }, orderFetchConcurrency);
+            });
+    }
+    
+    /**
+     * 체결 목록(trades)이 있는 주문은 그대로 반환합니다.
+     * 체결 목록 없이 체결 합계(executed_volume, executed_funds)만 있는 주문은 합계를 단일 체결로 환산하고,
+     * 둘 다 없으면 null을 반환해 단건 조회가 필요함을 알립니다.
+     */
+    private UpbitOrder withTrades(UpbitOrder order) {
+        return order != null ? order.withResolvedTrades() : null;
+    }
+    
+    private Mono<UpbitOrder> fetchOrder(String accessKey, String secretKey, String uuid) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("uuid", uuid);
+        
+        return upbitClient.getMono("/v1/order", accessKey, secretKey, params, true, byte[].class)
+            .flatMapIterable(this::toOrders)
+            .next();
+    }
+    
+    /**
+     * 주문 응답 본문(byte)을 DTO로 직접 디코딩하고, 주문마다 본문에서 잘라낸 원문을 함께 담아 반환합니다.
+     */
+    private List<UpbitOrder> toOrders(byte[] body) {
+        try {
+            return UpbitOrder.readAll(objectMapper, body);
+        } catch (IOException e) {
+            throw new CustomException(ErrorCode.INTERNAL_ERROR, "주문 응답을 해석할 수 없습니다: " + e.getMessage());
         }
     }
     
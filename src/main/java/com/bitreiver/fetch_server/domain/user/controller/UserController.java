@@ -3,7 +3,14 @@ package com.bitreiver.fetch_server.domain.user.controller;
 import com.bitreiver.fetch_server.domain.user.dto.*;
 import com.bitreiver.fetch_server.domain.user.service.UserService;
 import com.bitreiver.fetch_server.domain.trading.service.TradingHistoryService;
-import com.bitreiver.fetch_server.domain.profit.service.TradingProfitService;
+import com.bitreiver.fetch_server.domain.trading.dto.TradingHistoryPageResponse;
+import com.bitreiver.fetch_server.domain.trading.dto.TradingHistoryReprocessJobResponse;
+import com.bitreiver.fetch_server.domain.trading.dto.TradingHistorySyncJobResponse;
+import com.bitreiver.fetch_server.domain.trading.dto.TradingHistorySyncResult;
+import com.bitreiver.fetch_server.domain.trading.enums.TradingHistoryExportFormat;
+import com.bitreiver.fetch_server.domain.trading.service.TradingHistoryReprocessJobService;
+import com.bitreiver.fetch_server.domain.trading.service.TradingHistorySyncJobService;
+import com.bitreiver.fetch_server.domain.trading.service.TradingHistorySyncService;
 import com.bitreiver.fetch_server.domain.exchange.enums.ExchangeType;
 import com.bitreiver.fetch_server.global.common.exception.CustomException;
 import com.bitreiver.fetch_server.global.common.exception.ErrorCode;
@@ -14,12 +21,17 @@ import io.swagger.v3.oas.annotations.enums.ParameterIn;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/user")
@@ -29,7 +41,9 @@ public class UserController {
     
     private final UserService userService;
     private final TradingHistoryService tradingHistoryService;
-    private final TradingProfitService tradingProfitService;
+    private final TradingHistorySyncService tradingHistorySyncService;
+    private final TradingHistorySyncJobService tradingHistorySyncJobService;
+    private final TradingHistoryReprocessJobService tradingHistoryReprocessJobService;
     
     @Operation(summary = "회원가입", description = "새로운 사용자를 등록합니다. 로컬 가입 시 비밀번호가 필수입니다.")
     @ApiResponses(value = {
@@ -82,7 +96,7 @@ public class UserController {
         ));
     }
     
-    @Operation(summary = "거래내역 조회", description = "사용자의 모든 거래내역을 조회합니다.")
+    @Operation(summary = "거래내역 조회", description = "사용자의 모든 거래내역을 조회합니다. 거래내역이 바뀌기 전까지는 Redis에 캐시된 응답을 반환합니다.")
     @ApiResponses(value = {
         @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "조회 성공"),
         @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "500", description = "서버 내부 오류")
@@ -95,12 +109,96 @@ public class UserController {
             "거래내역 조회 완료 (총 " + data.get("total_count") + "개)"));
     }
     
+    @Operation(
+        summary = "거래내역 페이지 조회", 
+        description = "사용자의 거래내역을 거래 일시 최신순으로 페이지 단위 조회합니다.\n\n" +
+                     "- 첫 페이지는 cursor 없이 요청하고, 다음 페이지는 응답의 nextCursor를 cursor로 전달합니다.\n" +
+                     "- exchange_code, coin_id, from(포함), to(미포함)로 필터링할 수 있습니다."
+    )
+    @ApiResponses(value = {
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "조회 성공"),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "잘못된 커서 또는 날짜 범위"),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "500", description = "서버 내부 오류")
+    })
+    @Parameter(name = "user_id", description = "사용자 UUID", example = "123e4567-e89b-12d3-a456-426614174000", required = true, in = ParameterIn.PATH)
+    @GetMapping("/trading-history/{user_id}")
+    public ResponseEntity<ApiResponse<TradingHistoryPageResponse>> getTradingHistoryPage(
+            @PathVariable("user_id") UUID userId,
+            @Parameter(description = "거래소 코드 (1:UPBIT)", example = "1")
+            @RequestParam(value = "exchange_code", required = false) Short exchangeCode,
+            @Parameter(description = "코인 ID", example = "1")
+            @RequestParam(value = "coin_id", required = false) Integer coinId,
+            @Parameter(description = "조회 시작 일시 (포함)", example = "2024-01-01T00:00:00")
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "조회 종료 일시 (미포함)", example = "2024-02-01T00:00:00")
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @Parameter(description = "이전 응답의 nextCursor")
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @Parameter(description = "페이지 크기 (기본 50, 최대 500)", example = "50")
+            @RequestParam(value = "size", required = false) Integer size) {
+        TradingHistoryPageResponse response = tradingHistoryService.getTradingHistoryPage(
+            userId, exchangeCode, coinId, from, to, cursor, size);
+        return ResponseEntity.ok(ApiResponse.success(response, 
+            "거래내역 조회 완료 (" + response.getTradingHistories().size() + "개)"));
+    }
+    
+    @Operation(
+        summary = "거래내역 내보내기", 
+        description = "사용자의 거래내역 전체를 거래 일시 최신순으로 NDJSON(한 줄에 하나의 JSON) 또는 CSV 파일로 내려받습니다.\n\n" +
+                     "- DB에서 읽는 대로 바로 응답에 쓰므로 거래내역이 많아도 서버 메모리 사용량이 일정합니다.\n" +
+                     "- 요청의 Accept-Encoding에 gzip이 있으면 gzip으로 압축해 응답합니다.\n" +
+                     "- NDJSON의 각 줄은 거래내역 페이지 조회 API의 거래내역 항목과 같은 형식입니다."
+    )
+    @ApiResponses(value = {
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "내보내기 성공"),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "잘못된 내보내기 형식")
+    })
+    @Parameter(name = "user_id", description = "사용자 UUID", example = "123e4567-e89b-12d3-a456-426614174000", required = true, in = ParameterIn.PATH)
+    @GetMapping("/trading-history/{user_id}/export")
+    public ResponseEntity<StreamingResponseBody> exportTradingHistory(
+            @PathVariable("user_id") UUID userId,
+            @Parameter(description = "내보내기 형식 (ndjson, csv)", example = "ndjson")
+            @RequestParam(value = "format", defaultValue = "ndjson") String format,
+            @Parameter(description = "거래소 코드 (1:UPBIT)", example = "1")
+            @RequestParam(value = "exchange_code", required = false) Short exchangeCode,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        TradingHistoryExportFormat exportFormat;
+        try {
+            exportFormat = TradingHistoryExportFormat.fromName(format);
+        } catch (IllegalArgumentException e) {
+            throw new CustomException(ErrorCode.BAD_REQUEST, "잘못된 내보내기 형식입니다. ndjson, csv 중 하나를 입력해주세요.");
+        }
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+        
+        StreamingResponseBody body = outputStream -> {
+            if (gzip) {
+                GZIPOutputStream gzipOutputStream = new GZIPOutputStream(outputStream, 64 * 1024);
+                tradingHistoryService.exportTradingHistories(userId, exchangeCode, exportFormat, gzipOutputStream);
+                gzipOutputStream.finish();
+            } else {
+                tradingHistoryService.exportTradingHistories(userId, exchangeCode, exportFormat, outputStream);
+            }
+        };
+        
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(exportFormat.getContentType() + ";charset=UTF-8"))
+            .header(HttpHeaders.CONTENT_DISPOSITION, 
+                "attachment; filename=\"trading_histories_" + userId + "." + exportFormat.getExtension() + "\"")
+            .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+    
     @Operation(
         summary = "거래내역 업데이트", 
         description = "거래소 API에서 거래내역을 조회하여 저장하고 수익률을 계산합니다.\n\n" +
                      "- 최초 동기화인 경우: 전체 거래내역을 순회하며 수익률 계산\n" +
                      "- 이후 업데이트인 경우: 기존 보유 종목 평단을 사용하여 계산\n" +
-                     "- 거래내역이 저장된 경우에만 수익률 계산을 수행합니다."
+                     "- 이전 동기화가 중간에 실패한 경우: 마지막으로 저장이 완료된 조회 구간부터 재개\n" +
+                     "- 거래내역이 저장된 경우에만 수익률 계산을 수행합니다.\n" +
+                     "- 응답에는 전체 건수와 최신 거래내역 첫 페이지만 포함되며, 이후 페이지는 거래내역 페이지 조회 API로 조회합니다."
     )
     @ApiResponses(value = {
         @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "업데이트 성공"),
@@ -115,66 +213,31 @@ public class UserController {
             String exchangeProviderStr = request.getExchangeProviderStr();
             
             // ExchangeProvider 검증
-            ExchangeType exchangeType;
-            try {
-                exchangeType = ExchangeType.fromName(exchangeProviderStr.toUpperCase());
-            } catch (IllegalArgumentException e) {
-                throw new CustomException(ErrorCode.INVALID_EXCHANGE_PROVIDER, 
-                    "잘못된 거래소명입니다. UPBIT, BITHUMB, BINANCE, OKX 중 하나를 입력해주세요.");
-            }
-            
-            // 사용자의 마지막 거래내역 업데이트 시간 조회
-            LocalDateTime startTime = userService.getUser(userId)
-                .map(com.bitreiver.fetch_server.domain.user.entity.User::getLastTradingHistoryUpdateAt)
-                .orElse(null);
-            
-            // 최초 동기화 여부 판단
-            boolean isInitial = startTime == null;
-            
-            // 거래내역 조회
-            List<Map<String, Object>> tradingHisties = tradingHistoryService.getTradingHistories(
-                userId, exchangeProviderStr, startTime);
-            
-            // 거래내역 처리
-            List<com.bitreiver.fetch_server.domain.trading.entity.TradingHistory> processedHistories = 
-                tradingHistoryService.processTradingHistories(userId, exchangeProviderStr, tradingHisties);
-            
-            // 거래내역 저장
-            List<com.bitreiver.fetch_server.domain.trading.entity.TradingHistory> savedHistories = 
-                tradingHistoryService.saveTradingHistories(processedHistories);
-            
-            // 거래 내역이 저장된 경우에만 수익률 계산 수행
-            Map<String, Object> profitCalculationResult = null;
-            if (!savedHistories.isEmpty()) {
-                try {
-                    profitCalculationResult = tradingProfitService.calculateAndUpdateProfitLoss(
-                        userId,
-                        exchangeType.getCode(),
-                        isInitial
-                    );
-                } catch (Exception e) {
-                    // 수익률 계산 실패해도 거래 내역 저장은 성공했으므로 로그만 남기고 계속 진행
-                    // 로그는 TradingProfitService에서 처리
-                }
-            }
+            ExchangeType exchangeType = resolveExchangeType(exchangeProviderStr);
             
-            // 모든 거래내역 조회
-            Map<String, Object> allTradingHistoriesData = 
-                tradingHistoryService.getAllTradingHistoriesByUserFormattedAsMap(userId);
+            // 체크포인트 기반 거래내역 동기화 (조회 → 처리 → 저장 → 수익률 계산)
+            TradingHistorySyncResult syncResult = tradingHistorySyncService.syncTradingHistories(
+                userId, exchangeProviderStr);
             
-            // 매매내역 업데이트가 성공적으로 완료되었으므로 업데이트 시간 갱신
-            userService.updateUserTradingHistoryUpdatedAt(userId);
+            // 전체 건수와 최신 거래내역 첫 페이지만 응답
+            long totalCount = tradingHistoryService.countTradingHistories(userId);
+            TradingHistoryPageResponse firstPage = tradingHistoryService.getTradingHistoryPage(
+                userId, null, null, null, null, null, null);
             
-            Map<String, Object> responseData = new java.util.HashMap<>(allTradingHistoriesData);
-            responseData.put("saved_count", savedHistories.size());
+            Map<String, Object> responseData = new java.util.HashMap<>();
+            responseData.put("total_count", totalCount);
+            responseData.put("trading_histories", firstPage.getTradingHistories());
+            responseData.put("has_next", firstPage.getHasNext());
+            responseData.put("next_cursor", firstPage.getNextCursor());
+            responseData.put("saved_count", syncResult.getSavedCount());
             
-            if (profitCalculationResult != null) {
-                responseData.put("profit_calculation", profitCalculationResult);
+            if (syncResult.getProfitCalculation() != null) {
+                responseData.put("profit_calculation", syncResult.getProfitCalculation());
             }
             
             return ResponseEntity.ok(ApiResponse.success(responseData,
-                exchangeType.getName() + " 거래내역 업데이트 완료 (저장: " + savedHistories.size() + 
-                "개, 전체: " + allTradingHistoriesData.get("total_count") + "개)"));
+                exchangeType.getName() + " 거래내역 업데이트 완료 (저장: " + syncResult.getSavedCount() + 
+                "개, 전체: " + totalCount + "개)"));
         } catch (CustomException e) {
             throw e;
         } catch (Exception e) {
@@ -182,4 +245,81 @@ public class UserController {
                 "거래내역 업데이트 중 오류가 발생했습니다: " + e.getMessage());
         }
     }
+    
+    @Operation(
+        summary = "거래내역 동기화 작업 제출", 
+        description = "거래내역 동기화(조회 → 저장 → 수익률 계산)를 백그라운드 작업으로 제출하고 작업 ID를 즉시 반환합니다.\n\n" +
+                     "- 진행 상황과 결과는 작업 조회 API로 확인합니다.\n" +
+                     "- 같은 사용자·거래소의 작업이 이미 진행 중이면 해당 작업을 반환합니다."
+    )
+    @ApiResponses(value = {
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "202", description = "작업 접수"),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "잘못된 거래소명"),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "503", description = "대기 중인 작업이 많아 접수 불가")
+    })
+    @PostMapping("/trading-history/sync-jobs")
+    public ResponseEntity<ApiResponse<TradingHistorySyncJobResponse>> submitTradingHistorySyncJob(
+            @RequestBody UpdateTradingHistoryRequest request) {
+        UUID userId = UUID.fromString(request.getUserId());
+        ExchangeType exchangeType = resolveExchangeType(request.getExchangeProviderStr());
+        
+        TradingHistorySyncJobResponse response = tradingHistorySyncJobService.submitSyncJob(userId, exchangeType.name());
+        return ResponseEntity.accepted().body(ApiResponse.success(response, "거래내역 동기화 작업이 접수되었습니다"));
+    }
+    
+    @Operation(summary = "거래내역 동기화 작업 조회", description = "동기화 작업의 상태, 진행 상황(조회 구간 수, 조회 주문 수, 저장 건수)과 최종 결과를 조회합니다.")
+    @ApiResponses(value = {
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "조회 성공"),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "작업을 찾을 수 없습니다")
+    })
+    @Parameter(name = "job_id", description = "동기화 작업 ID", example = "6f1c2d3e-4b5a-4c6d-8e7f-9a0b1c2d3e4f", required = true, in = ParameterIn.PATH)
+    @GetMapping("/trading-history/sync-jobs/{job_id}")
+    public ResponseEntity<ApiResponse<TradingHistorySyncJobResponse>> getTradingHistorySyncJob(@PathVariable("job_id") UUID jobId) {
+        TradingHistorySyncJobResponse response = tradingHistorySyncJobService.getSyncJob(jobId);
+        return ResponseEntity.ok(ApiResponse.success(response, "거래내역 동기화 작업 조회 완료"));
+    }
+    
+    @Operation(
+        summary = "거래내역 재처리 작업 제출", 
+        description = "동기화 때 저장해 둔 주문 응답 원문 아카이브만으로 거래내역을 다시 만드는 배치 작업을 실행합니다.\n\n" +
+                     "- 거래소 API를 호출하지 않으며, 현재 거래내역 처리 로직으로 다시 변환해 같은 주문의 거래를 교체합니다.\n" +
+                     "- 아카이브에 없는 거래(아카이브 도입 이전 거래)는 그대로 유지됩니다.\n" +
+                     "- 교체된 거래가 있으면 수익률을 전체 재계산합니다."
+    )
+    @ApiResponses(value = {
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "202", description = "작업 접수"),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "잘못된 거래소명"),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "409", description = "같은 사용자·거래소의 재처리가 진행 중")
+    })
+    @PostMapping("/trading-history/reprocess-jobs")
+    public ResponseEntity<ApiResponse<TradingHistoryReprocessJobResponse>> submitTradingHistoryReprocessJob(
+            @RequestBody UpdateTradingHistoryRequest request) {
+        UUID userId = UUID.fromString(request.getUserId());
+        ExchangeType exchangeType = resolveExchangeType(request.getExchangeProviderStr());
+        
+        TradingHistoryReprocessJobResponse response = tradingHistoryReprocessJobService.submitReprocessJob(userId, exchangeType.name());
+        return ResponseEntity.accepted().body(ApiResponse.success(response, "거래내역 재처리 작업이 접수되었습니다"));
+    }
+    
+    @Operation(summary = "거래내역 재처리 작업 조회", description = "재처리 배치 작업의 상태와 결과 요약을 조회합니다.")
+    @ApiResponses(value = {
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "조회 성공"),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "작업을 찾을 수 없습니다")
+    })
+    @Parameter(name = "job_execution_id", description = "배치 작업 실행 ID", example = "42", required = true, in = ParameterIn.PATH)
+    @GetMapping("/trading-history/reprocess-jobs/{job_execution_id}")
+    public ResponseEntity<ApiResponse<TradingHistoryReprocessJobResponse>> getTradingHistoryReprocessJob(
+            @PathVariable("job_execution_id") Long jobExecutionId) {
+        TradingHistoryReprocessJobResponse response = tradingHistoryReprocessJobService.getReprocessJob(jobExecutionId);
+        return ResponseEntity.ok(ApiResponse.success(response, "거래내역 재처리 작업 조회 완료"));
+    }
+    
+    private ExchangeType resolveExchangeType(String exchangeProviderStr) {
+        try {
+            return ExchangeType.fromName(exchangeProviderStr.toUpperCase());
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new CustomException(ErrorCode.INVALID_EXCHANGE_PROVIDER, 
+                "잘못된 거래소명입니다. UPBIT, BITHUMB, BINANCE, OKX 중 하나를 입력해주세요.");
+        }
+    }
 }
@@ -71,8 +71,8 @@ public class User {
         this.lastLoginAt = LocalDateTime.now();
     }
     
-    public void updateTradingHistorySyncTime() {
-        this.lastTradingHistoryUpdateAt = LocalDateTime.now();
+    public void updateTradingHistorySyncTime(LocalDateTime lastTradeTime) {
+        this.lastTradingHistoryUpdateAt = lastTradeTime != null ? lastTradeTime : LocalDateTime.now();
     }
 }
 
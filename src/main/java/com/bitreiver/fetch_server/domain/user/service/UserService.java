@@ -6,6 +6,7 @@ import com.bitreiver.fetch_server.domain.user.dto.UserResponse;
 import com.bitreiver.fetch_server.domain.user.dto.UserSignUpRequest;
 import com.bitreiver.fetch_server.domain.user.entity.User;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -15,5 +16,5 @@ public interface UserService {
     boolean checkEmailDuplicate(String email);
     boolean checkNicknameDuplicate(String nickname);
     Optional<User> getUser(UUID userId);
-    void updateUserTradingHistoryUpdatedAt(UUID userId);
+    void updateUserTradingHistoryUpdatedAt(UUID userId, LocalDateTime lastTradeTime);
 }
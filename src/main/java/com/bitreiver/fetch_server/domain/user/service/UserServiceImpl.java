@@ -144,12 +144,12 @@ public class UserServiceImpl implements UserService {
     
     @Override
     @Transactional
-    public void updateUserTradingHistoryUpdatedAt(UUID userId) {
+    public void updateUserTradingHistoryUpdatedAt(UUID userId, LocalDateTime lastTradeTime) {
         try {
             User user = userRepository.findById(userId)
                 .orElseThrow(() -> new CustomException(ErrorCode.USER_NOT_FOUND));
             
-            user.updateTradingHistorySyncTime();
+            user.updateTradingHistorySyncTime(lastTradeTime);
             userRepository.save(user);
         } catch (CustomException e) {
             log.error("updateUserTradingHistoryUpdatedAt - {}", e.getMessage());
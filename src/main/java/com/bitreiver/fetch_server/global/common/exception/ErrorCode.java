@@ -38,6 +38,12 @@ public enum ErrorCode {
     // 매매 내역
     TRADING_HISTORY_NOT_FOUND(HttpStatus.NOT_FOUND, "TRADING_HISTORY_NOT_FOUND", "매매 내역을 찾을 수 없습니다."),
     INVALID_DATE_RANGE(HttpStatus.BAD_REQUEST, "INVALID_DATE_RANGE", "시작 날짜는 종료 날짜보다 이전이어야 합니다."),
+    INVALID_CURSOR(HttpStatus.BAD_REQUEST, "INVALID_CURSOR", "잘못된 페이지 커서입니다."),
+    SYNC_JOB_NOT_FOUND(HttpStatus.NOT_FOUND, "SYNC_JOB_NOT_FOUND", "거래내역 동기화 작업을 찾을 수 없습니다."),
+    SYNC_JOB_REJECTED(HttpStatus.SERVICE_UNAVAILABLE, "SYNC_JOB_REJECTED", "대기 중인 동기화 작업이 많아 요청을 처리할 수 없습니다."),
+    SYNC_ALREADY_IN_PROGRESS(HttpStatus.CONFLICT, "SYNC_ALREADY_IN_PROGRESS", "이미 거래내역 동기화가 진행 중입니다."),
+    REPROCESS_JOB_NOT_FOUND(HttpStatus.NOT_FOUND, "REPROCESS_JOB_NOT_FOUND", "거래내역 재처리 작업을 찾을 수 없습니다."),
+    REPROCESS_ALREADY_IN_PROGRESS(HttpStatus.CONFLICT, "REPROCESS_ALREADY_IN_PROGRESS", "이미 거래내역 재처리가 진행 중입니다."),
     
     // 수익률
     INVALID_EXCHANGE_CODE(HttpStatus.BAD_REQUEST, "INVALID_EXCHANGE_CODE", "잘못된 거래소 코드입니다."),
@@ -29,6 +29,9 @@ public class WebClientConfig {
     @Value("${external.binance.api.url:https://fapi.binance.com}")
     private String binanceApiUrl;
 
+    @Value("${external.upbit.max-in-memory-size:10485760}")
+    private int upbitMaxInMemorySize;
+
     @Bean
     public WebClient upbitWebClient() {
         // 연결 풀 설정
@@ -55,6 +58,8 @@ public class WebClientConfig {
         return WebClient.builder()
             .baseUrl(upbitApiUrl)
             .clientConnector(new ReactorClientHttpConnector(httpClient))
+            // 주문 상세 응답은 원문 보관을 위해 본문 전체를 byte[]로 받음 (100건 일괄 조회, 체결 목록 포함)
+            .codecs(configurer -> configurer.defaultCodecs().maxInMemorySize(upbitMaxInMemorySize))
             .build();
     }
     
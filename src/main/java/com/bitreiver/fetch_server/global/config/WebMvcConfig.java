@@ -0,0 +1,22 @@
+package com.bitreiver.fetch_server.global.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class WebMvcConfig implements WebMvcConfigurer {
+    
+    @Value("${web.async.request-timeout-ms:1800000}")
+    private long asyncRequestTimeoutMs;
+    
+    /**
+     * 비동기 요청(StreamingResponseBody 등)의 제한 시간 설정
+     * 지정하지 않으면 서블릿 컨테이너 기본값(약 30초)이 적용되어 거래내역 내보내기 같은 긴 다운로드가 중간에 끊김 (기본 30분)
+     */
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setDefaultTimeout(asyncRequestTimeoutMs);
+    }
+}
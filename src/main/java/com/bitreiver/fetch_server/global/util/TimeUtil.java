@@ -4,12 +4,15 @@ import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class TimeUtil {
     private static final ZoneId KOREA_TIMEZONE = ZoneId.of("Asia/Seoul");
     private static final DateTimeFormatter ISO8601_FORMATTER = DateTimeFormatter.ISO_OFFSET_DATE_TIME;
+    public static final int TRADING_RANGE_DAYS = 7;
+    public static final LocalDateTime UPBIT_TRADING_START_TIME = LocalDateTime.of(2017, 11, 1, 0, 0);
     
     public static LocalDateTime getCurrentKoreaTime() {
         return LocalDateTime.now(KOREA_TIMEZONE);
@@ -30,33 +33,33 @@ public class TimeUtil {
     }
     
     public static List<String[]> getAllTradingTimeRanges(LocalDateTime startDate, LocalDateTime currentTime) {
-        List<String[]> timeRanges = new ArrayList<>();
-        
-        if (startDate.isAfter(currentTime) || startDate.isEqual(currentTime)) {
-            return timeRanges;
+        return streamTradingTimeRanges(startDate, currentTime).collect(Collectors.toList());
+    }
+    
+    /**
+     * startDate부터 currentTime까지를 7일 단위 구간 [시작, 끝-1초]으로 나눕니다.
+     * 구간은 소비되는 시점에 하나씩 생성됩니다.
+     */
+    public static Stream<String[]> streamTradingTimeRanges(LocalDateTime startDate, LocalDateTime currentTime) {
+        if (!startDate.isBefore(currentTime)) {
+            return Stream.empty();
         }
         
-        LocalDateTime currentStart = startDate;
-        int maxDays = 7;
-        
-        while (currentStart.isBefore(currentTime)) {
-            LocalDateTime currentEnd = currentStart.plusDays(maxDays);
-            if (currentEnd.isAfter(currentTime)) {
-                currentEnd = currentTime;
-            }
-            
-            // 1초 빼기
-            currentEnd = currentEnd.minusSeconds(1);
-            
-            timeRanges.add(new String[]{
-                formatIso8601(currentStart),
-                formatIso8601(currentEnd)
+        return Stream.iterate(startDate, currentStart -> currentStart.isBefore(currentTime), 
+                currentStart -> currentStart.plusDays(TRADING_RANGE_DAYS))
+            .map(currentStart -> {
+                LocalDateTime currentEnd = currentStart.plusDays(TRADING_RANGE_DAYS);
+                if (currentEnd.isAfter(currentTime)) {
+                    currentEnd = currentTime;
+                }
+                
+                // 1초 빼기
+                currentEnd = currentEnd.minusSeconds(1);
+                
+                return new String[]{
+                    formatIso8601(currentStart),
+                    formatIso8601(currentEnd)
+                };
             });
-            
-            currentStart = currentStart.plusDays(maxDays);
-        }
-        
-        return timeRanges;
     }
 }
-
@@ -0,0 +1,78 @@
+package com.bitreiver.fetch_server.infra.upbit;
+
+import java.util.function.LongSupplier;
+
+/**
+ * 토큰 버킷 방식의 요청 속도 제한기
+ * 토큰이 부족하면 음수로 선점(reserve)하고, 호출자가 기다려야 할 시간을 나노초 단위로 반환합니다.
+ * 대기는 호출자가 직접 수행하므로 스레드를 블로킹하지 않습니다.
+ */
+public class TokenBucket {
+
+    private static final double NANOS_PER_SECOND = 1_000_000_000d;
+
+    private final double capacity;
+    private double permitsPerNano;
+    private final LongSupplier nanoClock;
+
+    private double tokens;
+    private long lastRefillNanos;
+
+    public TokenBucket(double permitsPerSecond, double capacity) {
+        this(permitsPerSecond, capacity, System::nanoTime);
+    }
+
+    public TokenBucket(double permitsPerSecond, double capacity, LongSupplier nanoClock) {
+        if (permitsPerSecond <= 0 || capacity < 1) {
+            throw new IllegalArgumentException("permitsPerSecond는 0보다 크고 capacity는 1 이상이어야 합니다.");
+        }
+        this.capacity = capacity;
+        this.permitsPerNano = permitsPerSecond / NANOS_PER_SECOND;
+        this.nanoClock = nanoClock;
+        this.tokens = capacity;
+        this.lastRefillNanos = nanoClock.getAsLong();
+    }
+
+    /**
+     * 토큰 1개를 선점합니다.
+     *
+     * @return 요청 전 대기해야 하는 시간(나노초), 즉시 요청 가능하면 0
+     */
+    public synchronized long reserve() {
+        refill();
+        tokens -= 1;
+        if (tokens >= 0) {
+            return 0L;
+        }
+        return (long) Math.ceil(-tokens / permitsPerNano);
+    }
+
+    /**
+     * 초당 허용량을 변경합니다. 변경 전까지 경과한 시간은 이전 허용량으로 재충전합니다.
+     */
+    public synchronized void setPermitsPerSecond(double permitsPerSecond) {
+        if (permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("permitsPerSecond는 0보다 커야 합니다.");
+        }
+        refill();
+        this.permitsPerNano = permitsPerSecond / NANOS_PER_SECOND;
+    }
+
+    public synchronized double getPermitsPerSecond() {
+        return permitsPerNano * NANOS_PER_SECOND;
+    }
+
+    public synchronized double availableTokens() {
+        refill();
+        return tokens;
+    }
+
+    private void refill() {
+        long now = nanoClock.getAsLong();
+        long elapsed = now - lastRefillNanos;
+        if (elapsed > 0) {
+            tokens = Math.min(capacity, tokens + elapsed * permitsPerNano);
+            lastRefillNanos = now;
+        }
+    }
+}
@@ -1,70 +1,129 @@
 package com.bitreiver.fetch_server.infra.upbit;
 
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.security.Keys;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientResponse;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
 import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
 
-import javax.crypto.SecretKey;
 import java.net.URI;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
+import java.time.Duration;
 import java.util.*;
+import java.util.function.Function;
 
 @Slf4j
 @Component
 public class UpbitClient {
     
     private final WebClient upbitWebClient;
+    private final UpbitRateLimiter upbitRateLimiter;
+    /**
+     * Access Key별 JWT 서명기 (복호화된 Secret Key를 담고 있으므로 개수와 보관 기간을 제한)
+     * 자격 증명이 바뀌거나 삭제되면 evictSigner로 즉시 제거합니다.
+     */
+    private final Cache<String, UpbitJwtSigner> jwtSigners;
     
     @Value("${external.upbit.api.url:https://api.upbit.com}")
     private String baseUrl;
     
-    public UpbitClient(@Qualifier("upbitWebClient") WebClient upbitWebClient) {
+    @Value("${external.upbit.retry.max-attempts:3}")
+    private int maxRetryAttempts;
+    
+    @Value("${external.upbit.retry.initial-backoff-ms:500}")
+    private long initialBackoffMs;
+    
+    @Value("${external.upbit.retry.max-backoff-ms:5000}")
+    private long maxBackoffMs;
+    
+    public UpbitClient(@Qualifier("upbitWebClient") WebClient upbitWebClient, UpbitRateLimiter upbitRateLimiter,
+                       @Value("${external.upbit.jwt-signer-cache.max-size:1000}") long signerCacheMaxSize,
+                       @Value("${external.upbit.jwt-signer-cache.expire-after-access-minutes:30}") long signerCacheExpireMinutes) {
         this.upbitWebClient = upbitWebClient;
+        this.upbitRateLimiter = upbitRateLimiter;
+        this.jwtSigners = Caffeine.newBuilder()
+            .maximumSize(signerCacheMaxSize)
+            .expireAfterAccess(Duration.ofMinutes(signerCacheExpireMinutes))
+            .build();
+    }
+    
+    /**
+     * Access Key의 서명기를 캐시에서 제거합니다. (자격 증명 변경·삭제 시)
+     */
+    public void evictSigner(String accessKey) {
+        if (accessKey != null) {
+            jwtSigners.invalidate(accessKey);
+        }
     }
     
+    /**
+     * 요청 전 UpbitRateLimiter에서 허가를 받고, 응답의 Remaining-Req 헤더를 다시 UpbitRateLimiter에 전달합니다.
+     * 429 응답은 지수 백오프로 재시도하며, 재시도마다 허가와 JWT(nonce)를 새로 발급받습니다.
+     */
     public Mono<Object> get(String endpoint, String accessKey, String secretKey, Map<String, Object> params, boolean requireAuth) {
+        return getMono(endpoint, accessKey, secretKey, params, requireAuth, Object.class);
+    }
+    
+    /**
+     * 응답 본문을 지정한 타입으로 디코딩합니다. DTO에 없는 필드는 디코딩하지 않습니다.
+     */
+    public <T> Mono<T> getMono(String endpoint, String accessKey, String secretKey, Map<String, Object> params, 
+                               boolean requireAuth, Class<T> bodyType) {
+        return request(endpoint, accessKey, secretKey, params, requireAuth, 
+                response -> response.bodyToMono(bodyType).flux())
+            .next();
+    }
+    
+    /**
+     * JSON 배열 응답을 전체 트리로 만들지 않고 원소 단위로 디코딩해 순서대로 내보냅니다.
+     */
+    public <T> Flux<T> getFlux(String endpoint, String accessKey, String secretKey, Map<String, Object> params, 
+                               boolean requireAuth, Class<T> elementType) {
+        return request(endpoint, accessKey, secretKey, params, requireAuth, 
+            response -> response.bodyToFlux(elementType));
+    }
+    
+    private <T> Flux<T> request(String endpoint, String accessKey, String secretKey, Map<String, Object> params, 
+                                boolean requireAuth, Function<ClientResponse, Flux<T>> bodyDecoder) {
+        String limiterKey = requireAuth ? accessKey : UpbitRateLimiter.PUBLIC_KEY;
+        
+        return upbitRateLimiter.acquire(limiterKey, endpoint)
+            .thenMany(Flux.defer(() -> send(endpoint, limiterKey, accessKey, secretKey, params, requireAuth, bodyDecoder)))
+            .retryWhen(Retry.backoff(maxRetryAttempts, Duration.ofMillis(initialBackoffMs))
+                .maxBackoff(Duration.ofMillis(maxBackoffMs))
+                .filter(error -> error instanceof WebClientResponseException.TooManyRequests)
+                .doBeforeRetry(signal -> log.warn("Upbit API 요청 수 초과로 재시도: endpoint={}, attempt={}", 
+                    endpoint, signal.totalRetries() + 1))
+                .onRetryExhaustedThrow((spec, signal) -> signal.failure()));
+    }
+    
+    private <T> Flux<T> send(String endpoint, String limiterKey, String accessKey, String secretKey, 
+                             Map<String, Object> params, boolean requireAuth, 
+                             Function<ClientResponse, Flux<T>> bodyDecoder) {
         try {
             WebClient.RequestHeadersSpec<?> requestSpec;
             
             if (requireAuth) {
-                String queryStringForJwt = buildQueryString(params);
+                QueryStrings queryStrings = buildQueryStrings(params);
                 
-                // JWT 토큰 생성
-                String jwtToken = createJwtToken(accessKey, secretKey, queryStringForJwt);
+                // JWT 토큰 생성 (해시는 인코딩하지 않은 쿼리 스트링 기준)
+                String jwtToken = getSigner(accessKey, secretKey).sign(queryStrings.raw);
                 
-                // 실제 HTTP 요청 URL 생성 
-                // 쿼리 스트링을 각 파라미터별로 URL 인코딩하여 구성
-                StringBuilder urlBuilder = new StringBuilder(baseUrl + endpoint);
-                if (params != null && !params.isEmpty()) {
-                    urlBuilder.append("?");
-                    List<String> encodedParams = new ArrayList<>();
-                    for (Map.Entry<String, Object> entry : params.entrySet()) {
-                        String key = entry.getKey();
-                        Object value = entry.getValue();
-                        if (value instanceof List) {
-                            List<?> list = (List<?>) value;
-                            for (Object item : list) {
-                                String paramKey = key.endsWith("[]") ? key : key + "[]";
-                                encodedParams.add(URLEncoder.encode(paramKey, StandardCharsets.UTF_8) + "=" + 
-                                    URLEncoder.encode(String.valueOf(item), StandardCharsets.UTF_8));
-                            }
-                        } else {
-                            encodedParams.add(URLEncoder.encode(key, StandardCharsets.UTF_8) + "=" + 
-                                URLEncoder.encode(String.valueOf(value), StandardCharsets.UTF_8));
-                        }
-                    }
-                    urlBuilder.append(String.join("&", encodedParams));
-                }
-                String actualUrl = urlBuilder.toString();
+                // 실제 HTTP 요청 URL 생성 (각 파라미터별로 URL 인코딩한 쿼리 스트링 사용)
+                String actualUrl = queryStrings.encoded.isEmpty()
+                    ? baseUrl + endpoint
+                    : baseUrl + endpoint + "?" + queryStrings.encoded;
                 
                 requestSpec = upbitWebClient.get()
                     .uri(URI.create(actualUrl))
@@ -90,89 +149,90 @@ public class UpbitClient {
             }
             
             return requestSpec
-                .retrieve()
-                .bodyToMono(Object.class)
+                .exchangeToFlux(response -> {
+                    String remainingReq = response.headers().asHttpHeaders().getFirst(UpbitRemainingReq.HEADER_NAME);
+                    if (response.statusCode().value() == HttpStatus.TOO_MANY_REQUESTS.value()) {
+                        upbitRateLimiter.onTooManyRequests(limiterKey, endpoint, remainingReq);
+                        return response.<T>createError().flux();
+                    }
+                    upbitRateLimiter.onResponse(limiterKey, endpoint, remainingReq);
+                    if (response.statusCode().isError()) {
+                        return response.<T>createError().flux();
+                    }
+                    return bodyDecoder.apply(response);
+                })
                 .doOnError(error -> log.error("Upbit API 요청 실패: {}", error.getMessage()));
                 
         } catch (Exception e) {
             log.error("UpbitClient GET 요청 중 에러 발생: {}", e.getMessage(), e);
-            return Mono.error(e);
+            return Flux.error(e);
         }
     }
     
-    private String createJwtToken(String accessKey, String secretKey, String queryString) {
-        try {
-            Map<String, Object> payload = new HashMap<>();
-            payload.put("access_key", accessKey);
-            payload.put("nonce", UUID.randomUUID().toString());
-            
-            if (queryString != null && !queryString.isEmpty()) {
-                // SHA512 해시 생성 (UTF-8 바이트로 변환)
-                MessageDigest digest = MessageDigest.getInstance("SHA-512");
-                byte[] hash = digest.digest(queryString.getBytes(StandardCharsets.UTF_8));
-                StringBuilder hexString = new StringBuilder();
-                for (byte b : hash) {
-                    String hex = Integer.toHexString(0xff & b);
-                    if (hex.length() == 1) {
-                        hexString.append('0');
-                    }
-                    hexString.append(hex);
-                }
-                
-                payload.put("query_hash", hexString.toString());
-                payload.put("query_hash_alg", "SHA512");
-            }
-            
-            SecretKey key = Keys.hmacShaKeyFor(secretKey.getBytes(StandardCharsets.UTF_8));
-            return Jwts.builder()
-                .claims(payload)
-                .signWith(key)
-                .compact();
-                
-        } catch (Exception e) {
-            log.error("JWT 토큰 생성 실패: {}", e.getMessage(), e);
-            throw new RuntimeException("JWT 토큰 생성 실패", e);
+    private UpbitJwtSigner getSigner(String accessKey, String secretKey) {
+        UpbitJwtSigner signer = jwtSigners.getIfPresent(accessKey);
+        if (signer == null || !signer.matches(secretKey)) {
+            signer = new UpbitJwtSigner(accessKey, secretKey);
+            jwtSigners.put(accessKey, signer);
         }
+        return signer;
     }
     
-    
     /**
      * Upbit 공식 예제에 따른 쿼리 스트링 생성
      * 공식 예제: params.entrySet().stream()
      *     .flatMap(e -> e.getValue().stream().map(v -> e.getKey() + "=" + v))
      *     .collect(Collectors.joining("&"));
+     * JWT 해시용(인코딩 없음)과 요청 URL용(URL 인코딩) 쿼리 스트링을 한 번의 순회로 함께 만듭니다.
      */
-    private String buildQueryString(Map<String, Object> params) {
-        try {
-            // params가 null이거나 비어있으면 빈 문자열 반환
-            if (params == null || params.isEmpty()) {
-                return "";
-            }
-            
-            List<String> pairs = new ArrayList<>();
+    private QueryStrings buildQueryStrings(Map<String, Object> params) {
+        // params가 null이거나 비어있으면 빈 문자열 반환
+        if (params == null || params.isEmpty()) {
+            return QueryStrings.EMPTY;
+        }
+        
+        StringBuilder raw = new StringBuilder(128);
+        StringBuilder encoded = new StringBuilder(160);
+        
+        for (Map.Entry<String, Object> entry : params.entrySet()) {
+            String key = entry.getKey();
+            Object value = entry.getValue();
             
-            for (Map.Entry<String, Object> entry : params.entrySet()) {
-                String key = entry.getKey();
-                Object value = entry.getValue();
-                
-                if (value instanceof List) {
-                    // 배열 파라미터: key=value 형식 (각 항목마다)
-                    // 예: "states[]=done", "states[]=cancel"
-                    List<?> list = (List<?>) value;
-                    for (Object item : list) {
-                        pairs.add(key + "=" + String.valueOf(item));
-                    }
-                } else {
-                    // 일반 파라미터: key=value 형식
-                    pairs.add(key + "=" + String.valueOf(value));
+            if (value instanceof List) {
+                // 배열 파라미터: key=value 형식 (각 항목마다)
+                // 예: "states[]=done", "states[]=cancel"
+                String paramKey = key.endsWith("[]") ? key : key + "[]";
+                String encodedKey = URLEncoder.encode(paramKey, StandardCharsets.UTF_8);
+                for (Object item : (List<?>) value) {
+                    appendPair(raw, encoded, key, encodedKey, String.valueOf(item));
                 }
+            } else {
+                // 일반 파라미터: key=value 형식
+                appendPair(raw, encoded, key, URLEncoder.encode(key, StandardCharsets.UTF_8), String.valueOf(value));
             }
-            
-            return String.join("&", pairs);
-        } catch (Exception e) {
-            log.error("쿼리 스트링 생성 실패: {}", e.getMessage(), e);
-            throw new RuntimeException("쿼리 스트링 생성 실패", e);
+        }
+        
+        return new QueryStrings(raw.toString(), encoded.toString());
+    }
+    
+    private void appendPair(StringBuilder raw, StringBuilder encoded, String key, String encodedKey, String value) {
+        if (raw.length() > 0) {
+            raw.append('&');
+            encoded.append('&');
+        }
+        raw.append(key).append('=').append(value);
+        encoded.append(encodedKey).append('=').append(URLEncoder.encode(value, StandardCharsets.UTF_8));
+    }
+    
+    private static class QueryStrings {
+        private static final QueryStrings EMPTY = new QueryStrings("", "");
+        
+        private final String raw;
+        private final String encoded;
+        
+        private QueryStrings(String raw, String encoded) {
+            this.raw = raw;
+            this.encoded = encoded;
         }
     }
 }
-
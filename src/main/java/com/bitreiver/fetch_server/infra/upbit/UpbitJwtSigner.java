@@ -0,0 +1,113 @@
+package com.bitreiver.fetch_server.infra.upbit;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Upbit 인증 요청용 JWT 서명기 (자격 증명 1건당 1개)
+ *
+ * - 헤더와 access_key가 들어간 payload 앞부분은 생성 시 한 번만 만들어 둡니다.
+ * - HMAC(Mac)과 SHA-512(MessageDigest)는 스레드마다 하나씩 재사용하므로 요청마다 키·다이제스트를 새로 만들지 않습니다.
+ * - 서명 알고리즘은 기존 jjwt(Keys.hmacShaKeyFor)와 같이 키 길이로 결정합니다(HS256/HS384/HS512).
+ */
+public class UpbitJwtSigner {
+
+    private static final Base64.Encoder BASE64_URL = Base64.getUrlEncoder().withoutPadding();
+    private static final HexFormat HEX = HexFormat.of();
+    private static final ThreadLocal<MessageDigest> SHA512 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-512");
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-512를 사용할 수 없습니다.", e);
+        }
+    });
+
+    private final byte[] secretKeyBytes;
+    private final String encodedHeader;
+    private final String payloadPrefix;
+    private final ThreadLocal<Mac> mac;
+
+    public UpbitJwtSigner(String accessKey, String secretKey) {
+        this.secretKeyBytes = secretKey.getBytes(StandardCharsets.UTF_8);
+        String[] algorithm = resolveAlgorithm(secretKeyBytes.length);
+
+        this.encodedHeader = BASE64_URL.encodeToString(
+            ("{\"alg\":\"" + algorithm[0] + "\"}").getBytes(StandardCharsets.UTF_8));
+        this.payloadPrefix = "{\"access_key\":\"" + escapeJson(accessKey) + "\",\"nonce\":\"";
+
+        SecretKeySpec keySpec = new SecretKeySpec(secretKeyBytes, algorithm[1]);
+        this.mac = ThreadLocal.withInitial(() -> {
+            try {
+                Mac instance = Mac.getInstance(algorithm[1]);
+                instance.init(keySpec);
+                return instance;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("JWT 서명 키 초기화 실패", e);
+            }
+        });
+    }
+
+    /**
+     * 발급 당시의 Secret Key와 같은지 확인합니다. 키가 바뀌면 서명기를 새로 만들어야 합니다.
+     */
+    public boolean matches(String secretKey) {
+        return MessageDigest.isEqual(secretKeyBytes, secretKey.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param queryString 인코딩하지 않은 쿼리 스트링, 없으면 null 또는 빈 문자열
+     */
+    public String sign(String queryString) {
+        StringBuilder payload = new StringBuilder(256)
+            .append(payloadPrefix)
+            .append(UUID.randomUUID())
+            .append('"');
+
+        if (queryString != null && !queryString.isEmpty()) {
+            byte[] hash = SHA512.get().digest(queryString.getBytes(StandardCharsets.UTF_8));
+            payload.append(",\"query_hash\":\"")
+                .append(HEX.formatHex(hash))
+                .append("\",\"query_hash_alg\":\"SHA512\"");
+        }
+        payload.append('}');
+
+        String signingInput = encodedHeader + "." + BASE64_URL.encodeToString(
+            payload.toString().getBytes(StandardCharsets.UTF_8));
+        byte[] signature = mac.get().doFinal(signingInput.getBytes(StandardCharsets.US_ASCII));
+        return signingInput + "." + BASE64_URL.encodeToString(signature);
+    }
+
+    private static String[] resolveAlgorithm(int keyLength) {
+        if (keyLength >= 64) {
+            return new String[]{"HS512", "HmacSHA512"};
+        }
+        if (keyLength >= 48) {
+            return new String[]{"HS384", "HmacSHA384"};
+        }
+        if (keyLength >= 32) {
+            return new String[]{"HS256", "HmacSHA256"};
+        }
+        throw new IllegalArgumentException("Secret Key는 최소 32바이트 이상이어야 합니다.");
+    }
+
+    private static String escapeJson(String value) {
+        StringBuilder escaped = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                escaped.append('\\').append(c);
+            } else if (c < 0x20) {
+                escaped.append(String.format("\\u%04x", (int) c));
+            } else {
+                escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+}
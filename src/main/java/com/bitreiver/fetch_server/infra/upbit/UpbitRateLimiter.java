@@ -0,0 +1,122 @@
+package com.bitreiver.fetch_server.infra.upbit;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Upbit API 요청 수 제한
+ * Upbit는 Access Key(인증이 없는 API는 IP)와 엔드포인트 그룹별로 초당 요청 수를 제한하고,
+ * 매 응답의 Remaining-Req 헤더로 현재 1초 구간에 남은 요청 수를 알려줍니다.
+ * 키·그룹별 토큰 버킷을 두고, 요청 전에 acquire()로 발급받은 Mono를 먼저 구독해야 합니다.
+ * 여러 사용자를 동시에 동기화할 때 서버 전체의 요청량도 제한하도록 모든 키가 공유하는 전역 버킷을 함께 사용합니다.
+ *
+ * 버킷의 초당 허용량은 응답 헤더에 따라 조절됩니다(AIMD).
+ * - 남은 요청 수가 low-remaining 이하이거나 429 응답을 받으면 허용량을 절반으로 줄이고
+ * - 여유가 있으면 허용량을 1씩 늘려 설정된 최대치까지 회복합니다.
+ */
+@Slf4j
+@Component
+public class UpbitRateLimiter {
+
+    public static final String DEFAULT_GROUP = "default";
+    public static final String PUBLIC_KEY = "public";
+
+    @Value("${external.upbit.rate-limit.exchange-per-second:30}")
+    private double exchangePermitsPerSecond;
+
+    @Value("${external.upbit.rate-limit.min-per-second:2}")
+    private double minPermitsPerSecond;
+
+    @Value("${external.upbit.rate-limit.low-remaining:3}")
+    private int lowRemaining;
+
+    @Value("${external.upbit.rate-limit.burst:1}")
+    private double burstCapacity;
+
+    @Value("${external.upbit.rate-limit.global-per-second:100}")
+    private double globalPermitsPerSecond;
+
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final Map<String, String> endpointGroups = new ConcurrentHashMap<>();
+    private TokenBucket globalBucket;
+
+    @PostConstruct
+    public void init() {
+        this.globalBucket = new TokenBucket(globalPermitsPerSecond, burstCapacity);
+    }
+
+    /**
+     * @param limiterKey Access Key, 인증이 없는 요청은 PUBLIC_KEY
+     * @param endpoint   요청 경로, 이전 응답에서 확인한 그룹의 버킷을 사용 (처음에는 DEFAULT_GROUP)
+     */
+    public Mono<Void> acquire(String limiterKey, String endpoint) {
+        return Mono.defer(() -> {
+            long keyWaitNanos = getBucket(limiterKey, resolveGroup(endpoint)).reserve();
+            long waitNanos = Math.max(keyWaitNanos, globalBucket.reserve());
+
+            if (waitNanos <= 0) {
+                return Mono.<Void>empty();
+            }
+            return Mono.delay(Duration.ofNanos(waitNanos)).then();
+        });
+    }
+
+    /**
+     * 정상 응답의 Remaining-Req 헤더로 허용량을 조절합니다.
+     */
+    public void onResponse(String limiterKey, String endpoint, String remainingReqHeader) {
+        UpbitRemainingReq remainingReq = UpbitRemainingReq.parse(remainingReqHeader);
+        if (remainingReq == null) {
+            return;
+        }
+
+        endpointGroups.put(endpoint, remainingReq.getGroup());
+        TokenBucket bucket = getBucket(limiterKey, remainingReq.getGroup());
+        synchronized (bucket) {
+            double current = bucket.getPermitsPerSecond();
+            if (remainingReq.getSec() <= lowRemaining) {
+                bucket.setPermitsPerSecond(Math.max(minPermitsPerSecond, current / 2));
+            } else if (current < exchangePermitsPerSecond) {
+                bucket.setPermitsPerSecond(Math.min(exchangePermitsPerSecond, current + 1));
+            }
+        }
+    }
+
+    /**
+     * 429 응답을 받으면 해당 그룹의 허용량을 절반으로 줄입니다. 재시도 대기는 호출자가 수행합니다.
+     */
+    public void onTooManyRequests(String limiterKey, String endpoint, String remainingReqHeader) {
+        UpbitRemainingReq remainingReq = UpbitRemainingReq.parse(remainingReqHeader);
+        String group = remainingReq != null ? remainingReq.getGroup() : resolveGroup(endpoint);
+        if (remainingReq != null) {
+            endpointGroups.put(endpoint, group);
+        }
+
+        TokenBucket bucket = getBucket(limiterKey, group);
+        synchronized (bucket) {
+            double reduced = Math.max(minPermitsPerSecond, bucket.getPermitsPerSecond() / 2);
+            bucket.setPermitsPerSecond(reduced);
+            log.warn("onTooManyRequests - Upbit 요청 수 초과(429): group={}, endpoint={}, permits_per_second={}",
+                group, endpoint, reduced);
+        }
+    }
+
+    private String resolveGroup(String endpoint) {
+        if (endpoint == null) {
+            return DEFAULT_GROUP;
+        }
+        return endpointGroups.getOrDefault(endpoint, DEFAULT_GROUP);
+    }
+
+    private TokenBucket getBucket(String limiterKey, String group) {
+        return buckets.computeIfAbsent(limiterKey + ":" + group,
+            key -> new TokenBucket(exchangePermitsPerSecond, burstCapacity));
+    }
+}
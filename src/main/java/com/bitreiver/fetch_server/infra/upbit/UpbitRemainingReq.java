@@ -0,0 +1,56 @@
+package com.bitreiver.fetch_server.infra.upbit;
+
+import lombok.Getter;
+
+/**
+ * Upbit 응답의 Remaining-Req 헤더
+ * 형식: "group=default; min=1800; sec=29"
+ * group은 요청 수 제한이 적용되는 엔드포인트 그룹, sec는 현재 1초 구간에 남은 요청 수입니다.
+ */
+@Getter
+public class UpbitRemainingReq {
+
+    public static final String HEADER_NAME = "Remaining-Req";
+
+    private final String group;
+    private final int sec;
+
+    private UpbitRemainingReq(String group, int sec) {
+        this.group = group;
+        this.sec = sec;
+    }
+
+    /**
+     * @return 파싱 결과, 헤더가 없거나 group/sec 값이 없으면 null
+     */
+    public static UpbitRemainingReq parse(String header) {
+        if (header == null || header.isBlank()) {
+            return null;
+        }
+
+        String group = null;
+        Integer sec = null;
+        for (String part : header.split(";")) {
+            int separator = part.indexOf('=');
+            if (separator < 0) {
+                continue;
+            }
+            String key = part.substring(0, separator).trim();
+            String value = part.substring(separator + 1).trim();
+            if ("group".equals(key)) {
+                group = value;
+            } else if ("sec".equals(key)) {
+                try {
+                    sec = Integer.parseInt(value);
+                } catch (NumberFormatException e) {
+                    return null;
+                }
+            }
+        }
+
+        if (group == null || group.isEmpty() || sec == null) {
+            return null;
+        }
+        return new UpbitRemainingReq(group, sec);
+    }
+}
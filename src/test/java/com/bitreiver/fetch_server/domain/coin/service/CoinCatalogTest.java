@@ -0,0 +1,59 @@
+package com.bitreiver.fetch_server.domain.coin.service;
+
+import com.bitreiver.fetch_server.domain.coin.repository.CoinRepository;
+import com.bitreiver.fetch_server.global.cache.RedisCacheService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Optional;
+
+import static com.bitreiver.fetch_server.support.TestFixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class CoinCatalogTest {
+
+    private CoinRepository coinRepository;
+    private CoinCatalog coinCatalog;
+
+    @BeforeEach
+    void setUp() {
+        coinRepository = mock(CoinRepository.class);
+        RedisCacheService redisCacheService = mock(RedisCacheService.class);
+        when(redisCacheService.get(anyString(), eq(Long.class))).thenReturn(Optional.empty());
+        coinCatalog = new CoinCatalog(coinRepository, redisCacheService);
+        ReflectionTestUtils.setField(coinCatalog, "missReloadIntervalMs", 60_000L);
+    }
+
+    @Test
+    @DisplayName("카탈로그에 없는 마켓을 조회하면 DB에서 다시 읽어 새로 추가된 코인을 찾음")
+    void findByMarketCode_miss_reloadsFromDatabase() {
+        when(coinRepository.findAll())
+            .thenReturn(List.of(coin(1, "BTC", "KRW-BTC")))
+            .thenReturn(List.of(coin(1, "BTC", "KRW-BTC"), coin(2, "NEW", "KRW-NEW")));
+
+        assertTrue(coinCatalog.findByMarketCode("KRW-BTC").isPresent());
+        Optional<CoinCatalog.CoinEntry> entry = coinCatalog.findByMarketCode("KRW-NEW");
+
+        assertTrue(entry.isPresent());
+        assertEquals(2, entry.get().getId());
+        verify(coinRepository, times(2)).findAll();
+    }
+
+    @Test
+    @DisplayName("조회 실패로 인한 DB 재조회는 설정된 간격에 한 번만 수행됨")
+    void findByMarketCode_repeatedMiss_reloadIsRateLimited() {
+        when(coinRepository.findAll()).thenReturn(List.of(coin(1, "BTC", "KRW-BTC")));
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(coinCatalog.findByMarketCode("KRW-MISSING").isEmpty());
+        }
+
+        // 최초 적재 1회 + 조회 실패 재조회 1회
+        verify(coinRepository, times(2)).findAll();
+    }
+}
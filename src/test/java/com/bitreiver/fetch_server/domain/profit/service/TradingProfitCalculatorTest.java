@@ -0,0 +1,222 @@
+package com.bitreiver.fetch_server.domain.profit.service;
+
+import com.bitreiver.fetch_server.domain.trading.entity.TradingHistory;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static com.bitreiver.fetch_server.support.TestFixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class TradingProfitCalculatorTest {
+
+    private static final LocalDateTime BASE_TIME = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Test
+    @DisplayName("고정소수점 엔진과 BigDecimal 계산 결과가 저장 자릿수에서 동일함")
+    void calculateProfitLoss_fixedPoint_matchesBigDecimal() {
+        Random random = new Random(20240101L);
+
+        for (int round = 0; round < 200; round++) {
+            List<TradingHistory> trades = randomTrades(random, 500);
+            Map<Integer, List<BigDecimal>> initialHoldings = new HashMap<>();
+            if (round % 2 == 1) {
+                initialHoldings.put(1, Arrays.asList(new BigDecimal("51234567.12345678"), new BigDecimal("0.35000000")));
+                initialHoldings.put(3, Arrays.asList(new BigDecimal("0.00012345"), new BigDecimal("1500000.00000000")));
+            }
+
+            Map<Integer, List<BigDecimal>> decimalHoldings = copy(initialHoldings);
+            List<TradingHistory> decimalResult = new TradingProfitCalculator(false, 1, Integer.MAX_VALUE)
+                .calculateProfitLoss(copy(trades), decimalHoldings);
+
+            Map<Integer, List<BigDecimal>> fixedHoldings = copy(initialHoldings);
+            List<TradingHistory> fixedResult = new TradingProfitCalculator(true, 1, Integer.MAX_VALUE)
+                .calculateProfitLoss(copy(trades), fixedHoldings);
+
+            assertEquals(decimalResult.size(), fixedResult.size());
+            for (int i = 0; i < decimalResult.size(); i++) {
+                TradingHistory expected = decimalResult.get(i);
+                TradingHistory actual = fixedResult.get(i);
+                assertEquals(expected.getTradeUuid(), actual.getTradeUuid());
+                assertSameValue(expected.getProfitLossRate(), actual.getProfitLossRate(), 2, expected.getTradeUuid());
+                assertSameValue(expected.getAvgBuyPrice(), actual.getAvgBuyPrice(), 8, expected.getTradeUuid());
+            }
+
+            assertEquals(decimalHoldings.keySet(), fixedHoldings.keySet());
+            for (Integer coinId : decimalHoldings.keySet()) {
+                assertSameValue(decimalHoldings.get(coinId).get(0), fixedHoldings.get(coinId).get(0), 8, "avg " + coinId);
+                assertSameValue(decimalHoldings.get(coinId).get(1), fixedHoldings.get(coinId).get(1), 8, "qty " + coinId);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("가중 평균 단가와 수익률은 HALF_UP으로 반올림됨")
+    void calculateProfitLoss_fixedPoint_roundsHalfUp() {
+        List<TradingHistory> trades = List.of(
+            trade("b1", 0, 1, "100", "1", BASE_TIME),
+            trade("b2", 0, 1, "200", "2", BASE_TIME.plusMinutes(1)),
+            trade("s1", 1, 1, "150", "1", BASE_TIME.plusMinutes(2)),
+            trade("s2", 1, 1, "100", "2", BASE_TIME.plusMinutes(3))
+        );
+        Map<Integer, List<BigDecimal>> holdings = new HashMap<>();
+
+        List<TradingHistory> result = new TradingProfitCalculator(true, 1, Integer.MAX_VALUE).calculateProfitLoss(trades, holdings);
+
+        // 평균 단가 = 500 / 3 = 166.666666666... -> 166.66666667
+        assertEquals(new BigDecimal("166.66666667"), result.get(2).getAvgBuyPrice());
+        // (150 - 166.66666667) / 166.66666667 = -0.09999999... -> -0.10000000 -> -10.00
+        assertEquals(new BigDecimal("-10.00"), result.get(2).getProfitLossRate());
+        assertEquals(new BigDecimal("-40.00"), result.get(3).getProfitLossRate());
+        assertTrue(holdings.isEmpty(), "전량 매도 후에는 보유 상태가 남지 않아야 합니다.");
+    }
+
+    @Test
+    @DisplayName("소수 8자리를 넘는 값은 BigDecimal 계산으로 처리됨")
+    void calculateProfitLoss_unrepresentableValue_fallsBackToBigDecimal() {
+        List<TradingHistory> trades = List.of(
+            trade("b1", 0, 1, "100.123456789", "1", BASE_TIME),
+            trade("s1", 1, 1, "110", "1", BASE_TIME.plusMinutes(1))
+        );
+
+        List<TradingHistory> result = new TradingProfitCalculator(true, 1, Integer.MAX_VALUE).calculateProfitLoss(trades, new HashMap<>());
+
+        assertEquals(0, new BigDecimal("100.123456789").compareTo(result.get(1).getAvgBuyPrice()));
+        assertEquals(new BigDecimal("9.86"), result.get(1).getProfitLossRate());
+    }
+
+    @Test
+    @DisplayName("코인별 병렬 계산 결과가 순차 계산과 동일하고 보유 상태가 합쳐짐")
+    void calculateProfitLoss_parallelByCoin_matchesSequential() {
+        Random random = new Random(20240102L);
+        List<TradingHistory> trades = randomTrades(random, 20_000, 300);
+        Map<Integer, List<BigDecimal>> initialHoldings = new HashMap<>();
+        initialHoldings.put(7, Arrays.asList(new BigDecimal("1234.50000000"), new BigDecimal("2.00000000")));
+        initialHoldings.put(999, Arrays.asList(new BigDecimal("10.00000000"), new BigDecimal("3.00000000")));
+
+        Map<Integer, List<BigDecimal>> sequentialHoldings = copy(initialHoldings);
+        List<TradingHistory> sequentialResult = new TradingProfitCalculator(true, 1, Integer.MAX_VALUE)
+            .calculateProfitLoss(copy(trades), sequentialHoldings);
+
+        TradingProfitCalculator parallelCalculator = new TradingProfitCalculator(true, 4, 1);
+        Map<Integer, List<BigDecimal>> parallelHoldings = copy(initialHoldings);
+        List<TradingHistory> parallelResult;
+        try {
+            parallelResult = parallelCalculator.calculateProfitLoss(copy(trades), parallelHoldings);
+        } finally {
+            parallelCalculator.shutdown();
+        }
+
+        assertEquals(sequentialResult.size(), parallelResult.size());
+        for (int i = 0; i < sequentialResult.size(); i++) {
+            TradingHistory expected = sequentialResult.get(i);
+            TradingHistory actual = parallelResult.get(i);
+            assertEquals(expected.getTradeUuid(), actual.getTradeUuid());
+            assertEquals(expected.getProfitLossRate(), actual.getProfitLossRate(), expected.getTradeUuid());
+            assertEquals(expected.getAvgBuyPrice(), actual.getAvgBuyPrice(), expected.getTradeUuid());
+        }
+        assertEquals(sequentialHoldings, parallelHoldings);
+        assertTrue(parallelHoldings.containsKey(999), "거래가 없는 코인의 보유 상태는 그대로 유지되어야 합니다.");
+    }
+
+    @Test
+    @DisplayName("한 번에 계산하며 받은 일 마감 보유 상태가 날짜별로 나누어 계산한 결과와 같음")
+    void calculateProfitLoss_dayEndListener_matchesPerDayCalculation() {
+        Random random = new Random(20240103L);
+        // 하루 평균 40건 정도가 되도록 거래 시각을 벌림
+        List<TradingHistory> trades = randomTrades(random, 6_000, 20, 36);
+        Map<Integer, List<BigDecimal>> initialHoldings = new HashMap<>();
+        initialHoldings.put(3, Arrays.asList(new BigDecimal("1234.50000000"), new BigDecimal("2.00000000")));
+
+        Map<LocalDate, Map<Integer, List<BigDecimal>>> expected = new TreeMap<>();
+        Map<Integer, List<BigDecimal>> perDayHoldings = copy(initialHoldings);
+        TradingProfitCalculator perDayCalculator = new TradingProfitCalculator(false, 1, Integer.MAX_VALUE);
+        int dayStart = 0;
+        for (int i = 1; i <= trades.size(); i++) {
+            LocalDate day = trades.get(dayStart).getTradeTime().toLocalDate();
+            if (i < trades.size() && trades.get(i).getTradeTime().toLocalDate().equals(day)) {
+                continue;
+            }
+            perDayCalculator.calculateProfitLoss(copy(trades.subList(dayStart, i)), perDayHoldings);
+            expected.put(day, normalize(perDayHoldings));
+            dayStart = i;
+        }
+
+        for (TradingProfitCalculator calculator : List.of(
+                new TradingProfitCalculator(false, 1, Integer.MAX_VALUE),
+                new TradingProfitCalculator(true, 1, Integer.MAX_VALUE),
+                new TradingProfitCalculator(true, 4, 1))) {
+            Map<LocalDate, Map<Integer, List<BigDecimal>>> actual = new TreeMap<>();
+            try {
+                calculator.calculateProfitLoss(copy(trades), copy(initialHoldings),
+                    (day, dayHoldings) -> assertNull(actual.put(day, normalize(dayHoldings)), "날짜마다 한 번만 호출되어야 합니다."));
+            } finally {
+                calculator.shutdown();
+            }
+            assertEquals(expected, actual);
+        }
+    }
+
+    private Map<Integer, List<BigDecimal>> normalize(Map<Integer, List<BigDecimal>> holdings) {
+        Map<Integer, List<BigDecimal>> normalized = new TreeMap<>();
+        holdings.forEach((coinId, values) -> normalized.put(coinId, List.of(
+            values.get(0).setScale(8, RoundingMode.HALF_UP), values.get(1).setScale(8, RoundingMode.HALF_UP))));
+        return normalized;
+    }
+
+    private List<TradingHistory> randomTrades(Random random, int count) {
+        return randomTrades(random, count, 5);
+    }
+
+    private List<TradingHistory> randomTrades(Random random, int count, int coinCount) {
+        return randomTrades(random, count, coinCount, 1);
+    }
+
+    private List<TradingHistory> randomTrades(Random random, int count, int coinCount, int minutesPerTrade) {
+        List<TradingHistory> trades = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int coinId = 1 + random.nextInt(coinCount);
+            int tradeType = random.nextInt(10) < 6 ? 0 : 1;
+            BigDecimal price = BigDecimal.valueOf(1 + (long) (random.nextDouble() * 20_000_000_000_000_000L), 8);
+            BigDecimal quantity = BigDecimal.valueOf(1 + (long) (random.nextDouble() * 500_000_000L), 8);
+            trades.add(trade("t" + i, tradeType, coinId, price.toPlainString(), quantity.toPlainString(),
+                BASE_TIME.plusMinutes(i * minutesPerTrade)));
+        }
+        return trades;
+    }
+
+
+    private List<TradingHistory> copy(List<TradingHistory> trades) {
+        List<TradingHistory> copied = new ArrayList<>();
+        for (TradingHistory trade : trades) {
+            copied.add(trade.withId(null));
+        }
+        return copied;
+    }
+
+    private Map<Integer, List<BigDecimal>> copy(Map<Integer, List<BigDecimal>> holdings) {
+        Map<Integer, List<BigDecimal>> copied = new HashMap<>();
+        holdings.forEach((coinId, values) -> copied.put(coinId, Arrays.asList(values.get(0), values.get(1))));
+        return copied;
+    }
+
+    private void assertSameValue(BigDecimal expected, BigDecimal actual, int scale, String message) {
+        if (expected == null || actual == null) {
+            assertEquals(expected, actual, message);
+            return;
+        }
+        assertEquals(0, expected.setScale(scale, RoundingMode.HALF_UP)
+            .compareTo(actual.setScale(scale, RoundingMode.HALF_UP)), message);
+    }
+}
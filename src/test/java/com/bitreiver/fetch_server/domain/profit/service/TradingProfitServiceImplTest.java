@@ -0,0 +1,186 @@
+package com.bitreiver.fetch_server.domain.profit.service;
+
+import com.bitreiver.fetch_server.domain.coin.service.CoinCatalog;
+import com.bitreiver.fetch_server.domain.profit.entity.CoinHoldingPast;
+import com.bitreiver.fetch_server.domain.profit.entity.ProfitCalculationWatermark;
+import com.bitreiver.fetch_server.domain.profit.repository.CoinHoldingPastRepository;
+import com.bitreiver.fetch_server.domain.profit.repository.PortfolioDailyPositionRepository;
+import com.bitreiver.fetch_server.domain.profit.repository.ProfitCalculationWatermarkRepository;
+import com.bitreiver.fetch_server.domain.profit.repository.RealizedPnlMonthlyRepository;
+import com.bitreiver.fetch_server.domain.trading.entity.TradingHistory;
+import com.bitreiver.fetch_server.domain.trading.repository.TradingAdvisoryLockRepository;
+import com.bitreiver.fetch_server.domain.trading.repository.TradingHistoryRepository;
+import com.bitreiver.fetch_server.domain.trading.service.TradingHistoryResponseCache;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+import static com.bitreiver.fetch_server.support.TestFixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class TradingProfitServiceImplTest {
+
+    private static final LocalDateTime BASE_TIME = LocalDateTime.of(2024, 1, 1, 9, 0);
+
+    @Test
+    @DisplayName("증분 계산을 나누어 실행한 결과가 전체 계산 결과와 같음")
+    void calculateAndUpdateProfitLoss_incremental_matchesFull() {
+        FakeStore full = new FakeStore();
+        full.add(sampleTrades());
+        full.service.calculateAndUpdateProfitLoss(USER_ID, 1, true);
+
+        FakeStore incremental = new FakeStore();
+        List<TradingHistory> trades = sampleTrades();
+        incremental.add(trades.subList(0, 3));
+        incremental.service.calculateAndUpdateProfitLoss(USER_ID, 1, false);
+        incremental.add(trades.subList(3, 5));
+        assertEquals("incremental", incremental.service.calculateAndUpdateProfitLoss(USER_ID, 1, false).get("calculation_mode"));
+        incremental.add(trades.subList(5, trades.size()));
+        assertEquals("incremental", incremental.service.calculateAndUpdateProfitLoss(USER_ID, 1, false).get("calculation_mode"));
+
+        for (int i = 0; i < full.trades.size(); i++) {
+            TradingHistory expected = full.trades.get(i);
+            TradingHistory actual = incremental.trades.get(i);
+            assertEquals(expected.getProfitLossRate(), actual.getProfitLossRate(), expected.getTradeUuid());
+            assertEquals(expected.getAvgBuyPrice(), actual.getAvgBuyPrice(), expected.getTradeUuid());
+        }
+        assertEquals(full.holdingSnapshot(), incremental.holdingSnapshot());
+        assertEquals(full.watermark.getLastTradeId(), incremental.watermark.getLastTradeId());
+    }
+
+    @Test
+    @DisplayName("전량 매도로 보유 종목이 모두 삭제되어도 워터마크가 유지되어 다음 계산은 증분으로 진행됨")
+    void calculateAndUpdateProfitLoss_fullySold_keepsWatermark() {
+        FakeStore store = new FakeStore();
+        store.add(List.of(
+            trade("b1", 0, 1, "100", "2", BASE_TIME),
+            trade("s1", 1, 1, "150", "2", BASE_TIME.plusMinutes(60))
+        ));
+        store.service.calculateAndUpdateProfitLoss(USER_ID, 1, false);
+
+        assertTrue(store.holdings.isEmpty(), "전량 매도 후에는 보유 종목이 없어야 합니다.");
+        assertEquals(2, store.watermark.getLastTradeId());
+        clearInvocations(store.realizedPnlMonthlyRepository);
+
+        store.add(List.of(trade("b2", 0, 1, "120", "1", BASE_TIME.plusMinutes(120))));
+        Map<String, Object> result = store.service.calculateAndUpdateProfitLoss(USER_ID, 1, false);
+
+        assertEquals("incremental", result.get("calculation_mode"));
+        assertEquals(1, result.get("updated_count"));
+        verify(store.tradingHistoryRepository).streamForProfitCalculation(USER_ID, EXCHANGE_CODE, 2);
+        verify(store.realizedPnlMonthlyRepository, never()).deleteByUserIdAndExchangeCode(any(), any());
+        assertEquals(3, store.watermark.getLastTradeId());
+        assertEquals(0, new BigDecimal("1").compareTo(store.holdings.get(1).getRemainingQuantity()));
+    }
+
+    private List<TradingHistory> sampleTrades() {
+        return List.of(
+            trade("t1", 0, 1, "100", "2", BASE_TIME),
+            trade("t2", 0, 2, "10", "5", BASE_TIME.plusMinutes(30)),
+            trade("t3", 1, 1, "130", "2", BASE_TIME.plusMinutes(60 * 24)),
+            trade("t4", 0, 1, "90", "1", BASE_TIME.plusMinutes(60 * 25)),
+            trade("t5", 1, 2, "8", "2", BASE_TIME.plusMinutes(60 * 48)),
+            trade("t6", 0, 2, "12", "1", BASE_TIME.plusMinutes(60 * 49)),
+            trade("t7", 1, 1, "95", "1", BASE_TIME.plusMinutes(60 * 72))
+        );
+    }
+
+
+    /**
+     * 거래 내역·보유 종목·워터마크를 메모리에 저장하는 저장소 대역
+     */
+    private static class FakeStore {
+        private final List<TradingHistory> trades = new ArrayList<>();
+        private final Map<Integer, CoinHoldingPast> holdings = new TreeMap<>();
+        private ProfitCalculationWatermark watermark;
+
+        private final TradingHistoryRepository tradingHistoryRepository = mock(TradingHistoryRepository.class);
+        private final CoinHoldingPastRepository coinHoldingPastRepository = mock(CoinHoldingPastRepository.class);
+        private final RealizedPnlMonthlyRepository realizedPnlMonthlyRepository = mock(RealizedPnlMonthlyRepository.class);
+        private final ProfitCalculationWatermarkRepository watermarkRepository = mock(ProfitCalculationWatermarkRepository.class);
+        private final TradingProfitServiceImpl service;
+
+        @SuppressWarnings("unchecked")
+        FakeStore() {
+            when(tradingHistoryRepository.streamForProfitCalculation(eq(USER_ID), eq(EXCHANGE_CODE), any()))
+                .thenAnswer(invocation -> {
+                    Integer afterId = invocation.getArgument(2);
+                    return trades.stream().filter(trade -> afterId == null || trade.getId() > afterId);
+                });
+            when(tradingHistoryRepository.updateProfitLossInBulk(anyList()))
+                .thenAnswer(invocation -> ((List<TradingHistory>) invocation.getArgument(0)).size());
+
+            when(coinHoldingPastRepository.findByUserIdAndExchangeCode(USER_ID, EXCHANGE_CODE))
+                .thenAnswer(invocation -> new ArrayList<>(holdings.values()));
+            when(coinHoldingPastRepository.upsertHoldings(anyList())).thenAnswer(invocation -> {
+                List<CoinHoldingPast> rows = invocation.getArgument(0);
+                rows.forEach(row -> holdings.put(row.getCoinId(), row));
+                return rows.size();
+            });
+            when(coinHoldingPastRepository.deleteByUserIdAndExchangeCodeAndCoinIdNotIn(eq(USER_ID), eq(EXCHANGE_CODE), anyCollection()))
+                .thenAnswer(invocation -> {
+                    Collection<Integer> kept = invocation.getArgument(2);
+                    int before = holdings.size();
+                    holdings.keySet().retainAll(kept);
+                    return before - holdings.size();
+                });
+            when(coinHoldingPastRepository.deleteByUserIdAndExchangeCode(USER_ID, EXCHANGE_CODE)).thenAnswer(invocation -> {
+                int before = holdings.size();
+                holdings.clear();
+                return before;
+            });
+
+            when(watermarkRepository.findByUserIdAndExchangeCode(USER_ID, EXCHANGE_CODE))
+                .thenAnswer(invocation -> Optional.ofNullable(watermark));
+            when(watermarkRepository.save(any(ProfitCalculationWatermark.class))).thenAnswer(invocation -> {
+                watermark = invocation.getArgument(0);
+                return watermark;
+            });
+
+            service = new TradingProfitServiceImpl(
+                new TradingProfitCalculator(true, 1, Integer.MAX_VALUE),
+                tradingHistoryRepository,
+                coinHoldingPastRepository,
+                mock(PortfolioDailyPositionRepository.class),
+                realizedPnlMonthlyRepository,
+                watermarkRepository,
+                mock(CoinCatalog.class),
+                mock(TradingHistoryResponseCache.class),
+                mock(TradingAdvisoryLockRepository.class));
+        }
+
+        void add(List<TradingHistory> newTrades) {
+            for (TradingHistory trade : newTrades) {
+                trades.add(TradingHistory.builder()
+                    .id(trades.size() + 1)
+                    .userId(trade.getUserId())
+                    .exchangeCode(trade.getExchangeCode())
+                    .tradeUuid(trade.getTradeUuid())
+                    .tradeType(trade.getTradeType())
+                    .coinId(trade.getCoinId())
+                    .price(trade.getPrice())
+                    .quantity(trade.getQuantity())
+                    .totalPrice(trade.getTotalPrice())
+                    .tradeTime(trade.getTradeTime())
+                    .build());
+            }
+        }
+
+        Map<Integer, List<BigDecimal>> holdingSnapshot() {
+            Map<Integer, List<BigDecimal>> snapshot = new TreeMap<>();
+            holdings.forEach((coinId, holding) ->
+                snapshot.put(coinId, List.of(holding.getAvgBuyPrice(), holding.getRemainingQuantity())));
+            return snapshot;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.bitreiver.fetch_server.domain.trading.entity;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TradingSyncCheckpointTest {
+
+    private static final LocalDateTime LAST_TRADE_TIME = LocalDateTime.of(2023, 1, 10, 12, 0);
+    private static final LocalDateTime SCAN_END_TIME = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    @Test
+    @DisplayName("완료된 동기화 이후에는 워터마크가 아니라 완료된 구간 끝부터 조회함")
+    void resumeFrom_afterCompletedSync_usesCompletedUntil() {
+        TradingSyncCheckpoint checkpoint = TradingSyncCheckpoint.builder().build();
+        checkpoint.startSync(true);
+        checkpoint.completeUntil(SCAN_END_TIME, LAST_TRADE_TIME, 3);
+        checkpoint.finishSync();
+
+        assertEquals(SCAN_END_TIME, checkpoint.resumeFrom());
+    }
+
+    @Test
+    @DisplayName("중단된 초기 동기화를 이어서 진행해도 초기 동기화 여부가 유지됨")
+    void startSync_resumed_keepsInitialFlag() {
+        TradingSyncCheckpoint checkpoint = TradingSyncCheckpoint.builder().build();
+        checkpoint.startSync(true);
+        checkpoint.completeUntil(LAST_TRADE_TIME, LAST_TRADE_TIME, 10);
+
+        checkpoint.startSync(false);
+
+        assertTrue(checkpoint.getInitialSync());
+        checkpoint.finishSync();
+        assertFalse(checkpoint.getInitialSync());
+    }
+
+    @Test
+    @DisplayName("수익률 계산 전까지 중단된 호출에서 저장된 거래 수가 누적됨")
+    void completeUntil_accumulatesPendingProfitCount() {
+        TradingSyncCheckpoint checkpoint = TradingSyncCheckpoint.builder().build();
+        checkpoint.startSync(false);
+        checkpoint.completeUntil(LAST_TRADE_TIME, LAST_TRADE_TIME, 5);
+        checkpoint.startSync(false);
+        checkpoint.completeUntil(SCAN_END_TIME, null, 0);
+
+        assertTrue(checkpoint.hasPendingProfitCalculation());
+        checkpoint.markProfitCalculated();
+        assertFalse(checkpoint.hasPendingProfitCalculation());
+    }
+}
@@ -0,0 +1,110 @@
+package com.bitreiver.fetch_server.domain.trading.repository;
+
+import com.bitreiver.fetch_server.domain.trading.entity.TradingHistory;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class TradingHistoryRepositoryEntityManagerImplTest {
+
+    private static final UUID USER_ID = UUID.fromString("123e4567-e89b-12d3-a456-426614174000");
+    private static final UUID OTHER_USER_ID = UUID.fromString("223e4567-e89b-12d3-a456-426614174000");
+    private static final Short EXCHANGE_CODE = 1;
+    private static final LocalDateTime TRADE_TIME = LocalDateTime.of(2024, 3, 2, 10, 0);
+
+    private EntityManager entityManager;
+    private Query query;
+    private TradingHistoryRepositoryEntityManagerImpl repository;
+
+    @BeforeEach
+    void setUp() {
+        entityManager = mock(EntityManager.class);
+        query = mock(Query.class);
+        when(entityManager.createNativeQuery(anyString())).thenReturn(query);
+        repository = new TradingHistoryRepositoryEntityManagerImpl();
+        ReflectionTestUtils.setField(repository, "entityManager", entityManager);
+    }
+
+    @Test
+    @DisplayName("RETURNING 행을 사용자·거래소·trade_uuid로 입력 행에 연결하고, 삽입되지 않은 행은 제외함")
+    void insertIgnoringDuplicates_matchesReturnedRowsByTradeKey() {
+        // 같은 trade_uuid를 가진 다른 사용자의 거래와, 이미 저장되어 건너뛴 거래(b)가 섞인 경우
+        List<Object[]> returned = new ArrayList<>();
+        returned.add(new Object[]{12, OTHER_USER_ID, (short) 1, "a"});
+        returned.add(new Object[]{11, USER_ID, (short) 1, "a"});
+        returned.add(new Object[]{13, USER_ID, (short) 1, "c"});
+        when(query.getResultList()).thenReturn(returned);
+
+        List<TradingHistory> inserted = repository.insertIgnoringDuplicates(List.of(
+            trade(USER_ID, "a", "100"),
+            trade(USER_ID, "b", "200"),
+            trade(OTHER_USER_ID, "a", "300"),
+            trade(USER_ID, "a", "999"),
+            trade(USER_ID, "c", "400")
+        ));
+
+        assertEquals(3, inserted.size());
+        assertMatched(inserted.get(0), 12, OTHER_USER_ID, "a", "300");
+        assertMatched(inserted.get(1), 11, USER_ID, "a", "100");
+        assertMatched(inserted.get(2), 13, USER_ID, "c", "400");
+
+        // 목록 안의 중복(a, 999)은 SQL에 담기 전에 제외 (행당 파라미터 11개)
+        verify(query, times(4 * 11)).setParameter(anyInt(), any());
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(entityManager).createNativeQuery(sql.capture());
+        assertTrue(sql.getValue().endsWith(
+            "ON CONFLICT (user_id, exchange_code, trade_uuid) DO NOTHING RETURNING id, user_id, exchange_code, trade_uuid"));
+        assertFalse(sql.getValue().contains("NOT EXISTS"));
+    }
+
+    @Test
+    @DisplayName("파티션 테이블이면 trade_time과 관계없이 trade_uuid 중복을 NOT EXISTS로 확인함")
+    void insertIgnoringDuplicates_partitioned_usesNotExists() {
+        ReflectionTestUtils.setField(repository, "partitioned", true);
+        when(query.getResultList()).thenReturn(new ArrayList<>());
+
+        assertTrue(repository.insertIgnoringDuplicates(List.of(trade(USER_ID, "a", "100"))).isEmpty());
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(entityManager).createNativeQuery(sql.capture());
+        assertTrue(sql.getValue().contains(
+            "WHERE NOT EXISTS (SELECT 1 FROM trading_histories t " +
+            "WHERE t.user_id = v.user_id AND t.exchange_code = v.exchange_code AND t.trade_uuid = v.trade_uuid) " +
+            "ON CONFLICT DO NOTHING"));
+    }
+
+    private void assertMatched(TradingHistory history, int id, UUID userId, String tradeUuid, String price) {
+        assertEquals(id, history.getId());
+        assertEquals(userId, history.getUserId());
+        assertEquals(tradeUuid, history.getTradeUuid());
+        assertEquals(new BigDecimal(price), history.getPrice());
+    }
+
+    private TradingHistory trade(UUID userId, String tradeUuid, String price) {
+        return TradingHistory.builder()
+            .userId(userId)
+            .exchangeCode(EXCHANGE_CODE)
+            .tradeUuid(tradeUuid)
+            .tradeType((short) 0)
+            .coinId(1)
+            .price(new BigDecimal(price))
+            .quantity(BigDecimal.ONE)
+            .totalPrice(new BigDecimal(price))
+            .tradeTime(TRADE_TIME)
+            .build();
+    }
+}
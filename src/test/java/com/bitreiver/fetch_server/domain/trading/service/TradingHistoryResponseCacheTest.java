@@ -0,0 +1,71 @@
+package com.bitreiver.fetch_server.domain.trading.service;
+
+import com.bitreiver.fetch_server.domain.trading.dto.TradingHistoryListResponse;
+import com.bitreiver.fetch_server.global.cache.RedisCacheService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class TradingHistoryResponseCacheTest {
+
+    private static final UUID USER_ID = UUID.fromString("123e4567-e89b-12d3-a456-426614174000");
+
+    private RedisCacheService redisCacheService;
+    private SimpleMeterRegistry meterRegistry;
+    private TradingHistoryResponseCache cache;
+
+    @BeforeEach
+    void setUp() {
+        redisCacheService = mock(RedisCacheService.class);
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new TradingHistoryResponseCache(redisCacheService, meterRegistry, 60L);
+    }
+
+    @Test
+    @DisplayName("캐시 조회 결과가 hit/miss 카운터와 적중률 게이지에 반영됨")
+    void get_recordsHitAndMiss() {
+        TradingHistoryListResponse response = TradingHistoryListResponse.builder()
+            .totalCount(0)
+            .tradingHistories(List.of())
+            .build();
+        when(redisCacheService.get("trading:histories:version:" + USER_ID, String.class)).thenReturn(Optional.of("7"));
+        when(redisCacheService.get("trading:histories:" + USER_ID + ":7", TradingHistoryListResponse.class))
+            .thenReturn(Optional.empty())
+            .thenReturn(Optional.of(response));
+
+        assertFalse(cache.get(USER_ID).isHit());
+        for (int i = 0; i < 3; i++) {
+            assertSame(response, cache.get(USER_ID).getResponse());
+        }
+
+        assertEquals(3.0, meterRegistry.get("trading.history.cache.requests").tag("result", "hit").counter().count());
+        assertEquals(1.0, meterRegistry.get("trading.history.cache.requests").tag("result", "miss").counter().count());
+        assertEquals(0.75, meterRegistry.get("trading.history.cache.hit.rate").gauge().value());
+    }
+
+    @Test
+    @DisplayName("무효화하면 새 버전이 발급되어 이전 버전으로 저장된 응답은 조회되지 않음")
+    void invalidate_publishesNewVersion() {
+        when(redisCacheService.get("trading:histories:version:" + USER_ID, String.class)).thenReturn(Optional.empty());
+        when(redisCacheService.get(anyString(), eq(TradingHistoryListResponse.class))).thenReturn(Optional.empty());
+
+        TradingHistoryResponseCache.Lookup lookup = cache.get(USER_ID);
+        assertEquals("0", lookup.getVersion());
+
+        cache.invalidate(USER_ID);
+
+        ArgumentCaptor<Object> version = ArgumentCaptor.forClass(Object.class);
+        verify(redisCacheService).set(eq("trading:histories:version:" + USER_ID), version.capture(), eq(-1L));
+        assertNotEquals("0", version.getValue());
+    }
+}
@@ -0,0 +1,173 @@
+package com.bitreiver.fetch_server.domain.trading.service;
+
+import com.bitreiver.fetch_server.domain.coin.repository.CoinRepository;
+import com.bitreiver.fetch_server.domain.coin.service.CoinCatalog;
+import com.bitreiver.fetch_server.domain.exchange.service.ExchangeCredentialService;
+import com.bitreiver.fetch_server.domain.profit.service.TradingProfitService;
+import com.bitreiver.fetch_server.domain.trading.entity.TradingHistory;
+import com.bitreiver.fetch_server.domain.trading.entity.TradingOrderArchive;
+import com.bitreiver.fetch_server.domain.trading.repository.TradingAdvisoryLockRepository;
+import com.bitreiver.fetch_server.domain.trading.repository.TradingHistoryRepository;
+import com.bitreiver.fetch_server.domain.trading.repository.TradingOrderArchiveRepository;
+import com.bitreiver.fetch_server.domain.upbit.dto.UpbitOrder;
+import com.bitreiver.fetch_server.domain.upbit.service.UpbitService;
+import com.bitreiver.fetch_server.global.cache.RedisCacheService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+
+import static com.bitreiver.fetch_server.support.TestFixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class TradingOrderArchiveServiceImplTest {
+
+    private static final LocalDateTime RANGE_START = LocalDateTime.of(2024, 3, 1, 0, 0);
+    private static final LocalDateTime RANGE_END = LocalDateTime.of(2024, 3, 8, 0, 0);
+
+    /** /v1/orders/uuids 응답 (체결 목록 있음, 체결 합계만 있음, 체결 정보 없음) */
+    private static final String[] ORDERS = {
+        "{\"uuid\":\"o1\",\"side\":\"bid\",\"ord_type\":\"limit\",\"market\":\"KRW-BTC\",\"created_at\":\"2024-03-02T10:00:00+09:00\"," +
+            "\"paid_fee\":\"25.5\",\"trades\":[{\"volume\":\"0.001\",\"funds\":\"30000\",\"side\":\"bid\"}," +
+            "{\"volume\":\"0.002\",\"funds\":\"60100\"}]}",
+        "{ \"uuid\" : \"o2\", \"side\" : \"ask\", \"market\" : \"KRW-ETH\", \"created_at\" : \"2024-03-03T11:30:00+09:00\", " +
+            "\"paid_fee\" : \"3.1\", \"executed_volume\" : \"0.5\", \"executed_funds\" : \"2000000\" }",
+        "{\"uuid\":\"o3\",\"side\":\"bid\",\"market\":\"KRW-BTC\",\"created_at\":\"2024-03-04T09:00:00+09:00\",\"state\":\"cancel\"}"
+    };
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private TradingHistoryRepository tradingHistoryRepository;
+    private TradingOrderArchiveRepository archiveRepository;
+    private TradingProfitService tradingProfitService;
+    private TradingHistoryResponseCache tradingHistoryResponseCache;
+    private TradingHistoryServiceImpl tradingHistoryService;
+    private TradingOrderArchiveServiceImpl archiveService;
+
+    @BeforeEach
+    void setUp() {
+        CoinRepository coinRepository = mock(CoinRepository.class);
+        when(coinRepository.findAll()).thenReturn(List.of(coin(1, "BTC", "KRW-BTC"), coin(2, "ETH", "KRW-ETH")));
+        RedisCacheService redisCacheService = mock(RedisCacheService.class);
+        when(redisCacheService.get(anyString(), eq(Long.class))).thenReturn(Optional.empty());
+        CoinCatalog coinCatalog = new CoinCatalog(coinRepository, redisCacheService);
+        ReflectionTestUtils.setField(coinCatalog, "missReloadIntervalMs", 60_000L);
+
+        tradingHistoryRepository = mock(TradingHistoryRepository.class);
+        archiveRepository = mock(TradingOrderArchiveRepository.class);
+        tradingProfitService = mock(TradingProfitService.class);
+        tradingHistoryResponseCache = mock(TradingHistoryResponseCache.class);
+        TradingAdvisoryLockRepository lockRepository = mock(TradingAdvisoryLockRepository.class);
+
+        tradingHistoryService = new TradingHistoryServiceImpl(
+            tradingHistoryRepository,
+            coinCatalog,
+            mock(ExchangeCredentialService.class),
+            mock(UpbitService.class),
+            objectMapper,
+            tradingHistoryResponseCache,
+            lockRepository);
+        archiveService = new TradingOrderArchiveServiceImpl(
+            archiveRepository, tradingHistoryService, tradingProfitService, lockRepository, objectMapper, true);
+    }
+
+    @Test
+    @DisplayName("아카이브한 응답 원문을 재처리하면 동기화 때 저장한 거래내역과 같은 행이 다시 만들어짐")
+    void reprocessTradingHistories_reproducesOriginalRows() throws Exception {
+        byte[] body = ("[" + String.join(",", ORDERS) + "]").getBytes(StandardCharsets.UTF_8);
+
+        // 동기화: 응답을 디코딩해 거래내역으로 변환하고 원문을 아카이브
+        List<UpbitOrder> fetched = UpbitOrder.readAll(objectMapper, body);
+        List<UpbitOrder> resolved = fetched.stream().map(UpbitOrder::withResolvedTrades).filter(Objects::nonNull).toList();
+        List<TradingHistory> original = tradingHistoryService.processTradingHistories(USER_ID, "UPBIT", resolved);
+        archiveService.archiveOrders(USER_ID, EXCHANGE_CODE, RANGE_START, RANGE_END, fetched);
+
+        ArgumentCaptor<TradingOrderArchive> archived = ArgumentCaptor.forClass(TradingOrderArchive.class);
+        verify(archiveRepository).save(archived.capture());
+        byte[] payload = archived.getValue().getPayload();
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(payload))) {
+            assertEquals(String.join("\n", ORDERS) + "\n", new String(in.readAllBytes(), StandardCharsets.UTF_8),
+                "응답 원문이 다시 직렬화되지 않고 그대로 저장되어야 합니다.");
+        }
+
+        // 재처리
+        TradingOrderArchiveRepository.ArchivePayload stored = mock(TradingOrderArchiveRepository.ArchivePayload.class);
+        when(stored.getRangeStart()).thenReturn(RANGE_START);
+        when(stored.getRangeEnd()).thenReturn(RANGE_END);
+        when(stored.getPayload()).thenReturn(payload);
+        when(archiveRepository.findIdsNewestFirst(USER_ID, EXCHANGE_CODE)).thenReturn(List.of(1L));
+        when(archiveRepository.findPayloadById(1L)).thenReturn(Optional.of(stored));
+        List<TradingHistory> reinserted = new ArrayList<>();
+        when(tradingHistoryRepository.insertIgnoringDuplicates(anyList())).thenAnswer(invocation -> {
+            List<TradingHistory> rows = invocation.getArgument(0);
+            reinserted.addAll(rows);
+            return rows;
+        });
+
+        Map<String, Object> result = archiveService.reprocessTradingHistories(USER_ID, "UPBIT");
+
+        assertEquals(2, original.size());
+        assertEquals(original.size(), reinserted.size());
+        for (int i = 0; i < original.size(); i++) {
+            TradingHistory expected = original.get(i);
+            TradingHistory actual = reinserted.get(i);
+            assertEquals(expected.getUserId(), actual.getUserId());
+            assertEquals(expected.getExchangeCode(), actual.getExchangeCode());
+            assertEquals(expected.getTradeUuid(), actual.getTradeUuid());
+            assertEquals(expected.getCoinId(), actual.getCoinId());
+            assertEquals(expected.getTradeType(), actual.getTradeType());
+            assertEquals(expected.getPrice(), actual.getPrice(), expected.getTradeUuid());
+            assertEquals(expected.getQuantity(), actual.getQuantity(), expected.getTradeUuid());
+            assertEquals(expected.getTotalPrice(), actual.getTotalPrice(), expected.getTradeUuid());
+            assertEquals(expected.getFee(), actual.getFee(), expected.getTradeUuid());
+            assertEquals(expected.getTradeTime(), actual.getTradeTime(), expected.getTradeUuid());
+        }
+        // 거래가 만들어지지 않는 주문(o3)의 기존 거래는 지우지 않고 결과로 알려 줌
+        verify(tradingHistoryRepository).deleteByTradeUuids(
+            USER_ID, EXCHANGE_CODE, RANGE_START, RANGE_END, List.of("o1", "o2"));
+        assertEquals(List.of("o3"), result.get("skipped_order_uuids"));
+        verify(tradingProfitService).calculateAndUpdateProfitLoss(USER_ID, 1, true);
+    }
+
+    @Test
+    @DisplayName("코인 카탈로그에 없는 주문은 기존 거래를 지우지 않고, 삭제만 있어도 조회 캐시를 비움")
+    void reprocessTradingHistories_unconvertedOrder_keepsExistingTrades() throws Exception {
+        String unknownMarket = "{\"uuid\":\"o4\",\"side\":\"bid\",\"market\":\"KRW-XRP\",\"created_at\":\"2024-03-05T09:00:00+09:00\"," +
+            "\"executed_volume\":\"10\",\"executed_funds\":\"7000\"}";
+        archiveService.archiveOrders(USER_ID, EXCHANGE_CODE, RANGE_START, RANGE_END,
+            UpbitOrder.readAll(objectMapper, ("[" + ORDERS[1] + "," + unknownMarket + "]").getBytes(StandardCharsets.UTF_8)));
+        ArgumentCaptor<TradingOrderArchive> archived = ArgumentCaptor.forClass(TradingOrderArchive.class);
+        verify(archiveRepository).save(archived.capture());
+
+        TradingOrderArchiveRepository.ArchivePayload stored = mock(TradingOrderArchiveRepository.ArchivePayload.class);
+        when(stored.getRangeStart()).thenReturn(RANGE_START);
+        when(stored.getRangeEnd()).thenReturn(RANGE_END);
+        when(stored.getPayload()).thenReturn(archived.getValue().getPayload());
+        when(archiveRepository.findIdsNewestFirst(USER_ID, EXCHANGE_CODE)).thenReturn(List.of(1L));
+        when(archiveRepository.findPayloadById(1L)).thenReturn(Optional.of(stored));
+        when(tradingHistoryRepository.deleteByTradeUuids(any(), any(), any(), any(), anyList())).thenReturn(1);
+        // 이미 같은 거래가 있어 새로 삽입된 행이 없는 경우
+        when(tradingHistoryRepository.insertIgnoringDuplicates(anyList())).thenReturn(new ArrayList<>());
+
+        Map<String, Object> result = archiveService.reprocessTradingHistories(USER_ID, "UPBIT");
+
+        verify(tradingHistoryRepository).deleteByTradeUuids(
+            USER_ID, EXCHANGE_CODE, RANGE_START, RANGE_END, List.of("o2"));
+        assertEquals(List.of("o4"), result.get("skipped_order_uuids"));
+        verify(tradingHistoryResponseCache).invalidate(USER_ID);
+    }
+}
@@ -0,0 +1,62 @@
+package com.bitreiver.fetch_server.infra.upbit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketTest {
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    @Test
+    @DisplayName("버킷 용량만큼은 대기 없이 선점 가능")
+    void reserve_withinCapacity_noWait() {
+        AtomicLong clock = new AtomicLong(0);
+        TokenBucket bucket = new TokenBucket(30, 3, clock::get);
+
+        assertEquals(0L, bucket.reserve());
+        assertEquals(0L, bucket.reserve());
+        assertEquals(0L, bucket.reserve());
+    }
+
+    @Test
+    @DisplayName("토큰 부족 시 초당 허용량에 맞춰 대기 시간이 누적됨")
+    void reserve_exhausted_waitAccumulates() {
+        AtomicLong clock = new AtomicLong(0);
+        TokenBucket bucket = new TokenBucket(10, 1, clock::get);
+
+        assertEquals(0L, bucket.reserve());
+        assertEquals(NANOS_PER_SECOND / 10, bucket.reserve(), "두 번째 요청은 100ms 대기해야 합니다.");
+        assertEquals(2 * NANOS_PER_SECOND / 10, bucket.reserve(), "세 번째 요청은 200ms 대기해야 합니다.");
+    }
+
+    @Test
+    @DisplayName("시간이 지나면 용량 한도 내에서 토큰이 재충전됨")
+    void reserve_afterElapsed_refilledUpToCapacity() {
+        AtomicLong clock = new AtomicLong(0);
+        TokenBucket bucket = new TokenBucket(10, 2, clock::get);
+
+        bucket.reserve();
+        bucket.reserve();
+        clock.addAndGet(10 * NANOS_PER_SECOND);
+
+        assertEquals(2.0, bucket.availableTokens(), 1e-9, "재충전은 버킷 용량을 넘지 않아야 합니다.");
+        assertEquals(0L, bucket.reserve());
+    }
+
+    @Test
+    @DisplayName("초당 허용량을 줄이면 이후 대기 시간이 새 허용량 기준으로 계산됨")
+    void setPermitsPerSecond_reducedRate_longerWait() {
+        AtomicLong clock = new AtomicLong(0);
+        TokenBucket bucket = new TokenBucket(10, 1, clock::get);
+
+        assertEquals(0L, bucket.reserve());
+        bucket.setPermitsPerSecond(2);
+
+        assertEquals(2.0, bucket.getPermitsPerSecond(), 1e-9);
+        assertEquals(NANOS_PER_SECOND / 2, bucket.reserve(), "허용량 2회/초에서는 500ms 대기해야 합니다.");
+    }
+}
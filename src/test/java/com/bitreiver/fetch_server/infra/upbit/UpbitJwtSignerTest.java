@@ -0,0 +1,57 @@
+package com.bitreiver.fetch_server.infra.upbit;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UpbitJwtSignerTest {
+
+    private static final String ACCESS_KEY = "test-access-key";
+    private static final String SECRET_KEY = "test-secret-key-0123456789abcdefghijklmn";
+
+    @Test
+    @DisplayName("서명한 토큰을 jjwt로 검증할 수 있고 쿼리 해시가 SHA-512로 포함됨")
+    void sign_withQuery_verifiableByJjwt() throws Exception {
+        UpbitJwtSigner signer = new UpbitJwtSigner(ACCESS_KEY, SECRET_KEY);
+        String queryString = "states[]=done&states[]=cancel&limit=1000";
+
+        Claims claims = parse(signer.sign(queryString));
+
+        String expectedHash = HexFormat.of().formatHex(
+            MessageDigest.getInstance("SHA-512").digest(queryString.getBytes(StandardCharsets.UTF_8)));
+        assertEquals(ACCESS_KEY, claims.get("access_key"));
+        assertNotNull(claims.get("nonce"));
+        assertEquals(expectedHash, claims.get("query_hash"));
+        assertEquals("SHA512", claims.get("query_hash_alg"));
+    }
+
+    @Test
+    @DisplayName("쿼리가 없으면 query_hash를 넣지 않고, 요청마다 nonce가 달라짐")
+    void sign_withoutQuery_uniqueNonce() {
+        UpbitJwtSigner signer = new UpbitJwtSigner(ACCESS_KEY, SECRET_KEY);
+
+        Claims first = parse(signer.sign(null));
+        Claims second = parse(signer.sign(""));
+
+        assertNull(first.get("query_hash"));
+        assertNotEquals(first.get("nonce"), second.get("nonce"));
+        assertTrue(signer.matches(SECRET_KEY));
+        assertFalse(signer.matches(SECRET_KEY + "x"));
+    }
+
+    private Claims parse(String token) {
+        return Jwts.parser()
+            .verifyWith(Keys.hmacShaKeyFor(SECRET_KEY.getBytes(StandardCharsets.UTF_8)))
+            .build()
+            .parseSignedClaims(token)
+            .getPayload();
+    }
+}
@@ -0,0 +1,28 @@
+package com.bitreiver.fetch_server.infra.upbit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UpbitRemainingReqTest {
+
+    @Test
+    @DisplayName("Remaining-Req 헤더에서 그룹과 초당 남은 요청 수를 파싱")
+    void parse_validHeader() {
+        UpbitRemainingReq remainingReq = UpbitRemainingReq.parse("group=default; min=1800; sec=29");
+
+        assertNotNull(remainingReq);
+        assertEquals("default", remainingReq.getGroup());
+        assertEquals(29, remainingReq.getSec());
+    }
+
+    @Test
+    @DisplayName("헤더가 없거나 sec 값이 잘못되면 null 반환")
+    void parse_invalidHeader_returnsNull() {
+        assertNull(UpbitRemainingReq.parse(null));
+        assertNull(UpbitRemainingReq.parse(""));
+        assertNull(UpbitRemainingReq.parse("group=default; min=1800"));
+        assertNull(UpbitRemainingReq.parse("group=default; sec=abc"));
+    }
+}
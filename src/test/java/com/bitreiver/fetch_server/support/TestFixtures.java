@@ -0,0 +1,53 @@
+package com.bitreiver.fetch_server.support;
+
+import com.bitreiver.fetch_server.domain.coin.entity.Coin;
+import com.bitreiver.fetch_server.domain.trading.entity.TradingHistory;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * 여러 테스트에서 함께 쓰는 엔티티 생성 도우미
+ */
+public final class TestFixtures {
+
+    public static final UUID USER_ID = UUID.fromString("123e4567-e89b-12d3-a456-426614174000");
+    public static final Short EXCHANGE_CODE = 1;
+
+    private TestFixtures() {
+    }
+
+    /**
+     * USER_ID·EXCHANGE_CODE의 거래 (totalPrice = price * quantity)
+     *
+     * @param tradeType 0: 매수, 1: 매도
+     */
+    public static TradingHistory trade(String uuid, int tradeType, int coinId, String price, String quantity,
+                                       LocalDateTime tradeTime) {
+        return TradingHistory.builder()
+            .userId(USER_ID)
+            .exchangeCode(EXCHANGE_CODE)
+            .tradeUuid(uuid)
+            .tradeType((short) tradeType)
+            .coinId(coinId)
+            .price(new BigDecimal(price))
+            .quantity(new BigDecimal(quantity))
+            .totalPrice(new BigDecimal(price).multiply(new BigDecimal(quantity)))
+            .tradeTime(tradeTime)
+            .build();
+    }
+
+    /**
+     * KRW 마켓의 활성 코인
+     */
+    public static Coin coin(int id, String symbol, String marketCode) {
+        return Coin.builder()
+            .id(id)
+            .symbol(symbol)
+            .quoteCurrency("KRW")
+            .marketCode(marketCode)
+            .isActive(true)
+            .build();
+    }
+}